@@ -5,6 +5,8 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import static com.buschmais.cdo.api.Query.Result.CompositeRowObject;
@@ -54,6 +56,16 @@ public interface CdoManager extends AutoCloseable {
      */
     <T> T create(Class<T> type);
 
+    /**
+     * Create new property instances.
+     *
+     * @param <T>   The expected return type.
+     * @param type  The interface the property type shall implement.
+     * @param count The number of instances to create.
+     * @return The property instances.
+     */
+    <T> List<T> createAll(Class<T> type, int count);
+
     /**
      * Migrates the type of a property instance to the given target types and returns it. The original instance will not be usable anymore after migration.
      *
@@ -110,6 +122,13 @@ public interface CdoManager extends AutoCloseable {
      */
     <T> void delete(T instance);
 
+    /**
+     * Deletes property instances.
+     *
+     * @param instances The instances.
+     */
+    void deleteAll(Collection<?> instances);
+
     /**
      * Creates a {@link Query}.
      *
@@ -176,6 +195,22 @@ public interface CdoManager extends AutoCloseable {
      */
     void flush();
 
+    /**
+     * Flushes all pending changes to the datastore and removes all instances from the cache of the manager.
+     * <p>Instances which are still referenced by the application can be used further but are no longer managed, i.e.
+     * they will not be validated on commit and a new instance is created if the entity is read again.</p>
+     */
+    void clear();
+
+    /**
+     * Flushes the pending changes of an instance to the datastore and removes it from the cache of the manager.
+     *
+     * @param <T>      The instance type.
+     * @param instance The instance.
+     * @see #clear()
+     */
+    <T> void detach(T instance);
+
     /**
      * Defines the interface of strategies for migration between different composite object types.
      *
@@ -12,6 +12,13 @@ public interface CdoManagerFactory extends AutoCloseable {
      */
     CdoManager createCdoManager();
 
+    /**
+     * Return the runtime statistics of this factory.
+     *
+     * @return The {@link Statistics}.
+     */
+    Statistics getStatistics();
+
     /**
      * Close this factory.
      */
@@ -28,6 +28,16 @@ public interface Query<T> {
      */
     Query<T> withParameters(Map<String, Object> parameters);
 
+    /**
+     * Allow caching the result of the query within the current transaction.
+     * <p>Executing the query again with the same parameters will return the cached result unless an entity has been
+     * modified which may affect it. Typed queries annotated with {@link com.buschmais.cdo.api.annotation.Cacheable} are
+     * cached by default.</p>
+     *
+     * @return The query.
+     */
+    Query<T> cacheable();
+
     /**
      * Execute the query.
      *
@@ -0,0 +1,113 @@
+package com.buschmais.cdo.api;
+
+/**
+ * Provides runtime statistics of a {@link CdoManagerFactory}.
+ */
+public interface Statistics {
+
+    /**
+     * Return the number of {@link CdoManager}s which have been provided by the factory.
+     *
+     * @return The number of borrowed managers.
+     */
+    long getSessionBorrowCount();
+
+    /**
+     * Return the accumulated time spent for providing {@link CdoManager}s.
+     *
+     * @return The time in nanoseconds.
+     */
+    long getSessionBorrowTime();
+
+    /**
+     * Return the number of {@link CdoManager}s which have been taken from the session pool.
+     *
+     * @return The number of pool hits.
+     */
+    long getSessionPoolHits();
+
+    /**
+     * Return the number of {@link CdoManager}s which had to be created as no pooled instance was available.
+     *
+     * @return The number of pool misses.
+     */
+    long getSessionPoolMisses();
+
+    /**
+     * Return the number of idle {@link CdoManager}s which have been evicted from the session pool.
+     *
+     * @return The number of evicted managers.
+     */
+    long getSessionPoolEvictions();
+
+    /**
+     * Return the number of idle {@link CdoManager}s currently held by the session pool.
+     *
+     * @return The pool size.
+     */
+    int getSessionPoolSize();
+
+    /**
+     * Return the number of property values which have been read from the property cache.
+     *
+     * @return The number of property cache hits.
+     * @see com.buschmais.cdo.api.annotation.Cacheable
+     */
+    long getPropertyCacheHits();
+
+    /**
+     * Return the number of property values of cacheable types which had to be read from the datastore.
+     *
+     * @return The number of property cache misses.
+     */
+    long getPropertyCacheMisses();
+
+    /**
+     * Return the ratio of property cache hits to all reads of cacheable property values.
+     *
+     * @return The hit ratio between 0 and 1.
+     */
+    double getPropertyCacheHitRatio();
+
+    /**
+     * Return the number of entities whose cached property values have been evicted due to the size limit.
+     *
+     * @return The number of evictions.
+     */
+    long getPropertyCacheEvictions();
+
+    /**
+     * Return the number of entities whose cached property values have been invalidated by committed transactions.
+     *
+     * @return The number of invalidations.
+     */
+    long getPropertyCacheInvalidations();
+
+    /**
+     * Return the number of entities with cached property values.
+     *
+     * @return The property cache size.
+     */
+    int getPropertyCacheSize();
+
+    /**
+     * Return the number of property and relation writes which have been skipped because the value was not changed.
+     *
+     * @return The number of elided writes.
+     */
+    long getElidedWrites();
+
+    /**
+     * Return the number of queries which have been executed using a cached execution plan of the datastore.
+     *
+     * @return The number of query plan cache hits or 0 if the datastore does not provide it.
+     */
+    long getQueryPlanCacheHits();
+
+    /**
+     * Return the number of queries which required the datastore to build an execution plan.
+     *
+     * @return The number of query plan cache misses or 0 if the datastore does not provide it.
+     */
+    long getQueryPlanCacheMisses();
+}
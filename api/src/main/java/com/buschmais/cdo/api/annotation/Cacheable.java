@@ -0,0 +1,21 @@
+package com.buschmais.cdo.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a type whose primitive and enum property values may be cached by the
+ * {@link com.buschmais.cdo.api.CdoManagerFactory} and shared between all {@link com.buschmais.cdo.api.CdoManager}s.
+ * <p>Cached values are invalidated by transactions which modify the entity and have been committed by a manager of
+ * the same factory. Entities modified by queries (e.g. a Cypher <code>SET</code>) cannot be determined, therefore all
+ * cached values are dropped if a committed transaction executed a query which is not known to be read-only.
+ * Modifications by other applications are not recognized at all.</p>
+ * <p>If a query type is annotated its results are cached within the current transaction (see
+ * {@link com.buschmais.cdo.api.Query#cacheable()}).</p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+}
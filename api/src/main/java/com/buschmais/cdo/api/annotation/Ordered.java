@@ -0,0 +1,16 @@
+package com.buschmais.cdo.api.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link java.util.List} property whose order shall be kept by the datastore.
+ * <p>If the datastore supports it an order key is stored on each relation, otherwise the elements are returned in the
+ * order provided by the datastore like for properties which are not annotated.</p>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Ordered {
+}
@@ -3,24 +3,37 @@ package com.buschmais.cdo.impl;
 import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.CdoManager;
 import com.buschmais.cdo.api.CdoManagerFactory;
-import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.api.Statistics;
+import com.buschmais.cdo.api.ValidationMode;
+import com.buschmais.cdo.api.annotation.Cacheable;
 import com.buschmais.cdo.impl.reflection.ClassHelper;
 import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
 import com.buschmais.cdo.api.bootstrap.CdoUnit;
 import com.buschmais.cdo.impl.cache.CacheSynchronization;
+import com.buschmais.cdo.impl.cache.PropertyCache;
+import com.buschmais.cdo.impl.cache.PropertyCacheSynchronization;
+import com.buschmais.cdo.impl.cache.PropertySnapshotCache;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
 import com.buschmais.cdo.impl.validation.InstanceValidator;
 import com.buschmais.cdo.impl.validation.ValidatorSynchronization;
 import com.buschmais.cdo.impl.cache.TransactionalCache;
 import com.buschmais.cdo.impl.metadata.MetadataProviderImpl;
+import com.buschmais.cdo.impl.proxy.ProxyFactory;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethodService;
 import com.buschmais.cdo.spi.bootstrap.CdoDatastoreProvider;
 import com.buschmais.cdo.spi.datastore.Datastore;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
+import com.buschmais.cdo.spi.metadata.TypeMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.validation.Validation;
 import javax.validation.ValidationException;
+import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import java.util.Collection;
+import java.util.Properties;
 
 public class CdoManagerFactoryImpl implements CdoManagerFactory {
 
@@ -29,9 +42,18 @@ public class CdoManagerFactoryImpl implements CdoManagerFactory {
     private CdoUnit cdoUnit;
     private MetadataProvider metadataProvider;
     private ClassLoader classLoader;
+    private ProxyFactory proxyFactory;
+    private EntityProxyMethodService<?> entityProxyMethodService;
     private Datastore<?, ?, ?> datastore;
     private ValidatorFactory validatorFactory;
-    private TransactionAttribute defaultTransactionAttribute;
+    private Validator validator;
+    private SessionPool sessionPool;
+    private int cacheMaxSize;
+    private PropertyCache<?> propertyCache;
+    private boolean propertySnapshots;
+    private boolean writeBehind;
+    private StatisticsImpl statistics;
+    private InterceptorRegistry interceptorRegistry;
 
     public CdoManagerFactoryImpl(CdoUnit cdoUnit) {
         this.cdoUnit = cdoUnit;
@@ -44,7 +66,7 @@ public class CdoManagerFactoryImpl implements CdoManagerFactory {
         }
         CdoDatastoreProvider cdoDatastoreProvider = CdoDatastoreProvider.class.cast(ClassHelper.newInstance(providerType));
         datastore = cdoDatastoreProvider.createDatastore(cdoUnit);
-        this.defaultTransactionAttribute = cdoUnit.getDefaultTransactionAttribute();
+        this.interceptorRegistry = new InterceptorRegistry(cdoUnit.getDefaultTransactionAttribute());
         final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
         classLoader = contextClassLoader != null ? contextClassLoader : cdoUnit.getClass().getClassLoader();
         LOGGER.info("Using class loader '{}'.", contextClassLoader.toString());
@@ -54,36 +76,199 @@ public class CdoManagerFactoryImpl implements CdoManagerFactory {
                 return contextClassLoader.loadClass(name);
             }
         };
+        Properties properties = cdoUnit.getProperties() != null ? cdoUnit.getProperties() : new Properties();
+        boolean generatedProxies = getBooleanProperty(properties, ProxyFactory.PROPERTY_GENERATED, false);
+        if (generatedProxies) {
+            LOGGER.info("Using generated proxy classes.");
+        }
+        proxyFactory = new ProxyFactory(classLoader, generatedProxies);
         metadataProvider = new MetadataProviderImpl(cdoUnit.getTypes(), datastore);
-        try {
-            this.validatorFactory = Validation.buildDefaultValidatorFactory();
-        } catch (ValidationException e) {
-            LOGGER.debug("Cannot find validation provider.", e);
-            LOGGER.info("No JSR 303 Bean Validation provider available.");
+        entityProxyMethodService = new EntityProxyMethodService(metadataProvider, interceptorRegistry);
+        if (ValidationMode.NONE.equals(cdoUnit.getValidationMode())) {
+            LOGGER.info("Validation is disabled.");
+        } else {
+            try {
+                this.validatorFactory = Validation.buildDefaultValidatorFactory();
+                this.validator = validatorFactory.getValidator();
+            } catch (ValidationException e) {
+                LOGGER.debug("Cannot find validation provider.", e);
+                LOGGER.info("No JSR 303 Bean Validation provider available.");
+            }
         }
         datastore.init(metadataProvider.getRegisteredMetadata());
+        sessionPool = createSessionPool(properties);
+        cacheMaxSize = getCacheMaxSize(properties);
+        propertyCache = createPropertyCache(properties);
+        propertySnapshots = getBooleanProperty(properties, PropertySnapshotCache.PROPERTY_ENABLED, false);
+        if (propertySnapshots) {
+            LOGGER.info("Using property snapshots.");
+        }
+        writeBehind = getBooleanProperty(properties, PropertyWriteBuffer.PROPERTY_ENABLED, false);
+        if (writeBehind) {
+            LOGGER.info("Using write-behind of property values.");
+        }
+        statistics = new StatisticsImpl(sessionPool, propertyCache, datastore);
     }
 
     @Override
     public CdoManager createCdoManager() {
+        long start = System.nanoTime();
+        CdoManagerImpl<?, ?, ?, ?, ?, ?> pooledCdoManager = sessionPool != null ? sessionPool.poll() : null;
+        boolean pooled = pooledCdoManager != null;
+        CdoManagerImpl<?, ?, ?, ?, ?, ?> cdoManager = pooled ? pooledCdoManager.reopen() : newCdoManager();
+        CdoManager proxy = cdoManager.getInterceptorFactory().<CdoManager>addInterceptor(cdoManager);
+        statistics.sessionBorrowed(pooled, System.nanoTime() - start);
+        return proxy;
+    }
+
+    private CdoManagerImpl<?, ?, ?, ?, ?, ?> newCdoManager() {
         DatastoreSession datastoreSession = datastore.createSession();
-        TransactionalCache<?> cache = new TransactionalCache();
-        InstanceValidator instanceValidator = new InstanceValidator(validatorFactory, cache);
+        TransactionalCache<?> cache = new TransactionalCache(cacheMaxSize);
+        InstanceValidator instanceValidator = new InstanceValidator(validator, cache);
         CdoTransactionImpl cdoTransaction = new CdoTransactionImpl(datastoreSession.getDatastoreTransaction());
-        InterceptorFactory interceptorFactory = new InterceptorFactory(cdoTransaction, defaultTransactionAttribute);
-        InstanceManager instanceManager = new InstanceManager(metadataProvider, datastoreSession, classLoader, cdoTransaction, cache, interceptorFactory);
+        InterceptorFactory interceptorFactory = new InterceptorFactory(cdoTransaction, interceptorRegistry);
+        PropertySnapshotCache<?> snapshotCache = propertySnapshots ? new PropertySnapshotCache<>() : null;
+        PropertyWriteBuffer<?, ?> writeBuffer = new PropertyWriteBuffer<>(datastoreSession, writeBehind);
+        SessionContext sessionContext = new SessionContext(metadataProvider, proxyFactory, entityProxyMethodService, datastoreSession, cache, propertyCache, snapshotCache, writeBuffer, cdoTransaction, interceptorFactory, statistics);
+        InstanceManager instanceManager = sessionContext.getInstanceManager();
         // Register default synchronizations.
-        cdoTransaction.registerDefaultSynchronization(new ValidatorSynchronization(instanceValidator));
-        cdoTransaction.registerDefaultSynchronization(new CacheSynchronization(instanceManager, cache, datastoreSession));
-        return interceptorFactory.addInterceptor(new CdoManagerImpl(metadataProvider, cdoTransaction, cache, datastoreSession, instanceManager, interceptorFactory, instanceValidator));
+        if (validator != null) {
+            cdoTransaction.registerDefaultSynchronization(new ValidatorSynchronization(instanceValidator));
+        }
+        if (propertyCache != null) {
+            cdoTransaction.registerDefaultSynchronization(new PropertyCacheSynchronization(propertyCache, cache, sessionContext.getQueryCache()));
+        }
+        if (snapshotCache != null) {
+            cdoTransaction.registerDefaultSynchronization(snapshotCache);
+        }
+        if (writeBehind) {
+            cdoTransaction.registerDefaultSynchronization(writeBuffer);
+        }
+        cdoTransaction.registerDefaultSynchronization(new CacheSynchronization(cache, writeBuffer, datastoreSession));
+        cdoTransaction.registerDefaultSynchronization(sessionContext.getQueryCache());
+        cdoTransaction.registerDefaultSynchronization(sessionContext.getPropertyManager());
+        return new CdoManagerImpl(metadataProvider, cdoTransaction, cache, datastoreSession, instanceManager, interceptorFactory, instanceValidator, sessionContext.getQueryCache(), snapshotCache, writeBuffer, sessionPool);
+    }
+
+    private SessionPool createSessionPool(Properties properties) {
+        int size = getIntProperty(properties, SessionPool.PROPERTY_SIZE, 0);
+        if (size <= 0) {
+            return null;
+        }
+        long idleTimeout = getIntProperty(properties, SessionPool.PROPERTY_IDLE_TIMEOUT, SessionPool.DEFAULT_IDLE_TIMEOUT);
+        LOGGER.info("Using session pool with size {} and idle timeout {}ms.", size, idleTimeout);
+        return new SessionPool(size, idleTimeout);
+    }
+
+    /**
+     * Create the property cache if at least one registered type is {@link Cacheable}.
+     *
+     * @param properties The properties.
+     * @return The property cache or <code>null</code>.
+     */
+    private PropertyCache<?> createPropertyCache(Properties properties) {
+        Collection<TypeMetadata<?>> registeredMetadata = metadataProvider.getRegisteredMetadata();
+        for (TypeMetadata<?> typeMetadata : registeredMetadata) {
+            if (typeMetadata.getAnnotatedType().getAnnotation(Cacheable.class) != null) {
+                int size = getIntProperty(properties, PropertyCache.PROPERTY_SIZE, PropertyCache.DEFAULT_SIZE);
+                if (size <= 0) {
+                    return null;
+                }
+                PropertyCache.Eviction eviction = getEviction(properties);
+                LOGGER.info("Using property cache with size {} and {} eviction.", size, eviction);
+                return new PropertyCache<>(size, eviction);
+            }
+        }
+        return null;
+    }
+
+    private PropertyCache.Eviction getEviction(Properties properties) {
+        String value = properties.getProperty(PropertyCache.PROPERTY_EVICTION);
+        if (value == null) {
+            return PropertyCache.Eviction.LRU;
+        }
+        try {
+            return PropertyCache.Eviction.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new CdoException("Invalid value '" + value + "' for property " + PropertyCache.PROPERTY_EVICTION, e);
+        }
+    }
+
+    /**
+     * Determine the maximum number of clean instances held strongly by the cache of a manager from the configured size
+     * and memory limits.
+     *
+     * @param properties The properties.
+     * @return The maximum number of instances, 0 means unlimited.
+     */
+    private int getCacheMaxSize(Properties properties) {
+        int maxSize = getIntProperty(properties, TransactionalCache.PROPERTY_MAX_SIZE, 0);
+        long maxMemory = getLongProperty(properties, TransactionalCache.PROPERTY_MAX_MEMORY, 0);
+        if (maxMemory > 0) {
+            int maxSizeByMemory = (int) Math.min(Integer.MAX_VALUE, Math.max(1, maxMemory / TransactionalCache.ESTIMATED_INSTANCE_SIZE));
+            maxSize = maxSize > 0 ? Math.min(maxSize, maxSizeByMemory) : maxSizeByMemory;
+        }
+        if (maxSize > 0) {
+            LOGGER.info("Limiting cached clean instances per manager to {}.", maxSize);
+        }
+        return Math.max(0, maxSize);
+    }
+
+    private int getIntProperty(Properties properties, String name, int defaultValue) {
+        long value = getLongProperty(properties, name, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new CdoException("Invalid value '" + value + "' for property " + name);
+        }
+        return (int) value;
+    }
+
+    private boolean getBooleanProperty(Properties properties, String name, boolean defaultValue) {
+        String value = properties.getProperty(name);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    private long getLongProperty(Properties properties, String name, long defaultValue) {
+        String value = properties.getProperty(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new CdoException("Invalid value '" + value + "' for property " + name, e);
+        }
+    }
+
+    @Override
+    public Statistics getStatistics() {
+        return statistics;
     }
 
     @Override
     public void close() {
+        if (sessionPool != null) {
+            sessionPool.clear();
+        }
+        if (propertyCache != null) {
+            propertyCache.clear();
+        }
+        if (validatorFactory != null) {
+            validatorFactory.close();
+        }
         datastore.close();
     }
 
     public CdoUnit getCdoUnit() {
         return cdoUnit;
     }
+
+    /**
+     * Return the interceptor registry which allows adding {@link com.buschmais.cdo.impl.interceptor.InvocationInterceptor}s
+     * to all managers created by this factory.
+     *
+     * @return The interceptor registry.
+     */
+    public InterceptorRegistry getInterceptorRegistry() {
+        return interceptorRegistry;
+    }
 }
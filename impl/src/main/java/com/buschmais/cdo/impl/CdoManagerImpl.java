@@ -1,21 +1,22 @@
 package com.buschmais.cdo.impl;
 
 import com.buschmais.cdo.api.*;
+import com.buschmais.cdo.impl.cache.PropertySnapshotCache;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
 import com.buschmais.cdo.impl.cache.TransactionalCache;
 import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
 import com.buschmais.cdo.impl.transaction.TransactionalResultIterable;
 import com.buschmais.cdo.impl.validation.InstanceValidator;
 import com.buschmais.cdo.impl.query.CdoQueryImpl;
+import com.buschmais.cdo.impl.query.QueryCache;
+import com.buschmais.cdo.spi.datastore.DatastoreBatchSession;
 import com.buschmais.cdo.spi.datastore.DatastoreEntityMetadata;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
 import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
 import com.buschmais.cdo.spi.metadata.TypeMetadata;
 
 import javax.validation.ConstraintViolation;
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Set;
+import java.util.*;
 
 import static com.buschmais.cdo.api.Query.Result.CompositeRowObject;
 
@@ -23,13 +24,18 @@ public class CdoManagerImpl<EntityId, Entity, EntityMetadata extends DatastoreEn
 
     private final TransactionalCache cache;
     private final MetadataProvider metadataProvider;
-    private final CdoTransaction cdoTransaction;
+    private final CdoTransactionImpl cdoTransaction;
     private final DatastoreSession<EntityId, Entity, EntityMetadata, Discriminator, RelationId, Relation> datastoreSession;
     private final InstanceManager<EntityId, Entity> instanceManager;
     private final InterceptorFactory interceptorFactory;
     private final InstanceValidator instanceValidator;
+    private final QueryCache<Entity> queryCache;
+    private final PropertySnapshotCache<EntityId> snapshotCache;
+    private final PropertyWriteBuffer<EntityId, Entity> writeBuffer;
+    private final SessionPool sessionPool;
+    private boolean closed = false;
 
-    public CdoManagerImpl(MetadataProvider metadataProvider, CdoTransaction cdoTransaction, TransactionalCache cache, DatastoreSession<EntityId, Entity, EntityMetadata, Discriminator, RelationId, Relation> datastoreSession, InstanceManager instanceManager, InterceptorFactory interceptorFactory, InstanceValidator instanceValidator) {
+    public CdoManagerImpl(MetadataProvider metadataProvider, CdoTransactionImpl cdoTransaction, TransactionalCache cache, DatastoreSession<EntityId, Entity, EntityMetadata, Discriminator, RelationId, Relation> datastoreSession, InstanceManager instanceManager, InterceptorFactory interceptorFactory, InstanceValidator instanceValidator, QueryCache<Entity> queryCache, PropertySnapshotCache<EntityId> snapshotCache, PropertyWriteBuffer<EntityId, Entity> writeBuffer, SessionPool sessionPool) {
         this.metadataProvider = metadataProvider;
         this.cdoTransaction = cdoTransaction;
         this.cache = cache;
@@ -37,25 +43,43 @@ public class CdoManagerImpl<EntityId, Entity, EntityMetadata extends DatastoreEn
         this.instanceManager = instanceManager;
         this.interceptorFactory = interceptorFactory;
         this.instanceValidator = instanceValidator;
+        this.queryCache = queryCache;
+        this.snapshotCache = snapshotCache;
+        this.writeBuffer = writeBuffer;
+        this.sessionPool = sessionPool;
+    }
+
+    /**
+     * Create a manager for a new borrower of a pooled manager, both share the datastore session and all session state.
+     * <p>The pooled manager stays closed, i.e. references held by its previous borrower cannot be used any more.</p>
+     *
+     * @return The manager.
+     */
+    CdoManagerImpl<EntityId, Entity, EntityMetadata, Discriminator, RelationId, Relation> reopen() {
+        return new CdoManagerImpl<>(metadataProvider, cdoTransaction, cache, datastoreSession, instanceManager, interceptorFactory, instanceValidator, queryCache, snapshotCache, writeBuffer, sessionPool);
     }
 
     @Override
     public CdoTransaction currentTransaction() {
+        checkOpen();
         return cdoTransaction;
     }
 
     @Override
     public Set<ConstraintViolation<Object>> validate() {
+        checkOpen();
         return instanceValidator.validate();
     }
 
     @Override
     public <T> ResultIterable<T> find(final Class<T> type, final Object value) {
+        checkOpen();
         TypeMetadata<EntityMetadata> typeMetadata = metadataProvider.getEntityMetadata(type);
         Discriminator discriminator = typeMetadata.getDatastoreMetadata().getDiscriminator();
         if (discriminator == null) {
             throw new CdoException("Type " + type.getName() + " has no discriminator (i.e. cannot be identified in datastore).");
         }
+        writeBuffer.flush();
         final ResultIterator<Entity> iterator = datastoreSession.find(typeMetadata, discriminator, value);
         return new TransactionalResultIterable<T>(new AbstractResultIterable<T>() {
             @Override
@@ -89,20 +113,51 @@ public class CdoManagerImpl<EntityId, Entity, EntityMetadata extends DatastoreEn
 
     @Override
     public CompositeObject create(Class type, Class<?>... types) {
+        checkOpen();
         TypeMetadataSet effectiveTypes = getEffectiveTypes(type, types);
         Set<Discriminator> discriminators = metadataProvider.getDiscriminators(effectiveTypes);
         Entity entity = datastoreSession.create(effectiveTypes, discriminators);
         CompositeObject instance = instanceManager.getInstance(entity);
+        cache.markDirty(datastoreSession.getId(entity), entity);
+        queryCache.invalidate(discriminators);
         return instance;
     }
 
     public <T> T create(Class<T> type) {
+        checkOpen();
         T instance = create(type, new Class<?>[0]).as(type);
         return instance;
     }
 
+    @Override
+    public <T> List<T> createAll(Class<T> type, int count) {
+        checkOpen();
+        TypeMetadataSet<EntityMetadata> effectiveTypes = getEffectiveTypes(type);
+        Set<Discriminator> discriminators = metadataProvider.getDiscriminators(effectiveTypes);
+        List<Entity> entities;
+        if (datastoreSession instanceof DatastoreBatchSession) {
+            entities = ((DatastoreBatchSession<Entity, EntityMetadata, Discriminator>) datastoreSession).createAll(effectiveTypes, discriminators, count);
+        } else {
+            entities = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Entity entity = datastoreSession.create(effectiveTypes, discriminators);
+                entities.add(entity);
+            }
+        }
+        List<CompositeObject> compositeObjects = instanceManager.getInstances(entities);
+        List<T> instances = new ArrayList<>(compositeObjects.size());
+        for (int i = 0; i < compositeObjects.size(); i++) {
+            Entity entity = entities.get(i);
+            cache.markDirty(datastoreSession.getId(entity), entity);
+            instances.add(compositeObjects.get(i).as(type));
+        }
+        queryCache.invalidate(discriminators);
+        return instances;
+    }
+
     @Override
     public <T, M> CompositeObject migrate(T instance, MigrationStrategy<T, M> migrationStrategy, Class<M> targetType, Class<?>... targetTypes) {
+        checkOpen();
         Entity entity = instanceManager.getEntity(instance);
         Set<Discriminator> discriminators = datastoreSession.getDiscriminators(entity);
         TypeMetadataSet types = metadataProvider.getTypes(discriminators);
@@ -111,6 +166,9 @@ public class CdoManagerImpl<EntityId, Entity, EntityMetadata extends DatastoreEn
         datastoreSession.migrate(entity, types, discriminators, effectiveTargetTypes, targetDiscriminators);
         instanceManager.removeInstance(instance);
         CompositeObject migratedInstance = instanceManager.getInstance(entity);
+        cache.markDirty(datastoreSession.getId(entity), entity);
+        queryCache.invalidate(discriminators);
+        queryCache.invalidate(targetDiscriminators);
         if (migrationStrategy != null) {
             migrationStrategy.migrate(instance, migratedInstance.as(targetType));
         }
@@ -120,71 +178,166 @@ public class CdoManagerImpl<EntityId, Entity, EntityMetadata extends DatastoreEn
 
     @Override
     public <T, M> CompositeObject migrate(T instance, Class<M> targetType, Class<?>... targetTypes) {
+        checkOpen();
         return migrate(instance, null, targetTypes);
     }
 
     @Override
     public <T, M> M migrate(T instance, MigrationStrategy<T, M> migrationStrategy, Class<M> targetType) {
+        checkOpen();
         return migrate(instance, migrationStrategy, targetType, new Class<?>[0]).as(targetType);
     }
 
     @Override
     public <T, M> M migrate(T instance, Class<M> targetType) {
+        checkOpen();
         return migrate(instance, null, targetType);
     }
 
     @Override
     public <T> void delete(T instance) {
+        checkOpen();
+        datastoreSession.delete(remove(instance));
+    }
+
+    @Override
+    public void deleteAll(Collection<?> instances) {
+        checkOpen();
+        List<Entity> entities = new ArrayList<>(instances.size());
+        for (Object instance : instances) {
+            entities.add(remove(instance));
+        }
+        if (datastoreSession instanceof DatastoreBatchSession) {
+            ((DatastoreBatchSession<Entity, EntityMetadata, Discriminator>) datastoreSession).deleteAll(entities);
+        } else {
+            for (Entity entity : entities) {
+                datastoreSession.delete(entity);
+            }
+        }
+    }
+
+    /**
+     * Remove an instance which is going to be deleted from the caches.
+     *
+     * @param instance The instance.
+     * @return The entity of the instance.
+     */
+    private <T> Entity remove(T instance) {
         Entity entity = instanceManager.getEntity(instance);
+        cache.markDirty(datastoreSession.getId(entity), entity);
+        if (!queryCache.isEmpty()) {
+            queryCache.invalidate(instanceManager.getDiscriminators(instance));
+        }
         instanceManager.removeInstance(instance);
         instanceManager.destroyInstance(instance);
-        datastoreSession.delete(entity);
+        writeBuffer.discard(datastoreSession.getId(entity));
+        return entity;
     }
 
     @Override
     public Query<CompositeRowObject> createQuery(String query) {
-        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, Collections.emptyList()));
+        checkOpen();
+        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, queryCache, snapshotCache, writeBuffer, Collections.emptyList()));
     }
 
     @Override
     public <T> Query<T> createQuery(String query, Class<T> type) {
-        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, Arrays.asList(new Class<?>[]{type})));
+        checkOpen();
+        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, queryCache, snapshotCache, writeBuffer, Arrays.asList(new Class<?>[]{type})));
     }
 
     @Override
     public Query<CompositeRowObject> createQuery(String query, Class<?> type, Class<?>... types) {
-        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, Arrays.asList(types)));
+        checkOpen();
+        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, queryCache, snapshotCache, writeBuffer, Arrays.asList(types)));
     }
 
     @Override
     public <T> Query<T> createQuery(Class<T> query) {
-        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, Arrays.asList(new Class<?>[]{query})));
+        checkOpen();
+        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, queryCache, snapshotCache, writeBuffer, Arrays.asList(new Class<?>[]{query})));
     }
 
     @Override
     public Query<CompositeRowObject> createQuery(Class<?> query, Class<?>... types) {
-        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, Arrays.asList(types)));
+        checkOpen();
+        return interceptorFactory.addInterceptor(new CdoQueryImpl(query, datastoreSession, instanceManager, cdoTransaction, interceptorFactory, queryCache, snapshotCache, writeBuffer, Arrays.asList(types)));
     }
 
     @Override
     public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         instanceManager.close();
+        if (sessionPool == null || cdoTransaction.isActive() || !sessionPool.offer(this)) {
+            closeSession();
+        }
+    }
+
+    /**
+     * Reset all state of the session before the manager is pooled.
+     */
+    void reset() {
+        cdoTransaction.clearSynchronizations();
+        writeBuffer.clear();
+        queryCache.clear();
+        if (snapshotCache != null) {
+            snapshotCache.clear();
+        }
+        cache.reset();
+    }
+
+    /**
+     * Close the datastore session, e.g. if the manager is not pooled or evicted from the pool.
+     */
+    void closeSession() {
+        datastoreSession.close();
     }
 
     @Override
     public <DS> DS getDatastoreSession(Class<DS> sessionType) {
+        checkOpen();
         return sessionType.cast(datastoreSession);
     }
 
     @Override
     public void flush() {
-        Collection instances = cache.values();
-        for (Object instance : instances) {
-            Entity entity = instanceManager.getEntity(instance);
+        checkOpen();
+        writeBuffer.flush();
+        Collection<Entity> entities = (Collection<Entity>) cache.getDirtyEntities();
+        for (Entity entity : entities) {
             datastoreSession.flush(entity);
         }
     }
 
+    @Override
+    public void clear() {
+        checkOpen();
+        flush();
+        cache.clear();
+    }
+
+    @Override
+    public <T> void detach(T instance) {
+        checkOpen();
+        Entity entity = instanceManager.getEntity(instance);
+        writeBuffer.flush(entity);
+        datastoreSession.flush(entity);
+        instanceManager.removeInstance(instance);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new CdoException("The CdoManager has already been closed.");
+        }
+    }
+
+    InterceptorFactory getInterceptorFactory() {
+        return interceptorFactory;
+    }
+
     private TypeMetadataSet<EntityMetadata> getEffectiveTypes(Class<?> type, Class<?>... types) {
         TypeMetadataSet<EntityMetadata> effectiveTypes = new TypeMetadataSet();
         effectiveTypes.add(metadataProvider.getEntityMetadata(type));
@@ -65,6 +65,13 @@ public class CdoTransactionImpl implements CdoTransaction {
         defaultSynchronizations.remove(synchronization);
     }
 
+    /**
+     * Remove all synchronizations registered by the application, the default synchronizations are kept.
+     */
+    public void clearSynchronizations() {
+        synchronizations.clear();
+    }
+
     private void beforeCompletion() {
         executeSynchronizations(new SynchronizationOperation() {
             @Override
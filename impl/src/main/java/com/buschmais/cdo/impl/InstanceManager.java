@@ -1,64 +1,134 @@
 package com.buschmais.cdo.impl;
 
 import com.buschmais.cdo.api.CdoException;
-import com.buschmais.cdo.api.CdoTransaction;
-import com.buschmais.cdo.api.CompositeObject;
 import com.buschmais.cdo.impl.cache.TransactionalCache;
+import com.buschmais.cdo.impl.metadata.PropertySlots;
+import com.buschmais.cdo.impl.proxy.ProxyFactory;
 import com.buschmais.cdo.impl.proxy.ProxyMethodService;
-import com.buschmais.cdo.impl.interceptor.CdoInterceptor;
-import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.proxy.ProxyType;
+import com.buschmais.cdo.impl.proxy.SlotInvocationHandler;
 import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
 import com.buschmais.cdo.impl.proxy.instance.InstanceInvocationHandler;
-import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethodService;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethod;
+import com.buschmais.cdo.spi.datastore.DatastoreDiscriminatorResolver;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Proxy;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public class InstanceManager<EntityId, Entity> {
 
+    /**
+     * The number of entities which are resolved together by iterators using {@link #getInstances(Iterable)}.
+     */
+    public static final int BATCH_SIZE = 64;
+
     private final MetadataProvider metadataProvider;
     private final DatastoreSession<EntityId, Entity, ?, ?, ?, ?> datastoreSession;
-    private final ClassLoader classLoader;
+    private final ProxyFactory proxyFactory;
     private final TransactionalCache cache;
-    private final ProxyMethodService<Entity, ?> proxyMethodService;
-    private final InterceptorFactory interceptorFactory;
+    private final ProxyMethodService<Entity, EntityProxyMethod<Entity>> proxyMethodService;
+    private final SessionContext<EntityId, Entity> sessionContext;
 
-    public InstanceManager(MetadataProvider metadataProvider, DatastoreSession<EntityId, Entity, ?, ?, ?, ?> datastoreSession, ClassLoader classLoader, CdoTransaction cdoTransaction, TransactionalCache cache, InterceptorFactory interceptorFactory) {
+    public InstanceManager(MetadataProvider metadataProvider, ProxyFactory proxyFactory, ProxyMethodService<Entity, EntityProxyMethod<Entity>> proxyMethodService, SessionContext<EntityId, Entity> sessionContext) {
         this.metadataProvider = metadataProvider;
-        this.datastoreSession = datastoreSession;
-        this.classLoader = classLoader;
-        this.cache = cache;
-        PropertyManager propertyManager = new PropertyManager(datastoreSession);
-        this.interceptorFactory = interceptorFactory;
-        proxyMethodService = new EntityProxyMethodService(metadataProvider, this, propertyManager, cdoTransaction, interceptorFactory, datastoreSession);
+        this.datastoreSession = sessionContext.getDatastoreSession();
+        this.proxyFactory = proxyFactory;
+        this.cache = sessionContext.getCache();
+        this.proxyMethodService = proxyMethodService;
+        this.sessionContext = sessionContext;
     }
 
     public <T> T getInstance(Entity entity) {
-        Set<?> discriminators = datastoreSession.getDiscriminators(entity);
-        if (discriminators == null || discriminators.isEmpty()) {
-            throw new CdoException("Cannot determine type discriminators for entity '" + entity + "'");
-        }
-        TypeMetadataSet<?> types = metadataProvider.getTypes(discriminators);
         EntityId id = datastoreSession.getId(entity);
         Object instance = cache.get(id);
         if (instance == null) {
-            InstanceInvocationHandler invocationHandler = new InstanceInvocationHandler(entity, proxyMethodService);
-            instance = createInstance(invocationHandler, types.toClasses(), CompositeObject.class);
-            cache.put(id, instance);
+            instance = newInstance(id, entity, datastoreSession.getDiscriminators(entity));
         }
         return (T) instance;
     }
 
-    public <Instance> Instance createInstance(InvocationHandler invocationHandler, Set<Class<?>> types, Class<?>... baseTypes) {
-        List<Class<?>> effectiveTypes = new ArrayList<>(types.size() + baseTypes.length);
-        effectiveTypes.addAll(types);
-        effectiveTypes.addAll(Arrays.asList(baseTypes));
-        return (Instance) createProxyInstance(invocationHandler, effectiveTypes);
+    /**
+     * Return the instances for the given entities.
+     * <p>Only the ids are read for entities which are already cached, the discriminators of all other entities are read
+     * together if supported by the datastore session. If property snapshots are enabled the snapshots of the created
+     * instances are loaded together if supported by the datastore.</p>
+     *
+     * @param entities The entities.
+     * @param <T>      The instance type.
+     * @return The instances in the order of the given entities.
+     */
+    public <T> List<T> getInstances(Iterable<Entity> entities) {
+        List<Object> instances = new ArrayList<>();
+        List<Integer> missingIndexes = new ArrayList<>();
+        List<EntityId> missingIds = new ArrayList<>();
+        List<Entity> missingEntities = new ArrayList<>();
+        for (Entity entity : entities) {
+            EntityId id = datastoreSession.getId(entity);
+            Object instance = cache.get(id);
+            if (instance == null) {
+                missingIndexes.add(instances.size());
+                missingIds.add(id);
+                missingEntities.add(entity);
+            }
+            instances.add(instance);
+        }
+        if (!missingEntities.isEmpty()) {
+            List<? extends Set<?>> discriminators = getDiscriminators(missingEntities);
+            Map<PropertySlots, List<Entity>> entitiesBySlots = new IdentityHashMap<>();
+            for (int i = 0; i < missingEntities.size(); i++) {
+                EntityId id = missingIds.get(i);
+                // the same entity may be contained more than once
+                Object instance = cache.get(id);
+                if (instance == null) {
+                    Entity entity = missingEntities.get(i);
+                    instance = newInstance(id, entity, discriminators.get(i));
+                    PropertySlots propertySlots = getPropertySlots(instance);
+                    if (propertySlots != null) {
+                        List<Entity> slotEntities = entitiesBySlots.get(propertySlots);
+                        if (slotEntities == null) {
+                            slotEntities = new ArrayList<>();
+                            entitiesBySlots.put(propertySlots, slotEntities);
+                        }
+                        slotEntities.add(entity);
+                    }
+                }
+                instances.set(missingIndexes.get(i), instance);
+            }
+            for (Map.Entry<PropertySlots, List<Entity>> entry : entitiesBySlots.entrySet()) {
+                sessionContext.getPropertyManager().loadSnapshots(entry.getValue(), entry.getKey());
+            }
+        }
+        return (List<T>) instances;
+    }
+
+    private List<? extends Set<?>> getDiscriminators(List<Entity> entities) {
+        if (entities.size() > 1 && datastoreSession instanceof DatastoreDiscriminatorResolver) {
+            return ((DatastoreDiscriminatorResolver<Entity, ?>) datastoreSession).getDiscriminators(entities);
+        }
+        List<Set<?>> discriminators = new ArrayList<>(entities.size());
+        for (Entity entity : entities) {
+            discriminators.add(datastoreSession.getDiscriminators(entity));
+        }
+        return discriminators;
+    }
+
+    private Object newInstance(EntityId id, Entity entity, Set<?> discriminators) {
+        if (discriminators == null || discriminators.isEmpty()) {
+            throw new CdoException("Cannot determine type discriminators for entity '" + entity + "'");
+        }
+        TypeMetadataSet<?> types = metadataProvider.getTypes(discriminators);
+        PropertySlots propertySlots = sessionContext.getPropertyManager().isSnapshotEnabled() ? metadataProvider.getPropertySlots(types) : null;
+        ProxyType proxyType = proxyFactory.getEntityProxyType(types);
+        InstanceInvocationHandler invocationHandler = new InstanceInvocationHandler<>(entity, proxyType, proxyMethodService, sessionContext, propertySlots, discriminators);
+        Object instance = proxyType.newInstance(invocationHandler);
+        cache.put(id, instance);
+        return instance;
+    }
+
+    public ProxyType getProxyType(Set<Class<?>> types, Class<?>... baseTypes) {
+        Class<?>[] effectiveTypes = types.toArray(new Class<?>[types.size() + baseTypes.length]);
+        System.arraycopy(baseTypes, 0, effectiveTypes, types.size(), baseTypes.length);
+        return proxyFactory.getProxyType(effectiveTypes);
     }
 
     public <Instance> void removeInstance(Instance instance) {
@@ -72,7 +142,7 @@ public class InstanceManager<EntityId, Entity> {
     }
 
     public <Instance> boolean isEntity(Instance instance) {
-        return Proxy.isProxyClass(instance.getClass()) && Proxy.getInvocationHandler(instance) instanceof CdoInterceptor;
+        return proxyFactory.getInvocationHandler(instance) instanceof InstanceInvocationHandler;
     }
 
     public <Instance> Entity getEntity(Instance instance) {
@@ -80,6 +150,59 @@ public class InstanceManager<EntityId, Entity> {
         return invocationHandler.getEntity();
     }
 
+    /**
+     * Return the discriminators of an entity.
+     * <p>If an instance of the entity is cached the discriminators its types have been resolved from are returned,
+     * otherwise they are read from the datastore.</p>
+     *
+     * @param id     The id of the entity.
+     * @param entity The entity.
+     * @return The discriminators.
+     */
+    public Set<?> getDiscriminators(EntityId id, Entity entity) {
+        Object instance = cache.get(id);
+        return instance != null ? getDiscriminators(instance) : datastoreSession.getDiscriminators(entity);
+    }
+
+    /**
+     * Return the discriminators of the entity of an instance.
+     *
+     * @param instance The instance.
+     * @return The discriminators.
+     */
+    public <Instance> Set<?> getDiscriminators(Instance instance) {
+        InstanceInvocationHandler<Entity> invocationHandler = getInvocationHandler(instance);
+        Set<?> discriminators = invocationHandler.getDiscriminators();
+        if (discriminators == null) {
+            discriminators = datastoreSession.getDiscriminators(invocationHandler.getEntity());
+            invocationHandler.setDiscriminators(discriminators);
+        }
+        return discriminators;
+    }
+
+    /**
+     * Discard the discriminators of a cached instance after they have been changed, e.g. by writing an enum property
+     * which is represented by a discriminator. They are read again from the datastore if required.
+     *
+     * @param id The id of the entity.
+     */
+    public void resetDiscriminators(EntityId id) {
+        Object instance = cache.get(id);
+        if (instance != null) {
+            getInvocationHandler(instance).setDiscriminators(null);
+        }
+    }
+
+    /**
+     * Return the slots of the properties of an instance.
+     *
+     * @param instance The instance.
+     * @return The {@link PropertySlots} or <code>null</code> if property snapshots are disabled.
+     */
+    public <Instance> PropertySlots getPropertySlots(Instance instance) {
+        return getInvocationHandler(instance).getPropertySlots();
+    }
+
     public void close() {
         for (Object instance : cache.values()) {
             destroyInstance(instance);
@@ -87,13 +210,8 @@ public class InstanceManager<EntityId, Entity> {
         cache.clear();
     }
 
-    private Object createProxyInstance(InvocationHandler invocationHandler, List<Class<?>> effectiveTypes) {
-        Object instance = Proxy.newProxyInstance(classLoader, effectiveTypes.toArray(new Class<?>[effectiveTypes.size()]), invocationHandler);
-        return interceptorFactory.addInterceptor(instance);
-    }
-
     private <Instance> InstanceInvocationHandler<Entity> getInvocationHandler(Instance instance) {
-        InvocationHandler invocationHandler = Proxy.getInvocationHandler(interceptorFactory.removeInterceptor(instance));
+        SlotInvocationHandler invocationHandler = proxyFactory.getInvocationHandler(instance);
         if (!(invocationHandler instanceof InstanceInvocationHandler)) {
             throw new CdoException("Instance " + instance + " implementing " + Arrays.asList(instance.getClass().getInterfaces()) + " is not a " + InstanceInvocationHandler.class.getName());
         }
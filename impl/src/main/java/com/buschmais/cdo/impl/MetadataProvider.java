@@ -1,5 +1,6 @@
 package com.buschmais.cdo.impl;
 
+import com.buschmais.cdo.impl.metadata.PropertySlots;
 import com.buschmais.cdo.spi.datastore.DatastoreEntityMetadata;
 import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
 import com.buschmais.cdo.spi.metadata.TypeMetadata;
@@ -13,6 +14,14 @@ public interface MetadataProvider<EntityMetadata extends DatastoreEntityMetadata
 
     Set<Discriminator> getDiscriminators(TypeMetadataSet<EntityMetadata> types);
 
+    /**
+     * Return the slots of the primitive and enumeration properties of a set of types.
+     *
+     * @param types The types.
+     * @return The {@link PropertySlots}.
+     */
+    PropertySlots getPropertySlots(TypeMetadataSet<EntityMetadata> types);
+
     Collection<TypeMetadata<EntityMetadata>> getRegisteredMetadata();
 
     TypeMetadata<EntityMetadata> getEntityMetadata(Class<?> type);
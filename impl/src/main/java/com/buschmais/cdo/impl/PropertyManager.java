@@ -1,30 +1,84 @@
 package com.buschmais.cdo.impl;
 
 import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.impl.cache.PropertyCache;
+import com.buschmais.cdo.impl.cache.PropertySnapshotCache;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
+import com.buschmais.cdo.impl.cache.TransactionalCache;
+import com.buschmais.cdo.impl.metadata.PropertySlots;
+import com.buschmais.cdo.impl.query.QueryCache;
+import com.buschmais.cdo.spi.datastore.DatastoreBulkPropertyManager;
 import com.buschmais.cdo.spi.datastore.DatastorePropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastorePropertyReader;
+import com.buschmais.cdo.spi.datastore.DatastoreRelationCounter;
+import com.buschmais.cdo.spi.datastore.DatastoreRelationOrder;
+import com.buschmais.cdo.spi.metadata.AbstractPropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.RelationMetadata;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
 
-import java.util.Iterator;
+import java.util.*;
 
 /**
  * Contains methods for reading and creating relationships specified by the given metadata.
  * <p/>
  * <p>For each provided method the direction of the relationships is handled transparently for the caller.</p>
  */
-public class PropertyManager<EntityId, Entity, RelationId, Relation> {
+public class PropertyManager<EntityId, Entity, RelationId, Relation> implements CdoTransaction.Synchronization {
+
+    /**
+     * The distance between the order keys of relations which are appended or renumbered.
+     */
+    public static final long ORDER_STEP = 1L << 20;
 
     DatastorePropertyManager<Entity, Relation, ?, ?, ?> datastorePropertyManager;
 
+    private final DatastoreSession<EntityId, Entity, ?, ?, RelationId, Relation> datastoreSession;
+
+    private final TransactionalCache<EntityId> cache;
+
+    private final PropertyCache<EntityId> propertyCache;
+
+    private final PropertySnapshotCache<EntityId> snapshotCache;
+
+    private final PropertyWriteBuffer<EntityId, Entity> writeBuffer;
+
+    private final QueryCache<Entity> queryCache;
+
+    private final InstanceManager<EntityId, Entity> instanceManager;
+
+    private final StatisticsImpl statistics;
+
+    private final Map<RelationKey, Long> relationModifications = new HashMap<>();
+
+    private long relationModificationCount = 0;
+
+    private long relationModificationBase = 0;
+
     /**
      * Constructor.
      *
-     * @param datastorePropertyManager
+     * @param datastoreSession The datastore session.
+     * @param cache            The cache, modified entities are marked as dirty.
+     * @param propertyCache    The property cache shared by all managers or <code>null</code>.
+     * @param snapshotCache    The property snapshots of the manager or <code>null</code> if snapshots are disabled.
+     * @param writeBuffer      The buffer for values of primitive properties, used if write-behind is enabled.
+     * @param queryCache       The query cache, results depending on modified entities are invalidated.
+     * @param instanceManager  The instance manager, provides the discriminators of modified entities.
+     * @param statistics       The statistics of the factory, counts elided writes.
      */
-    public PropertyManager(DatastoreSession<EntityId, Entity, ?, ?, RelationId, Relation> datastorePropertyManager) {
-        this.datastorePropertyManager = datastorePropertyManager.getDatastorePropertyManager();
+    public PropertyManager(DatastoreSession<EntityId, Entity, ?, ?, RelationId, Relation> datastoreSession, TransactionalCache<EntityId> cache, PropertyCache<EntityId> propertyCache, PropertySnapshotCache<EntityId> snapshotCache, PropertyWriteBuffer<EntityId, Entity> writeBuffer, QueryCache<Entity> queryCache, InstanceManager<EntityId, Entity> instanceManager, StatisticsImpl statistics) {
+        this.datastorePropertyManager = datastoreSession.getDatastorePropertyManager();
+        this.datastoreSession = datastoreSession;
+        this.cache = cache;
+        this.propertyCache = propertyCache;
+        this.snapshotCache = snapshotCache;
+        this.writeBuffer = writeBuffer;
+        this.queryCache = queryCache;
+        this.instanceManager = instanceManager;
+        this.statistics = statistics;
     }
 
     /**
@@ -45,7 +99,7 @@ public class PropertyManager<EntityId, Entity, RelationId, Relation> {
      * @return An iterator delivering all target nodes.
      */
     public Iterator<Entity> getRelations(Entity source, RelationMetadata metadata, final RelationMetadata.Direction direction) {
-        Iterable<Relation> relations = datastorePropertyManager.getRelations(source, metadata, direction);
+        Iterable<Relation> relations = getRelationsBulk(Collections.singletonList(source), metadata, direction).get(0);
         final Iterator<Relation> iterator = relations.iterator();
         return new Iterator<Entity>() {
             @Override
@@ -65,21 +119,93 @@ public class PropertyManager<EntityId, Entity, RelationId, Relation> {
         };
     }
 
+    /**
+     * Return the relationships of several entities.
+     * <p>The relationships are read using one store access if the datastore implements
+     * {@link DatastoreBulkPropertyManager}, otherwise they are read entity by entity.</p>
+     *
+     * @param sources The entities.
+     * @return The relationships of each entity in the order of the given entities.
+     */
+    public List<Iterable<Relation>> getRelationsBulk(List<Entity> sources, RelationMetadata metadata, RelationMetadata.Direction direction) {
+        if (datastorePropertyManager instanceof DatastoreBulkPropertyManager) {
+            return ((DatastoreBulkPropertyManager<Entity, Relation, ?, ?>) datastorePropertyManager).getRelationsBulk(sources, metadata, direction);
+        }
+        List<Iterable<Relation>> relations = new ArrayList<>(sources.size());
+        for (Entity source : sources) {
+            relations.add(datastorePropertyManager.getRelations(source, metadata, direction));
+        }
+        return relations;
+    }
+
+    /**
+     * Return the number of relationships of an entity.
+     *
+     * @param source The entity.
+     * @return The number of relationships.
+     */
+    public long countRelations(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction) {
+        if (datastorePropertyManager instanceof DatastoreRelationCounter) {
+            return ((DatastoreRelationCounter<Entity, ?>) datastorePropertyManager).countRelations(source, metadata, direction);
+        }
+        long count = 0;
+        Iterable<Relation> relations = datastorePropertyManager.getRelations(source, metadata, direction);
+        for (Iterator<Relation> iterator = relations.iterator(); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Determine if a relationship between two entities exists.
+     *
+     * @param source The source.
+     * @param target The target.
+     * @return <code>true</code> if at least one relationship exists.
+     */
+    public boolean hasRelation(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction, Entity target) {
+        if (datastorePropertyManager instanceof DatastoreRelationCounter) {
+            return ((DatastoreRelationCounter<Entity, ?>) datastorePropertyManager).hasRelation(source, metadata, direction, target);
+        }
+        Iterable<Relation> relations = datastorePropertyManager.getRelations(source, metadata, direction);
+        for (Relation relation : relations) {
+            if (getRelativeTarget(relation, direction).equals(target)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Create a single relationship from a source to another.
-     * <p>An existing relationship will be discarded.</p>
+     * <p>An existing relationship will be discarded unless it already references the target.</p>
      *
      * @param source The source.
      * @param target The target source or <code>null</code>.
+     * @return <code>true</code> if the relationship has been changed.
      */
-    public void createSingleRelation(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction, Entity target) {
+    public boolean createSingleRelation(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction, Entity target) {
         if (datastorePropertyManager.hasSingleRelation(source, metadata, direction)) {
             Relation relation = datastorePropertyManager.getSingleRelation(source, metadata, direction);
+            Entity currentTarget = getRelativeTarget(relation, direction);
+            if (currentTarget.equals(target)) {
+                statistics.writeElided();
+                return false;
+            }
+            markDirty(currentTarget);
             datastorePropertyManager.deleteRelation(relation);
+            relationModified(source, metadata, currentTarget);
+        } else if (target == null) {
+            statistics.writeElided();
+            return false;
         }
         if (target != null) {
             datastorePropertyManager.createRelation(source, metadata, direction, target);
+            relationModified(source, metadata, target);
+            markDirty(target);
         }
+        markDirty(source);
+        return true;
     }
 
     /**
@@ -90,6 +216,9 @@ public class PropertyManager<EntityId, Entity, RelationId, Relation> {
      */
     public void createRelation(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction, Entity target) {
         datastorePropertyManager.createRelation(source, metadata, direction, target);
+        relationModified(source, metadata, target);
+        markDirty(source);
+        markDirty(target);
     }
 
     /**
@@ -104,6 +233,9 @@ public class PropertyManager<EntityId, Entity, RelationId, Relation> {
         for (Relation relation : relations) {
             if (getRelativeTarget(relation, direction).equals(target)) {
                 datastorePropertyManager.deleteRelation(relation);
+                relationModified(source, metadata, target);
+                markDirty(source);
+                markDirty(target);
                 return true;
             }
         }
@@ -118,11 +250,286 @@ public class PropertyManager<EntityId, Entity, RelationId, Relation> {
     public void removeRelations(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction) {
         Iterable<Relation> relations = datastorePropertyManager.getRelations(source, metadata, direction);
         for (Relation relation : relations) {
+            Entity target = getRelativeTarget(relation, direction);
+            markDirty(target);
             datastorePropertyManager.deleteRelation(relation);
+            relationModified(source, metadata, target);
+        }
+        markDirty(source);
+    }
+
+    /**
+     * Replace the relationships of an entity by relationships to the given targets.
+     * <p>Only relationships to targets which are no longer contained are deleted and only missing relationships are
+     * created, unchanged relationships are kept. If the relationships are ordered and the datastore supports order
+     * keys the keys are adjusted to the order of the targets, keys which are already in order are kept.</p>
+     *
+     * @param source  The entity.
+     * @param targets The targets, a target may be contained more than once.
+     * @param ordered <code>true</code> if the order of the targets shall be kept.
+     */
+    public void setRelations(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction, List<Entity> targets, boolean ordered) {
+        Map<EntityId, Integer> counts = new HashMap<>();
+        for (Entity target : targets) {
+            EntityId id = datastoreSession.getId(target);
+            Integer count = counts.get(id);
+            counts.put(id, count != null ? count + 1 : 1);
         }
+        boolean keepOrder = ordered && isOrdered();
+        List<Relation> keptRelations = new ArrayList<>();
+        Iterable<Relation> relations = datastorePropertyManager.getRelations(source, metadata, direction);
+        boolean modified = false;
+        for (Relation relation : relations) {
+            Entity currentTarget = getRelativeTarget(relation, direction);
+            if (decrement(counts, datastoreSession.getId(currentTarget))) {
+                statistics.writeElided();
+                if (keepOrder) {
+                    keptRelations.add(relation);
+                }
+            } else {
+                markDirty(currentTarget);
+                datastorePropertyManager.deleteRelation(relation);
+                relationModified(source, metadata, currentTarget);
+                modified = true;
+            }
+        }
+        if (!keepOrder) {
+            for (Entity target : targets) {
+                if (decrement(counts, datastoreSession.getId(target))) {
+                    datastorePropertyManager.createRelation(source, metadata, direction, target);
+                    relationModified(source, metadata, target);
+                    markDirty(target);
+                    modified = true;
+                }
+            }
+        } else {
+            Map<EntityId, Deque<Relation>> relationsByTarget = new HashMap<>();
+            for (Relation relation : sortByOrder(keptRelations)) {
+                EntityId id = datastoreSession.getId(getRelativeTarget(relation, direction));
+                Deque<Relation> targetRelations = relationsByTarget.get(id);
+                if (targetRelations == null) {
+                    targetRelations = new ArrayDeque<>();
+                    relationsByTarget.put(id, targetRelations);
+                }
+                targetRelations.add(relation);
+            }
+            List<Relation> orderedRelations = new ArrayList<>(targets.size());
+            for (Entity target : targets) {
+                Deque<Relation> targetRelations = relationsByTarget.get(datastoreSession.getId(target));
+                Relation relation = targetRelations != null ? targetRelations.poll() : null;
+                if (relation == null) {
+                    relation = (Relation) datastorePropertyManager.createRelation(source, metadata, direction, target);
+                    relationModified(source, metadata, target);
+                    markDirty(target);
+                    modified = true;
+                }
+                orderedRelations.add(relation);
+            }
+            modified |= order(orderedRelations, metadata);
+        }
+        if (modified) {
+            markDirty(source);
+        }
+    }
+
+    /**
+     * Assign increasing order keys to relations, keys which are already in order are kept.
+     *
+     * @param relations The relations in their expected order.
+     * @param metadata  The relation metadata.
+     * @return <code>true</code> if a key has been written.
+     */
+    private boolean order(List<Relation> relations, RelationMetadata metadata) {
+        boolean modified = false;
+        Long previous = null;
+        for (int i = 0; i < relations.size(); i++) {
+            Relation relation = relations.get(i);
+            Long order = getOrder(relation);
+            if (order == null || (previous != null && order <= previous)) {
+                Long next = i + 1 < relations.size() ? getOrder(relations.get(i + 1)) : null;
+                if (previous == null) {
+                    order = next != null ? next - ORDER_STEP : 0;
+                } else if (next != null && next - previous > 1) {
+                    order = previous + (next - previous) / 2;
+                } else {
+                    order = previous + ORDER_STEP;
+                }
+                setOrder(relation, metadata, order);
+                modified = true;
+            }
+            previous = order;
+        }
+        return modified;
+    }
+
+    private boolean decrement(Map<EntityId, Integer> counts, EntityId id) {
+        Integer count = counts.get(id);
+        if (count == null) {
+            return false;
+        }
+        if (count == 1) {
+            counts.remove(id);
+        } else {
+            counts.put(id, count - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Determine if the datastore supports order keys on relations.
+     *
+     * @return <code>true</code> if order keys are supported.
+     */
+    public boolean isOrdered() {
+        return datastorePropertyManager instanceof DatastoreRelationOrder;
+    }
+
+    /**
+     * Return all relationships of an entity sorted by their order keys, relationships without a key follow in the
+     * order provided by the datastore.
+     *
+     * @param source The entity.
+     * @return The relationships.
+     */
+    public List<Relation> getOrderedRelations(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction) {
+        List<Relation> relations = new ArrayList<>();
+        Iterable<Relation> iterable = getRelationsBulk(Collections.singletonList(source), metadata, direction).get(0);
+        for (Relation relation : iterable) {
+            relations.add(relation);
+        }
+        return sortByOrder(relations);
+    }
+
+    private List<Relation> sortByOrder(List<Relation> relations) {
+        if (!isOrdered()) {
+            return relations;
+        }
+        final Map<Relation, Long> orders = new HashMap<>();
+        for (Relation relation : relations) {
+            orders.put(relation, getOrder(relation));
+        }
+        Collections.sort(relations, new Comparator<Relation>() {
+            @Override
+            public int compare(Relation r1, Relation r2) {
+                Long o1 = orders.get(r1);
+                Long o2 = orders.get(r2);
+                if (o1 == null) {
+                    return o2 == null ? 0 : 1;
+                }
+                return o2 == null ? -1 : o1.compareTo(o2);
+            }
+        });
+        return relations;
+    }
+
+    /**
+     * Return the order key of a relationship.
+     *
+     * @param relation The relationship.
+     * @return The order key or <code>null</code> if it is not set or the datastore does not support order keys.
+     */
+    public Long getOrder(Relation relation) {
+        return isOrdered() ? ((DatastoreRelationOrder<Relation>) datastorePropertyManager).getOrder(relation) : null;
+    }
+
+    /**
+     * Set the order key of a relationship.
+     *
+     * @param relation The relationship.
+     * @param metadata The relation metadata.
+     * @param order    The order key.
+     */
+    public void setOrder(Relation relation, RelationMetadata metadata, long order) {
+        if (!isOrdered()) {
+            throw new CdoException("The datastore does not support ordered relations.");
+        }
+        ((DatastoreRelationOrder<Relation>) datastorePropertyManager).setOrder(relation, order);
+        relationModified(datastorePropertyManager.getSource(relation), metadata, datastorePropertyManager.getTarget(relation));
+    }
+
+    /**
+     * Create a relationship with an order key.
+     *
+     * @param source The source.
+     * @param target The target.
+     * @param order  The order key.
+     * @return The relationship.
+     */
+    public Relation createRelation(Entity source, RelationMetadata metadata, RelationMetadata.Direction direction, Entity target, long order) {
+        Relation relation = (Relation) datastorePropertyManager.createRelation(source, metadata, direction, target);
+        setOrder(relation, metadata, order);
+        markDirty(source);
+        markDirty(target);
+        return relation;
+    }
+
+    /**
+     * Delete a relationship of an entity.
+     *
+     * @param source   The entity.
+     * @param metadata The relation metadata.
+     * @param relation The relationship.
+     */
+    public void deleteRelation(Entity source, RelationMetadata metadata, Relation relation, RelationMetadata.Direction direction) {
+        Entity target = getRelativeTarget(relation, direction);
+        datastorePropertyManager.deleteRelation(relation);
+        relationModified(source, metadata, target);
+        markDirty(source);
+        markDirty(target);
+    }
+
+    /**
+     * Return the modification stamp of the relationships of an entity, allows detecting stale snapshots of
+     * relationships.
+     * <p>The stamp changes if this property manager creates, deletes or reorders a relationship of the given type
+     * from or to the entity or if a transaction completes, modifications of other relationships or properties keep
+     * it.</p>
+     *
+     * @param entity   The entity.
+     * @param metadata The relation metadata.
+     * @return The modification stamp.
+     */
+    public long getRelationModification(Entity entity, RelationMetadata metadata) {
+        Long stamp = relationModifications.get(new RelationKey(datastoreSession.getId(entity), metadata.getDatastoreMetadata()));
+        return stamp != null ? stamp : relationModificationBase;
     }
 
-    private Entity getRelativeTarget(Relation relation, RelationMetadata.Direction direction) {
+    /**
+     * Record the modification of a relationship for both entities it connects.
+     * <p>The datastore metadata identifies the relation type as the opposite property of a relation has its own
+     * {@link RelationMetadata}.</p>
+     */
+    private void relationModified(Entity source, RelationMetadata metadata, Entity target) {
+        Long stamp = ++relationModificationCount;
+        Object datastoreMetadata = metadata.getDatastoreMetadata();
+        relationModifications.put(new RelationKey(datastoreSession.getId(source), datastoreMetadata), stamp);
+        relationModifications.put(new RelationKey(datastoreSession.getId(target), datastoreMetadata), stamp);
+    }
+
+    @Override
+    public void beforeCompletion() {
+    }
+
+    /**
+     * Invalidates all snapshots of relationships as a rollback may have reverted modifications and other transactions
+     * may modify the relationships afterwards.
+     *
+     * @param committed <code>true</code> if the transaction has been committed.
+     */
+    @Override
+    public void afterCompletion(boolean committed) {
+        relationModifications.clear();
+        relationModificationBase = ++relationModificationCount;
+    }
+
+    /**
+     * Return the entity referenced by a relationship.
+     *
+     * @param relation  The relationship.
+     * @param direction The direction of the relationship from the point of view of the referencing entity.
+     * @return The referenced entity.
+     */
+    public Entity getRelativeTarget(Relation relation, RelationMetadata.Direction direction) {
         switch (direction) {
             case OUTGOING:
                 return datastorePropertyManager.getTarget(relation);
@@ -133,27 +540,337 @@ public class PropertyManager<EntityId, Entity, RelationId, Relation> {
         }
     }
 
-    public void setProperty(Entity entity, PrimitivePropertyMethodMetadata metadata, Object value) {
-        datastorePropertyManager.setProperty(entity, metadata, value);
+    /**
+     * Set the value of a primitive property, the write is elided if the property already holds an equal value.
+     * <p>If write-behind is enabled the value is buffered until the entity is flushed without reading the store, the
+     * write is only elided if the current value is buffered or contained in a snapshot.</p>
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @param value    The value.
+     * @return <code>true</code> if the value has been written.
+     */
+    public boolean setProperty(Entity entity, PrimitivePropertyMethodMetadata metadata, Object value) {
+        if (writeBuffer.isEnabled()) {
+            EntityId id = datastoreSession.getId(entity);
+            Object current = getKnownProperty(id, metadata);
+            if (current != PropertyWriteBuffer.NOT_BUFFERED && Objects.deepEquals(current, value)) {
+                statistics.writeElided();
+                return false;
+            }
+            writeBuffer.put(id, entity, metadata, value);
+        } else {
+            if (Objects.deepEquals(getPropertyOrNull(entity, metadata), value)) {
+                statistics.writeElided();
+                return false;
+            }
+            datastorePropertyManager.setProperty(entity, metadata, value);
+        }
+        updateSnapshot(entity, metadata, value);
+        markDirty(entity);
+        return true;
     }
 
     public boolean hasProperty(Entity entity, PrimitivePropertyMethodMetadata metadata) {
+        Object value = getBufferedProperty(entity, metadata);
+        if (value != PropertyWriteBuffer.NOT_BUFFERED) {
+            return value != null;
+        }
         return datastorePropertyManager.hasProperty(entity, metadata);
     }
 
-    public void removeProperty(Entity entity, PrimitivePropertyMethodMetadata metadata) {
-        datastorePropertyManager.removeProperty(entity, metadata);
+    /**
+     * Remove a primitive property, the write is elided if the property is not set.
+     * <p>If write-behind is enabled the removal is buffered like a value, see
+     * {@link #setProperty(Object, PrimitivePropertyMethodMetadata, Object)}.</p>
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @return <code>true</code> if the property has been removed.
+     */
+    public boolean removeProperty(Entity entity, PrimitivePropertyMethodMetadata metadata) {
+        if (writeBuffer.isEnabled()) {
+            EntityId id = datastoreSession.getId(entity);
+            if (getKnownProperty(id, metadata) == null) {
+                statistics.writeElided();
+                return false;
+            }
+            writeBuffer.put(id, entity, metadata, null);
+        } else {
+            if (!hasProperty(entity, metadata)) {
+                statistics.writeElided();
+                return false;
+            }
+            datastorePropertyManager.removeProperty(entity, metadata);
+        }
+        updateSnapshot(entity, metadata, null);
+        markDirty(entity);
+        return true;
     }
 
     public Object getProperty(Entity entity, PrimitivePropertyMethodMetadata metadata) {
+        Object value = getBufferedProperty(entity, metadata);
+        if (value != PropertyWriteBuffer.NOT_BUFFERED) {
+            return value;
+        }
         return datastorePropertyManager.getProperty(entity, metadata);
     }
 
+    /**
+     * Return the value of a primitive property.
+     * <p>If the datastore implements {@link DatastorePropertyReader} the value is read with one access, otherwise the
+     * presence of the property is determined first.</p>
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @return The value or <code>null</code> if the property is not set.
+     */
+    public Object getPropertyOrNull(Entity entity, PrimitivePropertyMethodMetadata metadata) {
+        Object value = getBufferedProperty(entity, metadata);
+        if (value != PropertyWriteBuffer.NOT_BUFFERED) {
+            return value;
+        }
+        if (datastorePropertyManager instanceof DatastorePropertyReader) {
+            return ((DatastorePropertyReader<Entity, ?>) datastorePropertyManager).getPropertyOrNull(entity, metadata);
+        }
+        return datastorePropertyManager.hasProperty(entity, metadata) ? datastorePropertyManager.getProperty(entity, metadata) : null;
+    }
+
+    private Object getBufferedProperty(Entity entity, PrimitivePropertyMethodMetadata metadata) {
+        if (writeBuffer.isEmpty()) {
+            return PropertyWriteBuffer.NOT_BUFFERED;
+        }
+        return writeBuffer.get(datastoreSession.getId(entity), metadata);
+    }
+
+    /**
+     * Return the value of a primitive property if it is known without a store access, i.e. if it is buffered or
+     * contained in a snapshot.
+     *
+     * @param id       The entity id.
+     * @param metadata The property metadata.
+     * @return The value, <code>null</code> if the property is not set or {@link PropertyWriteBuffer#NOT_BUFFERED} if
+     * the value is not known.
+     */
+    private Object getKnownProperty(EntityId id, PrimitivePropertyMethodMetadata metadata) {
+        Object value = writeBuffer.isEmpty() ? PropertyWriteBuffer.NOT_BUFFERED : writeBuffer.get(id, metadata);
+        if (value == PropertyWriteBuffer.NOT_BUFFERED && snapshotCache != null) {
+            Object snapshotValue = snapshotCache.getValue(id, metadata);
+            if (snapshotValue != PropertySnapshotCache.NOT_CACHED) {
+                return snapshotValue;
+            }
+        }
+        return value;
+    }
+
     public Enum<?> getEnumProperty(Entity entity, EnumPropertyMethodMetadata metadata) {
         return datastorePropertyManager.getEnumProperty(entity, metadata);
     }
 
-    public void setEnumProperty(Entity entity, EnumPropertyMethodMetadata metadata, Enum<?> value) {
+    /**
+     * Determine if property snapshots are enabled.
+     *
+     * @return <code>true</code> if property values are read using {@link #getSnapshotProperty(Object, PropertySlots, AbstractPropertyMethodMetadata)}.
+     */
+    public boolean isSnapshotEnabled() {
+        return snapshotCache != null;
+    }
+
+    /**
+     * Return the value of a primitive or enumeration property from the snapshot of an entity.
+     * <p>If the entity has not been read within the current transaction the values of all properties given by the slots
+     * are loaded, using one store access if the datastore implements {@link DatastoreBulkPropertyManager}.</p>
+     *
+     * @param entity   The entity.
+     * @param slots    The slots of the properties of the entity.
+     * @param metadata The property metadata.
+     * @return The value or <code>null</code> if the property is not set.
+     */
+    public Object getSnapshotProperty(Entity entity, PropertySlots slots, AbstractPropertyMethodMetadata<?> metadata) {
+        int slot = slots.getSlot(metadata);
+        if (slot < 0) {
+            return getPropertyValue(entity, metadata);
+        }
+        EntityId id = datastoreSession.getId(entity);
+        Object[] values = snapshotCache.get(id, slots);
+        if (values == null) {
+            values = getProperties(entity, slots.getProperties());
+            if (!writeBuffer.isEmpty()) {
+                writeBuffer.overlay(id, slots, values);
+            }
+            snapshotCache.put(id, slots, values);
+        }
+        return values[slot];
+    }
+
+    /**
+     * Load the snapshots of several entities with the same property slots using one store access.
+     * <p>This is only done if the datastore implements {@link DatastoreBulkPropertyManager}, otherwise snapshots are
+     * loaded on the first read of each entity. Entities which already have a snapshot are skipped.</p>
+     *
+     * @param entities The entities.
+     * @param slots    The slots of the properties of the entities.
+     */
+    public void loadSnapshots(List<Entity> entities, PropertySlots slots) {
+        if (snapshotCache == null || !(datastorePropertyManager instanceof DatastoreBulkPropertyManager)) {
+            return;
+        }
+        List<EntityId> missingIds = new ArrayList<>();
+        List<Entity> missingEntities = new ArrayList<>();
+        for (Entity entity : entities) {
+            EntityId id = datastoreSession.getId(entity);
+            if (snapshotCache.get(id, slots) == null) {
+                missingIds.add(id);
+                missingEntities.add(entity);
+            }
+        }
+        if (missingEntities.size() > 1) {
+            List<Object[]> values = ((DatastoreBulkPropertyManager<Entity, ?, ?, ?>) datastorePropertyManager).getAllProperties(missingEntities, slots.getProperties());
+            for (int i = 0; i < missingIds.size(); i++) {
+                EntityId id = missingIds.get(i);
+                if (!writeBuffer.isEmpty()) {
+                    writeBuffer.overlay(id, slots, values.get(i));
+                }
+                snapshotCache.put(id, slots, values.get(i));
+            }
+        }
+    }
+
+    private Object[] getProperties(Entity entity, List<AbstractPropertyMethodMetadata<?>> properties) {
+        if (datastorePropertyManager instanceof DatastoreBulkPropertyManager) {
+            return ((DatastoreBulkPropertyManager<Entity, ?, ?, ?>) datastorePropertyManager).getProperties(entity, properties);
+        }
+        Object[] values = new Object[properties.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getPropertyValue(entity, properties.get(i));
+        }
+        return values;
+    }
+
+    private Object getPropertyValue(Entity entity, AbstractPropertyMethodMetadata<?> metadata) {
+        if (metadata instanceof EnumPropertyMethodMetadata) {
+            return getEnumProperty(entity, (EnumPropertyMethodMetadata) metadata);
+        }
+        return getPropertyOrNull(entity, (PrimitivePropertyMethodMetadata) metadata);
+    }
+
+    private void updateSnapshot(Entity entity, AbstractPropertyMethodMetadata<?> metadata, Object value) {
+        if (snapshotCache != null) {
+            snapshotCache.update(datastoreSession.getId(entity), metadata, value);
+        }
+    }
+
+    /**
+     * Return the value of a primitive property using the property cache.
+     * <p>The cache is not used for entities which have been modified within the current transaction.</p>
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @return The value or <code>null</code> if the property is not set.
+     */
+    public Object getCachedProperty(Entity entity, PrimitivePropertyMethodMetadata metadata) {
+        EntityId id = propertyCache != null ? datastoreSession.getId(entity) : null;
+        if (id == null || cache.isModified(id)) {
+            return getPropertyOrNull(entity, metadata);
+        }
+        Object value = propertyCache.get(id, metadata);
+        if (value == PropertyCache.NOT_CACHED) {
+            long version = propertyCache.getVersion();
+            value = getPropertyOrNull(entity, metadata);
+            propertyCache.put(id, metadata, value, version);
+        }
+        return value;
+    }
+
+    /**
+     * Return the value of an enum property using the property cache.
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @return The value.
+     * @see #getCachedProperty(Object, PrimitivePropertyMethodMetadata)
+     */
+    public Enum<?> getCachedEnumProperty(Entity entity, EnumPropertyMethodMetadata metadata) {
+        EntityId id = propertyCache != null ? datastoreSession.getId(entity) : null;
+        if (id == null || cache.isModified(id)) {
+            return getEnumProperty(entity, metadata);
+        }
+        Object value = propertyCache.get(id, metadata);
+        if (value == PropertyCache.NOT_CACHED) {
+            long version = propertyCache.getVersion();
+            value = getEnumProperty(entity, metadata);
+            propertyCache.put(id, metadata, value, version);
+        }
+        return (Enum<?>) value;
+    }
+
+    /**
+     * Set the value of an enum property, the write is elided if the property already holds the value.
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @param value    The value.
+     * @return <code>true</code> if the value has been written.
+     */
+    public boolean setEnumProperty(Entity entity, EnumPropertyMethodMetadata metadata, Enum<?> value) {
+        if (value == getEnumProperty(entity, metadata)) {
+            statistics.writeElided();
+            return false;
+        }
+        // The value may be represented by a discriminator, results depending on the old one must be invalidated.
+        EntityId id = datastoreSession.getId(entity);
+        if (!queryCache.isEmpty()) {
+            queryCache.invalidate(instanceManager.getDiscriminators(id, entity));
+        }
         datastorePropertyManager.setEnumProperty(entity, metadata, value);
+        instanceManager.resetDiscriminators(id);
+        updateSnapshot(entity, metadata, value);
+        markDirty(entity);
+        return true;
+    }
+
+    /**
+     * Mark an entity as dirty, i.e. it will be flushed and its instance is held until the transaction completes.
+     *
+     * @param entity The entity.
+     */
+    public void markDirty(Entity entity) {
+        EntityId id = datastoreSession.getId(entity);
+        cache.markDirty(id, entity);
+        if (!queryCache.isEmpty()) {
+            queryCache.invalidate(instanceManager.getDiscriminators(id, entity));
+        }
+    }
+
+    /**
+     * Identifies the relationships of a type from or to an entity.
+     */
+    private static final class RelationKey {
+
+        private final Object entityId;
+
+        private final Object datastoreMetadata;
+
+        private RelationKey(Object entityId, Object datastoreMetadata) {
+            this.entityId = entityId;
+            this.datastoreMetadata = datastoreMetadata;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RelationKey)) {
+                return false;
+            }
+            RelationKey key = (RelationKey) o;
+            return entityId.equals(key.entityId) && Objects.equals(datastoreMetadata, key.datastoreMetadata);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityId.hashCode() + Objects.hashCode(datastoreMetadata);
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.buschmais.cdo.impl;
+
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.impl.cache.PropertyCache;
+import com.buschmais.cdo.impl.cache.PropertySnapshotCache;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
+import com.buschmais.cdo.impl.cache.TransactionalCache;
+import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.proxy.ProxyFactory;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethodService;
+import com.buschmais.cdo.impl.query.QueryCache;
+import com.buschmais.cdo.spi.datastore.DatastoreSession;
+
+/**
+ * Holds the state of a single {@link com.buschmais.cdo.api.CdoManager}.
+ * <p>The proxy method services are shared by all managers of a factory, the session context is passed to them on
+ * each invocation.</p>
+ */
+public class SessionContext<EntityId, Entity> {
+
+    private final DatastoreSession<EntityId, Entity, ?, ?, ?, ?> datastoreSession;
+    private final TransactionalCache cache;
+    private final CdoTransaction cdoTransaction;
+    private final InterceptorFactory interceptorFactory;
+    private final QueryCache<Entity> queryCache;
+    private final PropertySnapshotCache<EntityId> snapshotCache;
+    private final PropertyWriteBuffer<EntityId, Entity> writeBuffer;
+    private final PropertyManager<EntityId, Entity, ?, ?> propertyManager;
+    private final InstanceManager<EntityId, Entity> instanceManager;
+
+    public SessionContext(MetadataProvider metadataProvider, ProxyFactory proxyFactory, EntityProxyMethodService<Entity> entityProxyMethodService, DatastoreSession<EntityId, Entity, ?, ?, ?, ?> datastoreSession, TransactionalCache cache, PropertyCache<EntityId> propertyCache, PropertySnapshotCache<EntityId> snapshotCache, PropertyWriteBuffer<EntityId, Entity> writeBuffer, CdoTransaction cdoTransaction, InterceptorFactory interceptorFactory, StatisticsImpl statistics) {
+        this.datastoreSession = datastoreSession;
+        this.cache = cache;
+        this.cdoTransaction = cdoTransaction;
+        this.interceptorFactory = interceptorFactory;
+        this.queryCache = new QueryCache<>(datastoreSession);
+        this.snapshotCache = snapshotCache;
+        this.writeBuffer = writeBuffer;
+        this.instanceManager = new InstanceManager<>(metadataProvider, proxyFactory, entityProxyMethodService, this);
+        this.propertyManager = new PropertyManager(datastoreSession, cache, propertyCache, snapshotCache, writeBuffer, queryCache, instanceManager, statistics);
+    }
+
+    public DatastoreSession<EntityId, Entity, ?, ?, ?, ?> getDatastoreSession() {
+        return datastoreSession;
+    }
+
+    public TransactionalCache getCache() {
+        return cache;
+    }
+
+    public CdoTransaction getCdoTransaction() {
+        return cdoTransaction;
+    }
+
+    public InterceptorFactory getInterceptorFactory() {
+        return interceptorFactory;
+    }
+
+    public QueryCache<Entity> getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Return the property snapshot cache.
+     *
+     * @return The snapshot cache or <code>null</code> if property snapshots are disabled.
+     */
+    public PropertySnapshotCache<EntityId> getSnapshotCache() {
+        return snapshotCache;
+    }
+
+    public PropertyWriteBuffer<EntityId, Entity> getWriteBuffer() {
+        return writeBuffer;
+    }
+
+    public PropertyManager<EntityId, Entity, ?, ?> getPropertyManager() {
+        return propertyManager;
+    }
+
+    public InstanceManager<EntityId, Entity> getInstanceManager() {
+        return instanceManager;
+    }
+}
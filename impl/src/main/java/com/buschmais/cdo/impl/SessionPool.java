@@ -0,0 +1,125 @@
+package com.buschmais.cdo.impl;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of closed {@link CdoManagerImpl} instances which may be reused by a
+ * {@link com.buschmais.cdo.api.CdoManagerFactory}.
+ * <p>The most recently released manager is provided first, managers which have been idle for longer than the
+ * configured timeout are evicted. The state of a manager is reset when it is returned to the pool, the datastore
+ * sessions of evicted managers are closed.</p>
+ */
+class SessionPool {
+
+    /**
+     * The CDO unit property specifying the maximum number of idle managers, <code>0</code> (default) disables pooling.
+     */
+    static final String PROPERTY_SIZE = "cdo.sessionPool.size";
+
+    /**
+     * The CDO unit property specifying the idle timeout of pooled managers in milliseconds.
+     */
+    static final String PROPERTY_IDLE_TIMEOUT = "cdo.sessionPool.idleTimeout";
+
+    static final int DEFAULT_IDLE_TIMEOUT = 60000;
+
+    private final ConcurrentLinkedDeque<Entry> entries = new ConcurrentLinkedDeque<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final int maxSize;
+
+    private final long idleTimeout;
+
+    SessionPool(int maxSize, long idleTimeoutMillis) {
+        this.maxSize = maxSize;
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    }
+
+    /**
+     * Take a manager from the pool.
+     *
+     * @return The manager or <code>null</code> if the pool is empty.
+     */
+    CdoManagerImpl<?, ?, ?, ?, ?, ?> poll() {
+        long now = System.nanoTime();
+        evict(now);
+        Entry entry = entries.pollFirst();
+        if (entry == null) {
+            return null;
+        }
+        size.decrementAndGet();
+        return entry.cdoManager;
+    }
+
+    /**
+     * Return a closed manager to the pool.
+     * <p>Offering a manager which is already pooled has no effect.</p>
+     *
+     * @param cdoManager The manager.
+     * @return <code>true</code> if the manager is pooled, <code>false</code> if the pool is full.
+     */
+    boolean offer(CdoManagerImpl<?, ?, ?, ?, ?, ?> cdoManager) {
+        for (Entry entry : entries) {
+            if (entry.cdoManager == cdoManager) {
+                return true;
+            }
+        }
+        if (size.incrementAndGet() > maxSize) {
+            size.decrementAndGet();
+            return false;
+        }
+        cdoManager.reset();
+        long now = System.nanoTime();
+        entries.offerFirst(new Entry(cdoManager, now));
+        evict(now);
+        return true;
+    }
+
+    /**
+     * Remove all pooled managers and close their datastore sessions.
+     */
+    void clear() {
+        Entry entry;
+        while ((entry = entries.pollFirst()) != null) {
+            size.decrementAndGet();
+            entry.cdoManager.closeSession();
+        }
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    long getEvictions() {
+        return evictions.get();
+    }
+
+    private void evict(long now) {
+        Entry entry;
+        while ((entry = entries.peekLast()) != null && now - entry.idleSince > idleTimeout) {
+            if (entries.removeLastOccurrence(entry)) {
+                size.decrementAndGet();
+                evictions.incrementAndGet();
+                entry.cdoManager.closeSession();
+            }
+        }
+    }
+
+    private static class Entry {
+
+        private final CdoManagerImpl<?, ?, ?, ?, ?, ?> cdoManager;
+
+        private final long idleSince;
+
+        private Entry(CdoManagerImpl<?, ?, ?, ?, ?, ?> cdoManager, long idleSince) {
+            this.cdoManager = cdoManager;
+            this.idleSince = idleSince;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.buschmais.cdo.impl;
+
+import com.buschmais.cdo.api.Statistics;
+import com.buschmais.cdo.impl.cache.PropertyCache;
+import com.buschmais.cdo.spi.datastore.Datastore;
+import com.buschmais.cdo.spi.datastore.DatastoreQueryPlanStatistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the runtime statistics of a {@link CdoManagerFactoryImpl}.
+ */
+public class StatisticsImpl implements Statistics {
+
+    private final SessionPool sessionPool;
+    private final PropertyCache<?> propertyCache;
+    private final DatastoreQueryPlanStatistics queryPlanStatistics;
+
+    private final AtomicLong sessionBorrowCount = new AtomicLong();
+    private final AtomicLong sessionBorrowTime = new AtomicLong();
+    private final AtomicLong sessionPoolHits = new AtomicLong();
+    private final AtomicLong sessionPoolMisses = new AtomicLong();
+    private final AtomicLong elidedWrites = new AtomicLong();
+
+    StatisticsImpl(SessionPool sessionPool, PropertyCache<?> propertyCache, Datastore<?, ?, ?> datastore) {
+        this.sessionPool = sessionPool;
+        this.propertyCache = propertyCache;
+        this.queryPlanStatistics = datastore instanceof DatastoreQueryPlanStatistics ? (DatastoreQueryPlanStatistics) datastore : null;
+    }
+
+    void sessionBorrowed(boolean pooled, long nanos) {
+        sessionBorrowCount.incrementAndGet();
+        sessionBorrowTime.addAndGet(nanos);
+        if (pooled) {
+            sessionPoolHits.incrementAndGet();
+        } else {
+            sessionPoolMisses.incrementAndGet();
+        }
+    }
+
+    void writeElided() {
+        elidedWrites.incrementAndGet();
+    }
+
+    @Override
+    public long getSessionBorrowCount() {
+        return sessionBorrowCount.get();
+    }
+
+    @Override
+    public long getSessionBorrowTime() {
+        return sessionBorrowTime.get();
+    }
+
+    @Override
+    public long getSessionPoolHits() {
+        return sessionPoolHits.get();
+    }
+
+    @Override
+    public long getSessionPoolMisses() {
+        return sessionPoolMisses.get();
+    }
+
+    @Override
+    public long getSessionPoolEvictions() {
+        return sessionPool != null ? sessionPool.getEvictions() : 0;
+    }
+
+    @Override
+    public int getSessionPoolSize() {
+        return sessionPool != null ? sessionPool.size() : 0;
+    }
+
+    @Override
+    public long getPropertyCacheHits() {
+        return propertyCache != null ? propertyCache.getHits() : 0;
+    }
+
+    @Override
+    public long getPropertyCacheMisses() {
+        return propertyCache != null ? propertyCache.getMisses() : 0;
+    }
+
+    @Override
+    public double getPropertyCacheHitRatio() {
+        long hits = getPropertyCacheHits();
+        long requests = hits + getPropertyCacheMisses();
+        return requests > 0 ? (double) hits / requests : 0;
+    }
+
+    @Override
+    public long getPropertyCacheEvictions() {
+        return propertyCache != null ? propertyCache.getEvictions() : 0;
+    }
+
+    @Override
+    public long getPropertyCacheInvalidations() {
+        return propertyCache != null ? propertyCache.getInvalidations() : 0;
+    }
+
+    @Override
+    public int getPropertyCacheSize() {
+        return propertyCache != null ? propertyCache.size() : 0;
+    }
+
+    @Override
+    public long getElidedWrites() {
+        return elidedWrites.get();
+    }
+
+    @Override
+    public long getQueryPlanCacheHits() {
+        return queryPlanStatistics != null ? queryPlanStatistics.getQueryPlanCacheHits() : 0;
+    }
+
+    @Override
+    public long getQueryPlanCacheMisses() {
+        return queryPlanStatistics != null ? queryPlanStatistics.getQueryPlanCacheMisses() : 0;
+    }
+}
@@ -1,38 +1,64 @@
 package com.buschmais.cdo.impl.cache;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
+/**
+ * Base class for caches, the backing map is created on the first {@link #put(Object, Object)} depending on the type of
+ * the key (see {@link LongIdentityMap#forId(Object)}).
+ */
 public abstract class AbstractCache<Key, Value> implements Cache<Key, Value> {
 
     private Map<Key, Value> cache;
 
-    protected AbstractCache(Map<Key, Value> cache) {
-        this.cache = cache;
-    }
-
     @Override
     public void put(Key key, Value value) {
+        if (cache == null) {
+            cache = LongIdentityMap.forId(key);
+        }
         cache.put(key, value);
     }
 
     @Override
     public Value get(Key key) {
-        return cache.get(key);
+        return cache != null ? cache.get(key) : null;
     }
 
     @Override
     public void remove(Key key) {
-        cache.remove(key);
+        if (cache != null) {
+            cache.remove(key);
+        }
     }
 
     @Override
     public void clear() {
-        cache.clear();
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Return the number of cached entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return cache != null ? cache.size() : 0;
+    }
+
+    /**
+     * Return the keys of all cached entries.
+     *
+     * @return The keys.
+     */
+    protected Collection<Key> keys() {
+        return cache != null ? cache.keySet() : Collections.<Key>emptySet();
     }
 
     @Override
     public Collection<Value> values() {
-        return cache.values();
+        return cache != null ? cache.values() : Collections.<Value>emptyList();
     }
 }
@@ -1,30 +1,29 @@
 package com.buschmais.cdo.impl.cache;
 
 import com.buschmais.cdo.api.CdoTransaction;
-import com.buschmais.cdo.impl.InstanceManager;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
 
 import java.util.Collection;
 
 public class CacheSynchronization<Entity> implements CdoTransaction.Synchronization {
 
-    private InstanceManager<?, Entity> instanceManager;
-
     private TransactionalCache<?> transactionalCache;
 
+    private PropertyWriteBuffer<?, Entity> writeBuffer;
+
     private DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession;
 
-    public CacheSynchronization(InstanceManager<?, Entity> instanceManager, TransactionalCache<?> transactionalCache, DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession) {
-        this.instanceManager = instanceManager;
+    public CacheSynchronization(TransactionalCache<?> transactionalCache, PropertyWriteBuffer<?, Entity> writeBuffer, DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession) {
         this.transactionalCache = transactionalCache;
+        this.writeBuffer = writeBuffer;
         this.datastoreSession = datastoreSession;
     }
 
     @Override
     public void beforeCompletion() {
-        Collection instances = transactionalCache.values();
-        for (Object instance : instances) {
-            Entity entity = instanceManager.getEntity(instance);
+        writeBuffer.flush();
+        Collection<Entity> entities = (Collection<Entity>) transactionalCache.getDirtyEntities();
+        for (Entity entity : entities) {
             datastoreSession.flush(entity);
         }
     }
@@ -0,0 +1,244 @@
+package com.buschmais.cdo.impl.cache;
+
+import java.util.*;
+
+/**
+ * A map using primitive <code>long</code> keys which are stored in an open addressing table with linear probing, i.e.
+ * no entry objects are created for mappings and keys are not retained as boxed values.
+ * <p>The methods of the {@link Map} interface accepting or returning keys box and unbox them, they are provided for
+ * convenience. Iterators are not fail-fast and must not be used while the map is modified.</p>
+ *
+ * @param <V> The value type.
+ */
+public class LongIdentityMap<V> extends AbstractMap<Long, V> {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    public LongIdentityMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a map for ids, i.e. a {@link LongIdentityMap} for {@link Long} ids and a {@link HashMap} otherwise.
+     *
+     * @param id    An id which will be used as key.
+     * @param <Id>  The id type.
+     * @param <V>   The value type.
+     * @return The map.
+     */
+    static <Id, V> Map<Id, V> forId(Id id) {
+        if (id instanceof Long) {
+            return (Map<Id, V>) new LongIdentityMap<V>();
+        }
+        return new HashMap<>();
+    }
+
+    public V get(long key) {
+        for (int i = index(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("Null values are not supported");
+        }
+        int i = index(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 3 > values.length * 2) {
+            resize();
+        }
+        return null;
+    }
+
+    public V remove(long key) {
+        for (int i = index(key); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                V previous = (V) values[i];
+                delete(i);
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Long ? get(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Long ? remove(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<V>() {
+                    @Override
+                    V get(int slot) {
+                        return (V) values[slot];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Entry<Long, V>> entrySet() {
+        return new AbstractSet<Entry<Long, V>>() {
+            @Override
+            public Iterator<Entry<Long, V>> iterator() {
+                return new SlotIterator<Entry<Long, V>>() {
+                    @Override
+                    Entry<Long, V> get(int slot) {
+                        return new SimpleImmutableEntry<>(Long.valueOf(keys[slot]), (V) values[slot]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Remove the entry at the given slot and shift back following entries of the same probe sequence.
+     */
+    private void delete(int slot) {
+        int free = slot;
+        values[free] = null;
+        size--;
+        for (int i = (free + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            int home = index(keys[i]);
+            boolean stays = free <= i ? free < home && home <= i : free < home || home <= i;
+            if (!stays) {
+                keys[free] = keys[i];
+                values[free] = values[i];
+                values[i] = null;
+                free = i;
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldValues.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = index(oldKeys[i]);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Iterates over the occupied slots of the table.
+     */
+    private abstract class SlotIterator<T> implements Iterator<T> {
+
+        private int slot = advance(0);
+
+        private int advance(int from) {
+            int i = from;
+            while (i < values.length && values[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T next = get(slot);
+            slot = advance(slot + 1);
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove not supported");
+        }
+
+        abstract T get(int slot);
+    }
+}
@@ -0,0 +1,249 @@
+package com.buschmais.cdo.impl.cache;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A cache of property values which is shared by all {@link com.buschmais.cdo.api.CdoManager}s of a factory.
+ * <p>The values of an entity are held by an immutable snapshot, if the configured size is exceeded snapshots are evicted
+ * according to the {@link Eviction} policy. Values which have been read before an invalidation are not cached (see
+ * {@link #getVersion()}).</p>
+ *
+ * @param <EntityId> The entity id type.
+ */
+public class PropertyCache<EntityId> {
+
+    /**
+     * The property holding the maximum number of entities with cached property values.
+     */
+    public static final String PROPERTY_SIZE = "cdo.propertyCache.size";
+
+    public static final int DEFAULT_SIZE = 10000;
+
+    /**
+     * The property holding the {@link Eviction} policy, the default is {@link Eviction#LRU}.
+     */
+    public static final String PROPERTY_EVICTION = "cdo.propertyCache.eviction";
+
+    /**
+     * The eviction policies.
+     */
+    public enum Eviction {
+        /**
+         * Evict the snapshot of the least recently used entity.
+         */
+        LRU,
+        /**
+         * Evict the snapshot of the least frequently used entity, the least recently cached one if several entities
+         * have been used equally often.
+         */
+        LFU
+    }
+
+    /**
+     * Returned by {@link #get(Object, Object)} if no value is cached.
+     */
+    public static final Object NOT_CACHED = new Object();
+
+    private static final Object NULL = new Object();
+
+    private final Map<EntityId, Entry<EntityId>> entries;
+
+    private final TreeSet<Entry<EntityId>> frequencies;
+
+    private long version = 0;
+
+    private long sequence = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final int size;
+
+    /**
+     * Constructor.
+     *
+     * @param size     The maximum number of entities with cached property values.
+     * @param eviction The eviction policy.
+     */
+    public PropertyCache(final int size, Eviction eviction) {
+        this.size = size;
+        if (Eviction.LFU.equals(eviction)) {
+            this.entries = new HashMap<>();
+            this.frequencies = new TreeSet<>();
+        } else {
+            this.entries = new LinkedHashMap<EntityId, Entry<EntityId>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<EntityId, Entry<EntityId>> eldest) {
+                    if (size() > size) {
+                        evictions.incrementAndGet();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+            this.frequencies = null;
+        }
+    }
+
+    /**
+     * Return the current version of the cache which must be determined before a value is read from the datastore and
+     * passed to {@link #put(Object, Object, Object, long)}.
+     *
+     * @return The version.
+     */
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Return the cached value of a property.
+     *
+     * @param id       The entity id.
+     * @param property The property.
+     * @return The value, <code>null</code> if the entity has no value for this property or {@link #NOT_CACHED}.
+     */
+    public Object get(EntityId id, Object property) {
+        Snapshot snapshot = null;
+        synchronized (this) {
+            Entry<EntityId> entry = entries.get(id);
+            if (entry != null) {
+                if (frequencies != null) {
+                    frequencies.remove(entry);
+                    entry.frequency++;
+                    frequencies.add(entry);
+                }
+                snapshot = entry.snapshot;
+            }
+        }
+        Object value = snapshot != null ? snapshot.values.get(property) : null;
+        if (value == null) {
+            misses.incrementAndGet();
+            return NOT_CACHED;
+        }
+        hits.incrementAndGet();
+        return value != NULL ? value : null;
+    }
+
+    /**
+     * Cache the value of a property.
+     *
+     * @param id       The entity id.
+     * @param property The property.
+     * @param value    The value, <code>null</code> if the entity has no value for this property.
+     * @param version  The version of the cache before the value has been read.
+     */
+    public synchronized void put(EntityId id, Object property, Object value, long version) {
+        if (version != this.version) {
+            return;
+        }
+        Entry<EntityId> entry = entries.get(id);
+        Map<Object, Object> values = entry != null ? new HashMap<>(entry.snapshot.values) : new HashMap<>();
+        values.put(property, value != null ? value : NULL);
+        if (entry != null) {
+            entry.snapshot = new Snapshot(values);
+        } else {
+            entry = new Entry<>(id, new Snapshot(values), sequence++);
+            if (frequencies != null) {
+                // Evict before adding, a new entry would otherwise always be the least frequently used one.
+                if (entries.size() >= size) {
+                    entries.remove(frequencies.pollFirst().id);
+                    evictions.incrementAndGet();
+                }
+                frequencies.add(entry);
+            }
+            entries.put(id, entry);
+        }
+    }
+
+    /**
+     * Invalidate the cached values of the given entities.
+     *
+     * @param ids The entity ids.
+     */
+    public synchronized void invalidate(Collection<EntityId> ids) {
+        version++;
+        for (EntityId id : ids) {
+            Entry<EntityId> entry = entries.remove(id);
+            if (entry != null) {
+                if (frequencies != null) {
+                    frequencies.remove(entry);
+                }
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Remove all cached values.
+     */
+    public synchronized void clear() {
+        version++;
+        entries.clear();
+        if (frequencies != null) {
+            frequencies.clear();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * The cache entry of an entity, ordered by frequency of use and sequence of creation.
+     */
+    private static final class Entry<EntityId> implements Comparable<Entry<EntityId>> {
+
+        private final EntityId id;
+
+        private final long sequence;
+
+        private Snapshot snapshot;
+
+        private long frequency = 1;
+
+        private Entry(EntityId id, Snapshot snapshot, long sequence) {
+            this.id = id;
+            this.snapshot = snapshot;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry<EntityId> other) {
+            if (frequency != other.frequency) {
+                return frequency < other.frequency ? -1 : 1;
+            }
+            return sequence < other.sequence ? -1 : (sequence == other.sequence ? 0 : 1);
+        }
+    }
+
+    /**
+     * The immutable property values of an entity.
+     */
+    private static final class Snapshot {
+
+        private final Map<Object, Object> values;
+
+        private Snapshot(Map<Object, Object> values) {
+            this.values = Collections.unmodifiableMap(values);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.buschmais.cdo.impl.cache;
+
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.impl.query.QueryCache;
+
+/**
+ * Invalidates the values of all entities modified by a committed transaction in the {@link PropertyCache}.
+ * <p>The entities modified by queries are not known, therefore all values are dropped if the transaction executed a
+ * query which may have modified entities.</p>
+ * <p>Must be registered before the {@link CacheSynchronization} which resets the modified entities and the
+ * {@link QueryCache} which resets the executed queries.</p>
+ */
+public class PropertyCacheSynchronization<EntityId> implements CdoTransaction.Synchronization {
+
+    private PropertyCache<EntityId> propertyCache;
+
+    private TransactionalCache<EntityId> transactionalCache;
+
+    private QueryCache<?> queryCache;
+
+    public PropertyCacheSynchronization(PropertyCache<EntityId> propertyCache, TransactionalCache<EntityId> transactionalCache, QueryCache<?> queryCache) {
+        this.propertyCache = propertyCache;
+        this.transactionalCache = transactionalCache;
+        this.queryCache = queryCache;
+    }
+
+    @Override
+    public void beforeCompletion() {
+    }
+
+    @Override
+    public void afterCompletion(boolean committed) {
+        if (!committed) {
+            return;
+        }
+        if (queryCache.isModifiedByQuery()) {
+            propertyCache.clear();
+        } else if (transactionalCache.isModified()) {
+            propertyCache.invalidate(transactionalCache.getModifiedIds());
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.buschmais.cdo.impl.cache;
+
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.impl.metadata.PropertySlots;
+import com.buschmais.cdo.spi.metadata.AbstractPropertyMethodMetadata;
+
+import java.util.Map;
+
+/**
+ * Holds snapshots of the primitive and enumeration property values of the entities read within the current transaction
+ * of a {@link com.buschmais.cdo.api.CdoManager}.
+ * <p>A snapshot contains the values of all properties of an entity in the order of their {@link PropertySlots}, it is
+ * loaded on the first read of a property and updated by writes performed through the manager. Modifications performed
+ * by queries are not tracked, therefore all snapshots are discarded if a query is executed which is neither cached nor
+ * reported as read-only by the {@link com.buschmais.cdo.spi.datastore.DatastoreQueryAnalyzer}. All snapshots are also
+ * discarded if the transaction completes, i.e. on commit and on rollback.</p>
+ *
+ * @param <EntityId> The entity id type.
+ */
+public class PropertySnapshotCache<EntityId> implements CdoTransaction.Synchronization {
+
+    /**
+     * The property enabling property snapshots, the default is <code>false</code>.
+     */
+    public static final String PROPERTY_ENABLED = "cdo.propertySnapshot.enabled";
+
+    /**
+     * Returned by {@link #getValue(Object, AbstractPropertyMethodMetadata)} if there is no snapshot containing the
+     * property.
+     */
+    public static final Object NOT_CACHED = new Object();
+
+    private Map<EntityId, Snapshot> snapshots;
+
+    /**
+     * Return the values of the snapshot of an entity.
+     *
+     * @param id    The entity id.
+     * @param slots The slots of the properties of the entity.
+     * @return The values or <code>null</code> if there is no snapshot with the given slots.
+     */
+    public Object[] get(EntityId id, PropertySlots slots) {
+        Snapshot snapshot = snapshots != null ? snapshots.get(id) : null;
+        return snapshot != null && snapshot.slots == slots ? snapshot.values : null;
+    }
+
+    /**
+     * Return the value of a property from the snapshot of an entity.
+     *
+     * @param id       The entity id.
+     * @param metadata The property metadata.
+     * @return The value, <code>null</code> if the property is not set or {@link #NOT_CACHED}.
+     */
+    public Object getValue(EntityId id, AbstractPropertyMethodMetadata<?> metadata) {
+        Snapshot snapshot = snapshots != null ? snapshots.get(id) : null;
+        if (snapshot != null) {
+            int slot = snapshot.slots.getSlot(metadata);
+            if (slot >= 0) {
+                return snapshot.values[slot];
+            }
+        }
+        return NOT_CACHED;
+    }
+
+    /**
+     * Store the snapshot of an entity.
+     *
+     * @param id     The entity id.
+     * @param slots  The slots of the properties of the entity.
+     * @param values The values in the order of the slots, <code>null</code> represents a property which is not set.
+     */
+    public void put(EntityId id, PropertySlots slots, Object[] values) {
+        if (snapshots == null) {
+            snapshots = LongIdentityMap.forId(id);
+        }
+        snapshots.put(id, new Snapshot(slots, values));
+    }
+
+    /**
+     * Apply a written value to the snapshot of an entity if it exists.
+     *
+     * @param id       The entity id.
+     * @param metadata The property metadata.
+     * @param value    The value, <code>null</code> if the property has been removed.
+     */
+    public void update(EntityId id, AbstractPropertyMethodMetadata<?> metadata, Object value) {
+        Snapshot snapshot = snapshots != null ? snapshots.get(id) : null;
+        if (snapshot != null) {
+            int slot = snapshot.slots.getSlot(metadata);
+            if (slot >= 0) {
+                snapshot.values[slot] = value;
+            }
+        }
+    }
+
+    public void clear() {
+        if (snapshots != null) {
+            snapshots.clear();
+        }
+    }
+
+    @Override
+    public void beforeCompletion() {
+    }
+
+    @Override
+    public void afterCompletion(boolean committed) {
+        clear();
+    }
+
+    private static final class Snapshot {
+
+        private final PropertySlots slots;
+
+        private final Object[] values;
+
+        private Snapshot(PropertySlots slots, Object[] values) {
+            this.slots = slots;
+            this.values = values;
+        }
+    }
+}
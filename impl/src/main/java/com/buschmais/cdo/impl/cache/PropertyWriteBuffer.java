@@ -0,0 +1,236 @@
+package com.buschmais.cdo.impl.cache;
+
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.impl.metadata.PropertySlots;
+import com.buschmais.cdo.spi.datastore.DatastoreBulkPropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastorePropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastoreSession;
+import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
+
+import java.util.*;
+
+/**
+ * Buffers the values written to primitive properties of entities within the current transaction of a
+ * {@link com.buschmais.cdo.api.CdoManager} if write-behind is enabled.
+ * <p>The buffered values of an entity are written to the datastore when the entity is flushed, using one store access if
+ * the datastore implements {@link DatastoreBulkPropertyManager}. All buffered values are written before a query is
+ * executed or an entity is looked up by an indexed value, also using one store access in this case. Buffered values
+ * are discarded if the transaction completes without being flushed, i.e. on rollback.</p>
+ * <p>The values of an entity are identified by the datastore metadata of their properties, i.e. the get and set methods
+ * of a property and properties of different types mapped to the same datastore property share a value. If the
+ * datastore does not provide metadata the name of the property is used.</p>
+ *
+ * @param <EntityId> The entity id type.
+ * @param <Entity>   The entity type.
+ */
+public class PropertyWriteBuffer<EntityId, Entity> implements CdoTransaction.Synchronization {
+
+    /**
+     * The property enabling write-behind of primitive property values, the default is <code>false</code>.
+     */
+    public static final String PROPERTY_ENABLED = "cdo.writeBehind.enabled";
+
+    /**
+     * Returned by {@link #get(Object, PrimitivePropertyMethodMetadata)} if no value is buffered.
+     */
+    public static final Object NOT_BUFFERED = new Object();
+
+    private final DatastoreSession<EntityId, Entity, ?, ?, ?, ?> datastoreSession;
+
+    private final boolean enabled;
+
+    private Map<EntityId, Changes<Entity>> changes;
+
+    /**
+     * Constructor.
+     *
+     * @param datastoreSession The datastore session.
+     * @param enabled          <code>true</code> if values shall be buffered.
+     */
+    public PropertyWriteBuffer(DatastoreSession<EntityId, Entity, ?, ?, ?, ?> datastoreSession, boolean enabled) {
+        this.datastoreSession = datastoreSession;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isEmpty() {
+        return changes == null || changes.isEmpty();
+    }
+
+    /**
+     * Return the buffered value of a property.
+     *
+     * @param id       The entity id.
+     * @param metadata The property metadata.
+     * @return The value, <code>null</code> if the property has been removed or {@link #NOT_BUFFERED}.
+     */
+    public Object get(EntityId id, PrimitivePropertyMethodMetadata<?> metadata) {
+        Changes<Entity> entityChanges = changes != null ? changes.get(id) : null;
+        if (entityChanges == null) {
+            return NOT_BUFFERED;
+        }
+        Change change = entityChanges.values.get(getKey(metadata));
+        return change != null ? change.value : NOT_BUFFERED;
+    }
+
+    /**
+     * Buffer the value of a property.
+     *
+     * @param id       The entity id.
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @param value    The value, <code>null</code> if the property shall be removed.
+     */
+    public void put(EntityId id, Entity entity, PrimitivePropertyMethodMetadata<?> metadata, Object value) {
+        if (changes == null) {
+            changes = LongIdentityMap.forId(id);
+        }
+        Changes<Entity> entityChanges = changes.get(id);
+        if (entityChanges == null) {
+            entityChanges = new Changes<>(entity);
+            changes.put(id, entityChanges);
+        }
+        Object key = getKey(metadata);
+        // The latest value of a property is written last.
+        entityChanges.values.remove(key);
+        entityChanges.values.put(key, new Change(metadata, value));
+    }
+
+    private static Object getKey(PrimitivePropertyMethodMetadata<?> metadata) {
+        Object datastoreMetadata = metadata.getDatastoreMetadata();
+        return datastoreMetadata != null ? datastoreMetadata : metadata.getAnnotatedMethod().getName();
+    }
+
+    /**
+     * Apply the buffered values of an entity to property values read from the datastore.
+     *
+     * @param id     The entity id.
+     * @param slots  The slots of the properties of the entity.
+     * @param values The values in the order of the slots.
+     */
+    public void overlay(EntityId id, PropertySlots slots, Object[] values) {
+        Changes<Entity> entityChanges = changes != null ? changes.get(id) : null;
+        if (entityChanges != null) {
+            for (Change change : entityChanges.values.values()) {
+                int slot = slots.getSlot(change.metadata);
+                if (slot >= 0) {
+                    values[slot] = change.value;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write the buffered values of an entity to the datastore.
+     *
+     * @param entity The entity.
+     */
+    public void flush(Entity entity) {
+        if (!isEmpty()) {
+            Changes<Entity> entityChanges = changes.remove(datastoreSession.getId(entity));
+            if (entityChanges != null) {
+                write(entityChanges);
+            }
+        }
+    }
+
+    /**
+     * Write the buffered values of all entities to the datastore.
+     */
+    public void flush() {
+        if (!isEmpty()) {
+            List<Changes<Entity>> allChanges = new ArrayList<>(changes.values());
+            changes.clear();
+            DatastorePropertyManager datastorePropertyManager = datastoreSession.getDatastorePropertyManager();
+            if (allChanges.size() > 1 && datastorePropertyManager instanceof DatastoreBulkPropertyManager) {
+                Map<Entity, Map<PrimitivePropertyMethodMetadata<?>, Object>> values = new LinkedHashMap<>();
+                for (Changes<Entity> entityChanges : allChanges) {
+                    values.put(entityChanges.entity, entityChanges.getValues());
+                }
+                ((DatastoreBulkPropertyManager) datastorePropertyManager).setAllProperties(values);
+            } else {
+                for (Changes<Entity> entityChanges : allChanges) {
+                    write(entityChanges);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discard the buffered values of an entity, e.g. if it is deleted.
+     *
+     * @param id The entity id.
+     */
+    public void discard(EntityId id) {
+        if (changes != null) {
+            changes.remove(id);
+        }
+    }
+
+    public void clear() {
+        if (changes != null) {
+            changes.clear();
+        }
+    }
+
+    private void write(Changes<Entity> entityChanges) {
+        DatastorePropertyManager datastorePropertyManager = datastoreSession.getDatastorePropertyManager();
+        if (datastorePropertyManager instanceof DatastoreBulkPropertyManager) {
+            ((DatastoreBulkPropertyManager) datastorePropertyManager).setProperties(entityChanges.entity, entityChanges.getValues());
+        } else {
+            for (Change change : entityChanges.values.values()) {
+                if (change.value != null) {
+                    datastorePropertyManager.setProperty(entityChanges.entity, change.metadata, change.value);
+                } else {
+                    datastorePropertyManager.removeProperty(entityChanges.entity, change.metadata);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void beforeCompletion() {
+    }
+
+    @Override
+    public void afterCompletion(boolean committed) {
+        clear();
+    }
+
+    /**
+     * The buffered values of an entity by property key.
+     */
+    private static final class Changes<Entity> {
+
+        private final Entity entity;
+
+        private final Map<Object, Change> values = new LinkedHashMap<>();
+
+        private Changes(Entity entity) {
+            this.entity = entity;
+        }
+
+        private Map<PrimitivePropertyMethodMetadata<?>, Object> getValues() {
+            Map<PrimitivePropertyMethodMetadata<?>, Object> result = new LinkedHashMap<>();
+            for (Change change : values.values()) {
+                result.put(change.metadata, change.value);
+            }
+            return result;
+        }
+    }
+
+    private static final class Change {
+
+        private final PrimitivePropertyMethodMetadata<?> metadata;
+
+        private final Object value;
+
+        private Change(PrimitivePropertyMethodMetadata<?> metadata, Object value) {
+            this.metadata = metadata;
+            this.value = value;
+        }
+    }
+}
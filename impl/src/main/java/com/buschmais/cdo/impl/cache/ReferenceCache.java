@@ -1,14 +1,98 @@
 package com.buschmais.cdo.impl.cache;
 
-import java.util.WeakHashMap;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
-public class ReferenceCache<Id> extends AbstractCache<Id, Object> {
+/**
+ * A cache holding its values by weak references, i.e. an entry is kept as long as its value is referenced elsewhere.
+ */
+public class ReferenceCache<Id> implements Cache<Id, Object> {
+
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    private Map<Id, IdReference<Id>> references;
 
     protected ReferenceCache() {
-        super(new WeakHashMap<Id, Object>());
+    }
+
+    @Override
+    public void put(Id key, Object value) {
+        expunge();
+        if (references == null) {
+            references = LongIdentityMap.forId(key);
+        }
+        references.put(key, new IdReference<>(key, value, queue));
+    }
+
+    @Override
+    public Object get(Id key) {
+        IdReference<Id> reference = references != null ? references.get(key) : null;
+        return reference != null ? reference.get() : null;
+    }
+
+    @Override
+    public void remove(Id key) {
+        expunge();
+        if (references != null) {
+            references.remove(key);
+        }
+    }
+
+    @Override
+    public Collection<Object> values() {
+        if (references == null) {
+            return Collections.emptyList();
+        }
+        List<Object> values = new ArrayList<>(references.size());
+        for (IdReference<Id> reference : references.values()) {
+            Object value = reference.get();
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void clear() {
+        if (references != null) {
+            references.clear();
+        }
     }
 
     @Override
     public void afterCompletion(boolean success) {
+        expunge();
+    }
+
+    /**
+     * Remove all entries with values which have been garbage collected.
+     */
+    private void expunge() {
+        for (Reference<?> reference; (reference = queue.poll()) != null; ) {
+            Id key = ((IdReference<Id>) reference).id;
+            if (references.get(key) == reference) {
+                references.remove(key);
+            }
+        }
+    }
+
+    /**
+     * A weak reference to a cached value which holds the id of the entry.
+     */
+    private static final class IdReference<Id> extends WeakReference<Object> {
+
+        private final Id id;
+
+        private IdReference(Id id, Object value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.id = id;
+        }
     }
 }
@@ -1,20 +1,69 @@
 package com.buschmais.cdo.impl.cache;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * The cache of instances used by a {@link com.buschmais.cdo.api.CdoManager}.
+ * <p>Instances touched by the current transaction are held strongly, all other instances are kept by a
+ * {@link ReferenceCache} as long as they are referenced by the application. For <code>long</code> entity ids both
+ * tiers are backed by a {@link LongIdentityMap}.</p>
+ * <p>The number of strongly held instances may be limited: if the limit is exceeded all instances which have not been
+ * marked as dirty are demoted to the reference tier, i.e. at most the dirty instances plus the limit are held
+ * strongly.</p>
+ * <p>The entities of dirty instances are recorded as well, flushing the manager only needs to write them.</p>
+ */
 public class TransactionalCache<Id> extends AbstractCache<Id, Object> {
 
-    private ReferenceCache referenceCache;
+    /**
+     * The property holding the maximum number of clean instances which are held strongly, 0 means unlimited.
+     */
+    public static final String PROPERTY_MAX_SIZE = "cdo.cache.maxSize";
+
+    /**
+     * The property holding the estimated memory in bytes which may be used by strongly held clean instances, 0 means
+     * unlimited.
+     */
+    public static final String PROPERTY_MAX_MEMORY = "cdo.cache.maxMemory";
+
+    /**
+     * The estimated memory in bytes used by a cached instance including its proxy, invocation handler and the entity.
+     */
+    public static final int ESTIMATED_INSTANCE_SIZE = 256;
+
+    private final ReferenceCache<Id> referenceCache;
+
+    private final int maxSize;
+
+    private int demotionThreshold;
+
+    private Map<Id, Object> dirty;
+
+    private Map<Id, Object> modified;
 
     public TransactionalCache() {
-        super(new HashMap<Id, Object>());
-        this.referenceCache = new ReferenceCache();
+        this(0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The maximum number of clean instances to hold strongly, 0 means unlimited.
+     */
+    public TransactionalCache(int maxSize) {
+        this.referenceCache = new ReferenceCache<>();
+        this.maxSize = maxSize;
+        this.demotionThreshold = maxSize;
     }
 
     @Override
     public void put(Id key, Object value) {
         super.put(key, value);
         referenceCache.put(key, value);
+        checkSize();
     }
 
     @Override
@@ -24,6 +73,7 @@ public class TransactionalCache<Id> extends AbstractCache<Id, Object> {
             value = referenceCache.get(key);
             if (value != null) {
                 super.put(key, value);
+                checkSize();
             }
         }
         return value;
@@ -33,10 +83,146 @@ public class TransactionalCache<Id> extends AbstractCache<Id, Object> {
     public void remove(Id key) {
         super.remove(key);
         referenceCache.remove(key);
+        if (dirty != null) {
+            dirty.remove(key);
+        }
+    }
+
+    /**
+     * Mark the entity with the given id as dirty, i.e. it must be flushed and its cached instance is held strongly until
+     * the transaction completes.
+     *
+     * @param key    The id.
+     * @param entity The entity.
+     */
+    public void markDirty(Id key, Object entity) {
+        if (modified == null) {
+            modified = LongIdentityMap.forId(key);
+        }
+        modified.put(key, Boolean.TRUE);
+        if (dirty == null) {
+            dirty = LongIdentityMap.forId(key);
+        }
+        dirty.put(key, entity);
+        if (super.get(key) == null) {
+            Object value = referenceCache.get(key);
+            if (value != null) {
+                super.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * Determine if the entity with the given id has been marked as dirty and has not been removed since.
+     *
+     * @param key The id.
+     * @return <code>true</code> if the entity is dirty.
+     */
+    public boolean isDirty(Id key) {
+        return dirty != null && dirty.containsKey(key);
+    }
+
+    /**
+     * Return the entities which have been marked as dirty within the current transaction.
+     *
+     * @return The dirty entities.
+     */
+    public Collection<Object> getDirtyEntities() {
+        return dirty != null ? dirty.values() : Collections.emptyList();
+    }
+
+    /**
+     * Return the cached instances of all entities which have been marked as dirty within the current transaction.
+     *
+     * @return The dirty instances.
+     */
+    public List<Object> getDirtyInstances() {
+        if (dirty == null || dirty.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> instances = new ArrayList<>(dirty.size());
+        for (Id key : dirty.keySet()) {
+            Object instance = super.get(key);
+            if (instance != null) {
+                instances.add(instance);
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Determine if the entity with the given id has been modified within the current transaction.
+     *
+     * @param key The id.
+     * @return <code>true</code> if the entity has been modified.
+     */
+    public boolean isModified(Id key) {
+        return modified != null && modified.containsKey(key);
+    }
+
+    /**
+     * Determine if any entity has been modified within the current transaction.
+     *
+     * @return <code>true</code> if an entity has been modified.
+     */
+    public boolean isModified() {
+        return modified != null && !modified.isEmpty();
+    }
+
+    /**
+     * Return the ids of all entities which have been modified within the current transaction, including deleted
+     * entities.
+     *
+     * @return The ids.
+     */
+    public Collection<Id> getModifiedIds() {
+        return modified != null ? modified.keySet() : Collections.<Id>emptySet();
+    }
+
+    /**
+     * Remove all instances from both tiers.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        referenceCache.clear();
+        if (dirty != null) {
+            dirty.clear();
+        }
+        demotionThreshold = maxSize;
+    }
+
+    /**
+     * Remove all instances and the recorded modifications, e.g. if the manager is returned to a pool.
+     */
+    public void reset() {
+        clear();
+        if (modified != null) {
+            modified.clear();
+        }
     }
 
     @Override
     public void afterCompletion(boolean success) {
         super.clear();
+        if (dirty != null) {
+            dirty.clear();
+        }
+        if (modified != null) {
+            modified.clear();
+        }
+        demotionThreshold = maxSize;
+        referenceCache.afterCompletion(success);
+    }
+
+    private void checkSize() {
+        if (maxSize > 0 && size() > demotionThreshold) {
+            for (Id key : new ArrayList<>(keys())) {
+                if (dirty == null || !dirty.containsKey(key)) {
+                    super.remove(key);
+                }
+            }
+            demotionThreshold = size() + maxSize;
+        }
     }
 }
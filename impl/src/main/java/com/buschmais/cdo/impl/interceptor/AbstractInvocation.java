@@ -0,0 +1,49 @@
+package com.buschmais.cdo.impl.interceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Base implementation of an {@link Invocation} walking through a precomputed chain of interceptors.
+ */
+public abstract class AbstractInvocation implements Invocation {
+
+    private final Method method;
+
+    private final Object[] arguments;
+
+    private final InvocationInterceptor[] interceptors;
+
+    private int index = 0;
+
+    protected AbstractInvocation(Method method, Object[] arguments, InvocationInterceptor[] interceptors) {
+        this.method = method;
+        this.arguments = arguments;
+        this.interceptors = interceptors;
+    }
+
+    @Override
+    public Method getMethod() {
+        return method;
+    }
+
+    @Override
+    public Object[] getArguments() {
+        return arguments;
+    }
+
+    @Override
+    public Object proceed() throws Throwable {
+        if (index < interceptors.length) {
+            return interceptors[index++].invoke(this);
+        }
+        return invokeTarget();
+    }
+
+    /**
+     * Invoke the target after all interceptors have been passed.
+     *
+     * @return The result.
+     * @throws Throwable If the invocation fails.
+     */
+    protected abstract Object invokeTarget() throws Throwable;
+}
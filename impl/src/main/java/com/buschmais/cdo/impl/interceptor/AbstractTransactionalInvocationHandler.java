@@ -0,0 +1,132 @@
+package com.buschmais.cdo.impl.interceptor;
+
+import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.impl.proxy.SlotInvocationHandler;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * Base class for invocation handlers which demarcate transactions themselves instead of being wrapped by a
+ * {@link TransactionInterceptor}.
+ * <p>The dispatch slots of the methods of a proxy type and their transaction attributes are resolved in advance, so an
+ * invocation crosses a single proxy and only indexes arrays. The interceptors of the {@link InterceptorRegistry} are
+ * applied within the transaction.</p>
+ * <p>Checked exceptions which are not declared by the invoked method are wrapped into an
+ * {@link UndeclaredThrowableException}.</p>
+ */
+public abstract class AbstractTransactionalInvocationHandler implements SlotInvocationHandler {
+
+    private final CdoTransaction cdoTransaction;
+
+    private final InterceptorRegistry interceptorRegistry;
+
+    private final Method[] methods;
+
+    private final int[] slots;
+
+    /**
+     * Constructor.
+     *
+     * @param cdoTransaction      The transaction.
+     * @param interceptorRegistry The interceptor registry.
+     * @param methods             The methods of the proxy type.
+     * @param slots               The dispatch slots of the methods.
+     */
+    protected AbstractTransactionalInvocationHandler(CdoTransaction cdoTransaction, InterceptorRegistry interceptorRegistry, Method[] methods, int[] slots) {
+        this.cdoTransaction = cdoTransaction;
+        this.interceptorRegistry = interceptorRegistry;
+        this.methods = methods;
+        this.slots = slots;
+    }
+
+    @Override
+    public final Object invoke(Object proxy, int index, Object[] args) throws Throwable {
+        Method method = methods[index];
+        int slot = slots[index];
+        if (slot < 0) {
+            throw new CdoException("Cannot find query for method " + method.getName());
+        }
+        try {
+            return invoke(proxy, method, slot, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            for (Class<?> exceptionType : method.getExceptionTypes()) {
+                if (exceptionType.isInstance(e)) {
+                    throw e;
+                }
+            }
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private Object invoke(Object proxy, Method method, int slot, Object[] args) throws Throwable {
+        TransactionAttribute transactionAttribute = getTransactionAttribute(slot);
+        switch (transactionAttribute) {
+            case MANDATORY:
+                if (!this.cdoTransaction.isActive()) {
+                    throw new CdoException("An active transaction is MANDATORY when calling method '" +
+                            method.getDeclaringClass().getName() + "#" + method.getName() + "'");
+                }
+                return intercept(proxy, method, slot, args);
+            case REQUIRES: {
+                if (!this.cdoTransaction.isActive()) {
+                    try {
+                        this.cdoTransaction.begin();
+                        Object result = intercept(proxy, method, slot, args);
+                        this.cdoTransaction.commit();
+                        return result;
+                    } catch (RuntimeException e) {
+                        this.cdoTransaction.rollback();
+                        throw e;
+                    } catch (Exception e) {
+                        this.cdoTransaction.commit();
+                        throw e;
+                    }
+                } else {
+                    return intercept(proxy, method, slot, args);
+                }
+            }
+            case NOT_SUPPORTED:
+                return intercept(proxy, method, slot, args);
+            default: {
+                throw new CdoException("Unsupported transaction attribute '" + transactionAttribute + "'");
+            }
+        }
+    }
+
+    private Object intercept(final Object proxy, Method method, final int slot, final Object[] args) throws Throwable {
+        InvocationInterceptor[] interceptors = interceptorRegistry.getInterceptors();
+        if (interceptors.length == 0) {
+            return proceed(proxy, slot, args);
+        }
+        return new AbstractInvocation(method, args, interceptors) {
+            @Override
+            protected Object invokeTarget() throws Throwable {
+                return AbstractTransactionalInvocationHandler.this.proceed(proxy, slot, args);
+            }
+        }.proceed();
+    }
+
+    /**
+     * Return the transaction attribute of a slot.
+     *
+     * @param slot The slot.
+     * @return The transaction attribute.
+     */
+    protected abstract TransactionAttribute getTransactionAttribute(int slot);
+
+    /**
+     * Execute the invocation of a slot.
+     *
+     * @param proxy The proxy.
+     * @param slot  The slot.
+     * @param args  The arguments.
+     * @return The result.
+     * @throws Exception If the invocation fails.
+     */
+    protected abstract Object proceed(Object proxy, int slot, Object[] args) throws Exception;
+}
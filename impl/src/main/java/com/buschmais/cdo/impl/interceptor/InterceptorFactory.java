@@ -2,7 +2,6 @@ package com.buschmais.cdo.impl.interceptor;
 
 import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.CdoTransaction;
-import com.buschmais.cdo.api.TransactionAttribute;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
@@ -11,15 +10,19 @@ import java.util.Arrays;
 public class InterceptorFactory {
 
     private CdoTransaction cdoTransaction;
-    private TransactionAttribute transactionAttribute;
+    private InterceptorRegistry interceptorRegistry;
 
-    public InterceptorFactory(CdoTransaction cdoTransaction, TransactionAttribute transactionAttribute) {
+    public InterceptorFactory(CdoTransaction cdoTransaction, InterceptorRegistry interceptorRegistry) {
         this.cdoTransaction = cdoTransaction;
-        this.transactionAttribute = transactionAttribute;
+        this.interceptorRegistry = interceptorRegistry;
+    }
+
+    public InterceptorRegistry getInterceptorRegistry() {
+        return interceptorRegistry;
     }
 
     public <T> T addInterceptor(T instance) {
-        CdoInterceptor<T> cdoInterceptor = new TransactionInterceptor<T>(instance, cdoTransaction, transactionAttribute);
+        CdoInterceptor<T> cdoInterceptor = new TransactionInterceptor<T>(instance, cdoTransaction, interceptorRegistry);
         Class<?>[] interfaces = instance.getClass().getInterfaces();
         return (T) Proxy.newProxyInstance(instance.getClass().getClassLoader(), interfaces, cdoInterceptor);
     }
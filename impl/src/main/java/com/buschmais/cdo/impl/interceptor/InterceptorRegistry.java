@@ -0,0 +1,99 @@
+package com.buschmais.cdo.impl.interceptor;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.TransactionAttribute;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Holds the interceptor configuration shared by all {@link CdoManager}s of a
+ * {@link com.buschmais.cdo.api.CdoManagerFactory}.
+ * <p>The effective {@link TransactionAttribute} and a {@link MethodInvoker} are resolved only once for each
+ * intercepted method. Additional {@link InvocationInterceptor}s may be registered, they form a chain which is
+ * executed by the existing proxies without adding another proxy layer.</p>
+ */
+public class InterceptorRegistry {
+
+    private final TransactionAttribute defaultTransactionAttribute;
+
+    private final ConcurrentMap<Method, MethodInvoker> methodInvokers = new ConcurrentHashMap<>();
+
+    private volatile InvocationInterceptor[] interceptors = new InvocationInterceptor[0];
+
+    public InterceptorRegistry(TransactionAttribute defaultTransactionAttribute) {
+        this.defaultTransactionAttribute = defaultTransactionAttribute;
+    }
+
+    public TransactionAttribute getDefaultTransactionAttribute() {
+        return defaultTransactionAttribute;
+    }
+
+    /**
+     * Resolve the effective transaction attribute of a method.
+     *
+     * @param method The method.
+     * @return The value of the {@link CdoManager.Transaction} annotation or the default transaction attribute.
+     */
+    public TransactionAttribute getTransactionAttribute(Method method) {
+        CdoManager.Transaction transaction = method.getAnnotation(CdoManager.Transaction.class);
+        return transaction != null ? transaction.value() : defaultTransactionAttribute;
+    }
+
+    /**
+     * Return the invoker for a method.
+     *
+     * @param method The method.
+     * @return The invoker.
+     */
+    public MethodInvoker getMethodInvoker(Method method) {
+        MethodInvoker methodInvoker = methodInvokers.get(method);
+        if (methodInvoker == null) {
+            methodInvoker = new MethodInvoker(method, getTransactionAttribute(method));
+            MethodInvoker existingInvoker = methodInvokers.putIfAbsent(method, methodInvoker);
+            if (existingInvoker != null) {
+                methodInvoker = existingInvoker;
+            }
+        }
+        return methodInvoker;
+    }
+
+    /**
+     * Add an interceptor to the end of the chain.
+     *
+     * @param interceptor The interceptor.
+     */
+    public synchronized void addInterceptor(InvocationInterceptor interceptor) {
+        InvocationInterceptor[] newInterceptors = Arrays.copyOf(interceptors, interceptors.length + 1);
+        newInterceptors[interceptors.length] = interceptor;
+        interceptors = newInterceptors;
+    }
+
+    /**
+     * Remove an interceptor from the chain.
+     *
+     * @param interceptor The interceptor.
+     */
+    public synchronized void removeInterceptor(InvocationInterceptor interceptor) {
+        for (int i = 0; i < interceptors.length; i++) {
+            if (interceptors[i] == interceptor) {
+                InvocationInterceptor[] newInterceptors = new InvocationInterceptor[interceptors.length - 1];
+                System.arraycopy(interceptors, 0, newInterceptors, 0, i);
+                System.arraycopy(interceptors, i + 1, newInterceptors, i, newInterceptors.length - i);
+                interceptors = newInterceptors;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return the current chain of interceptors.
+     *
+     * @return The interceptors, an empty array if none have been registered.
+     */
+    public InvocationInterceptor[] getInterceptors() {
+        return interceptors;
+    }
+}
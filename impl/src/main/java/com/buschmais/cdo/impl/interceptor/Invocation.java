@@ -0,0 +1,31 @@
+package com.buschmais.cdo.impl.interceptor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Represents an invocation passed to a chain of {@link InvocationInterceptor}s.
+ */
+public interface Invocation {
+
+    /**
+     * Return the invoked method.
+     *
+     * @return The method.
+     */
+    Method getMethod();
+
+    /**
+     * Return the arguments of the invocation.
+     *
+     * @return The arguments, may be <code>null</code>.
+     */
+    Object[] getArguments();
+
+    /**
+     * Proceed with the next interceptor of the chain or the target of the invocation.
+     *
+     * @return The result.
+     * @throws Throwable If the invocation fails.
+     */
+    Object proceed() throws Throwable;
+}
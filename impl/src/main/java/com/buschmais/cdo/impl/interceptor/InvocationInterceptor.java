@@ -0,0 +1,18 @@
+package com.buschmais.cdo.impl.interceptor;
+
+/**
+ * An interceptor which is applied to invocations on proxies created by a {@link com.buschmais.cdo.api.CdoManager}.
+ * <p>Interceptors are registered at the {@link InterceptorRegistry} and executed within the transaction demarcated for
+ * the invocation.</p>
+ */
+public interface InvocationInterceptor {
+
+    /**
+     * Intercept an invocation.
+     *
+     * @param invocation The invocation, {@link Invocation#proceed()} continues with the next interceptor or the target.
+     * @return The result of the invocation.
+     * @throws Throwable If the invocation fails.
+     */
+    Object invoke(Invocation invocation) throws Throwable;
+}
@@ -0,0 +1,64 @@
+package com.buschmais.cdo.impl.interceptor;
+
+import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.api.TransactionAttribute;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+
+/**
+ * Invokes a method on a target instance using a {@link MethodHandle} which is bound once.
+ * <p>Exceptions thrown by the target are passed through without being wrapped.</p>
+ */
+public final class MethodInvoker {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final Method method;
+
+    private final TransactionAttribute transactionAttribute;
+
+    private final MethodHandle methodHandle;
+
+    MethodInvoker(Method method, TransactionAttribute transactionAttribute) {
+        this.method = method;
+        this.transactionAttribute = transactionAttribute;
+        MethodHandle handle = unreflect(method);
+        this.methodHandle = handle.asType(handle.type().generic()).asSpreader(Object[].class, method.getParameterTypes().length);
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public TransactionAttribute getTransactionAttribute() {
+        return transactionAttribute;
+    }
+
+    /**
+     * Invoke the method.
+     *
+     * @param target The target instance.
+     * @param args   The arguments, may be <code>null</code>.
+     * @return The result.
+     * @throws Throwable If the invocation fails.
+     */
+    public Object invoke(Object target, Object[] args) throws Throwable {
+        return (Object) methodHandle.invokeExact(target, args != null ? args : NO_ARGUMENTS);
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        try {
+            return lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            method.setAccessible(true);
+            try {
+                return lookup.unreflect(method);
+            } catch (IllegalAccessException accessException) {
+                throw new CdoException("Cannot access method " + method, accessException);
+            }
+        }
+    }
+}
@@ -1,46 +1,39 @@
 package com.buschmais.cdo.impl.interceptor;
 
 import com.buschmais.cdo.api.CdoException;
-import com.buschmais.cdo.api.CdoManager;
 import com.buschmais.cdo.api.CdoTransaction;
 import com.buschmais.cdo.api.TransactionAttribute;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 public class TransactionInterceptor<T> extends AbstractCdoInterceptor<T> {
 
     private CdoTransaction cdoTransaction;
 
-    private TransactionAttribute defaultTransactionAttribute;
+    private InterceptorRegistry interceptorRegistry;
 
-    public TransactionInterceptor(T delegate, CdoTransaction cdoTransaction, TransactionAttribute defaultTransactionAttribute) {
+    public TransactionInterceptor(T delegate, CdoTransaction cdoTransaction, InterceptorRegistry interceptorRegistry) {
         super(delegate);
         this.cdoTransaction = cdoTransaction;
-        this.defaultTransactionAttribute = defaultTransactionAttribute;
+        this.interceptorRegistry = interceptorRegistry;
     }
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        TransactionAttribute transactionAttribute;
-        CdoManager.Transaction transaction = method.getAnnotation(CdoManager.Transaction.class);
-        if (transaction != null) {
-            transactionAttribute = transaction.value();
-        } else {
-            transactionAttribute = this.defaultTransactionAttribute;
-        }
+        MethodInvoker methodInvoker = interceptorRegistry.getMethodInvoker(method);
+        TransactionAttribute transactionAttribute = methodInvoker.getTransactionAttribute();
         switch (transactionAttribute) {
             case MANDATORY:
                 if (!this.cdoTransaction.isActive()) {
                     throw new CdoException("An active transaction is MANDATORY when calling method '" +
                             method.getDeclaringClass().getName() + "#" + method.getName() + "'");
                 }
-                return invoke(method, args);
+                return invoke(methodInvoker, args);
             case REQUIRES: {
                 if (!this.cdoTransaction.isActive()) {
                     try {
                         this.cdoTransaction.begin();
-                        Object result = invoke(method, args);
+                        Object result = invoke(methodInvoker, args);
                         this.cdoTransaction.commit();
                         return result;
                     } catch (RuntimeException e) {
@@ -51,22 +44,27 @@ public class TransactionInterceptor<T> extends AbstractCdoInterceptor<T> {
                         throw e;
                     }
                 } else {
-                    return invoke(method, args);
+                    return invoke(methodInvoker, args);
                 }
             }
             case NOT_SUPPORTED:
-                return invoke(method, args);
+                return invoke(methodInvoker, args);
             default: {
                 throw new CdoException("Unsupported transaction attribute '" + transactionAttribute + "'");
             }
         }
     }
 
-    private Object invoke(Method method, Object[] args) throws Throwable {
-        try {
-            return method.invoke(getDelegate(), args);
-        } catch (InvocationTargetException e) {
-            throw e.getTargetException();
+    private Object invoke(final MethodInvoker methodInvoker, final Object[] args) throws Throwable {
+        InvocationInterceptor[] interceptors = interceptorRegistry.getInterceptors();
+        if (interceptors.length == 0) {
+            return methodInvoker.invoke(getDelegate(), args);
         }
+        return new AbstractInvocation(methodInvoker.getMethod(), args, interceptors) {
+            @Override
+            protected Object invokeTarget() throws Throwable {
+                return methodInvoker.invoke(getDelegate(), args);
+            }
+        }.proceed();
     }
 }
@@ -3,6 +3,7 @@ package com.buschmais.cdo.impl.metadata;
 import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.CompositeObject;
 import com.buschmais.cdo.api.annotation.ImplementedBy;
+import com.buschmais.cdo.api.annotation.Ordered;
 import com.buschmais.cdo.api.annotation.ResultOf;
 import com.buschmais.cdo.impl.MetadataProvider;
 import com.buschmais.cdo.impl.reflection.BeanMethodProvider;
@@ -23,6 +24,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class MetadataProviderImpl<EntityMetadata extends DatastoreEntityMetadata<Discriminator>, Discriminator> implements MetadataProvider<EntityMetadata, Discriminator> {
 
@@ -32,6 +35,8 @@ public class MetadataProviderImpl<EntityMetadata extends DatastoreEntityMetadata
 
     private Map<Class<?>, TypeMetadata<EntityMetadata>> entityMetadataByType = new HashMap<>();
 
+    private ConcurrentMap<TypeMetadataSet<EntityMetadata>, PropertySlots> propertySlotsByTypes = new ConcurrentHashMap<>();
+
     public MetadataProviderImpl(Collection<Class<?>> types, Datastore<?, EntityMetadata, Discriminator> datastore) {
         this.metadataFactory = datastore.getMetadataFactory();
         DependencyResolver.DependencyProvider<Class<?>> classDependencyProvider = new DependencyResolver.DependencyProvider<Class<?>>() {
@@ -76,6 +81,19 @@ public class MetadataProviderImpl<EntityMetadata extends DatastoreEntityMetadata
         return discriminators;
     }
 
+    @Override
+    public PropertySlots getPropertySlots(TypeMetadataSet<EntityMetadata> types) {
+        PropertySlots propertySlots = propertySlotsByTypes.get(types);
+        if (propertySlots == null) {
+            propertySlots = new PropertySlots(types);
+            PropertySlots existingPropertySlots = propertySlotsByTypes.putIfAbsent(types, propertySlots);
+            if (existingPropertySlots != null) {
+                propertySlots = existingPropertySlots;
+            }
+        }
+        return propertySlots;
+    }
+
     @Override
     public Collection<TypeMetadata<EntityMetadata>> getRegisteredMetadata() {
         return entityMetadataByType.values();
@@ -128,8 +146,12 @@ public class MetadataProviderImpl<EntityMetadata extends DatastoreEntityMetadata
 
     private AbstractMethodMetadata createPropertyMethodMetadata(Set<Class<?>> types, PropertyMethod beanPropertyMethod) {
         AbstractMethodMetadata methodMetadata;
+        boolean ordered = beanPropertyMethod.getAnnotationOfProperty(Ordered.class) != null;
+        if (ordered && !List.class.isAssignableFrom(beanPropertyMethod.getType())) {
+            throw new CdoException("Only list properties can be ordered: '" + beanPropertyMethod.getName() + "'");
+        }
         if (Collection.class.isAssignableFrom(beanPropertyMethod.getType())) {
-            methodMetadata = new CollectionPropertyMethodMetadata(beanPropertyMethod, new RelationMetadata(metadataFactory.createRelationMetadata(beanPropertyMethod)), metadataFactory.getRelationDirection(beanPropertyMethod), metadataFactory.createCollectionPropertyMetadata(beanPropertyMethod));
+            methodMetadata = new CollectionPropertyMethodMetadata(beanPropertyMethod, new RelationMetadata(metadataFactory.createRelationMetadata(beanPropertyMethod)), metadataFactory.getRelationDirection(beanPropertyMethod), ordered, metadataFactory.createCollectionPropertyMetadata(beanPropertyMethod));
         } else if (types.contains(beanPropertyMethod.getType())) {
             methodMetadata = new ReferencePropertyMethodMetadata(beanPropertyMethod, new RelationMetadata(metadataFactory.createRelationMetadata(beanPropertyMethod)), metadataFactory.getRelationDirection(beanPropertyMethod), metadataFactory.createReferencePropertyMetadata(beanPropertyMethod));
         } else {
@@ -0,0 +1,66 @@
+package com.buschmais.cdo.impl.metadata;
+
+import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
+import com.buschmais.cdo.spi.metadata.*;
+import com.buschmais.cdo.spi.reflection.GetPropertyMethod;
+
+import java.util.*;
+
+/**
+ * Assigns slots to the primitive and enumeration properties of a set of types, i.e. of all entities having the same
+ * types.
+ * <p>The slots are determined from the get methods of the types including their super types, a property is identified
+ * by its name, i.e. the get and set methods of a property share the same slot.</p>
+ */
+public class PropertySlots {
+
+    private final List<AbstractPropertyMethodMetadata<?>> properties = new ArrayList<>();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    public PropertySlots(TypeMetadataSet<?> types) {
+        for (TypeMetadata<?> typeMetadata : types) {
+            add(typeMetadata);
+        }
+    }
+
+    private void add(TypeMetadata<?> typeMetadata) {
+        for (AbstractMethodMetadata methodMetadata : typeMetadata.getProperties()) {
+            if (methodMetadata instanceof PrimitivePropertyMethodMetadata || methodMetadata instanceof EnumPropertyMethodMetadata) {
+                AbstractPropertyMethodMetadata<?> propertyMethodMetadata = (AbstractPropertyMethodMetadata<?>) methodMetadata;
+                String name = propertyMethodMetadata.getAnnotatedMethod().getName();
+                if (propertyMethodMetadata.getAnnotatedMethod() instanceof GetPropertyMethod && !slots.containsKey(name)) {
+                    slots.put(name, properties.size());
+                    properties.add(propertyMethodMetadata);
+                }
+            }
+        }
+        for (TypeMetadata<?> superType : typeMetadata.getSuperTypes()) {
+            add(superType);
+        }
+    }
+
+    /**
+     * Return the metadata of the properties in the order of their slots.
+     *
+     * @return The property metadata.
+     */
+    public List<AbstractPropertyMethodMetadata<?>> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Return the slot of a property.
+     *
+     * @param metadata The metadata of the get or set method of the property.
+     * @return The slot or -1 if the property has no slot.
+     */
+    public int getSlot(AbstractPropertyMethodMetadata<?> metadata) {
+        Integer slot = slots.get(metadata.getAnnotatedMethod().getName());
+        return slot != null ? slot : -1;
+    }
+
+    public int size() {
+        return properties.size();
+    }
+}
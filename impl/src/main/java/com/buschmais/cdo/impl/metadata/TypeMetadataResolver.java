@@ -8,6 +8,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Allows resolving types from entity discriminators as provided by the datastores.
@@ -21,6 +23,8 @@ public class TypeMetadataResolver<EntityMetadata extends DatastoreEntityMetadata
     private Map<Class<?>, TypeMetadata<EntityMetadata>> metadataByType;
     private Map<TypeMetadata<EntityMetadata>, Set<Discriminator>> aggregatedDiscriminators = new HashMap<>();
     private Map<Discriminator, Set<TypeMetadata<EntityMetadata>>> typeMetadataByDiscriminator = new HashMap<>();
+    private Map<Discriminator, Integer> discriminatorOrdinals = new HashMap<>();
+    private ConcurrentMap<DiscriminatorSet, TypeMetadataSet<EntityMetadata>> typesByDiscriminators = new ConcurrentHashMap<>();
 
     /**
      * Constructor.
@@ -45,6 +49,9 @@ public class TypeMetadataResolver<EntityMetadata extends DatastoreEntityMetadata
                 typeMetadataOfDiscriminator.add(typeMetadata);
             }
         }
+        for (Discriminator discriminator : typeMetadataByDiscriminator.keySet()) {
+            discriminatorOrdinals.put(discriminator, discriminatorOrdinals.size());
+        }
         LOGGER.debug("Type metadata by discriminators: '{}'", typeMetadataByDiscriminator);
     }
 
@@ -72,11 +79,49 @@ public class TypeMetadataResolver<EntityMetadata extends DatastoreEntityMetadata
 
     /**
      * Return a {@link com.buschmais.cdo.spi.datastore.TypeMetadataSet} containing all types matching to the given entity discriminators.
+     * <p>The result is resolved once for each combination of known discriminators and shared afterwards, it must not be modified.</p>
      *
      * @param discriminators The discriminators.
      * @return The {@link com.buschmais.cdo.spi.datastore.TypeMetadataSet}.
      */
     public TypeMetadataSet getTypes(Set<Discriminator> discriminators) {
+        DiscriminatorSet discriminatorSet = getDiscriminatorSet(discriminators);
+        TypeMetadataSet<EntityMetadata> types = typesByDiscriminators.get(discriminatorSet);
+        if (types == null) {
+            types = resolveTypes(discriminators);
+            TypeMetadataSet<EntityMetadata> existingTypes = typesByDiscriminators.putIfAbsent(discriminatorSet, types);
+            if (existingTypes != null) {
+                types = existingTypes;
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Create the key for a set of discriminators, discriminators which are not known to any type are ignored as they do
+     * not affect the resolved types.
+     *
+     * @param discriminators The discriminators.
+     * @return The {@link DiscriminatorSet}.
+     */
+    private DiscriminatorSet getDiscriminatorSet(Set<Discriminator> discriminators) {
+        long[] words = new long[(discriminatorOrdinals.size() + 63) >>> 6];
+        for (Discriminator discriminator : discriminators) {
+            Integer ordinal = discriminatorOrdinals.get(discriminator);
+            if (ordinal != null) {
+                words[ordinal >>> 6] |= 1L << ordinal;
+            }
+        }
+        return new DiscriminatorSet(words);
+    }
+
+    /**
+     * Resolve the types matching the given discriminators.
+     *
+     * @param discriminators The discriminators.
+     * @return The {@link com.buschmais.cdo.spi.datastore.TypeMetadataSet}.
+     */
+    private TypeMetadataSet<EntityMetadata> resolveTypes(Set<Discriminator> discriminators) {
         // Get all types matching the discriminators
         Set<TypeMetadata<EntityMetadata>> allTypeMetadatas = new HashSet<>();
         for (Discriminator discriminator : discriminators) {
@@ -111,4 +156,36 @@ public class TypeMetadataResolver<EntityMetadata extends DatastoreEntityMetadata
         Set<Discriminator> discriminators = aggregatedDiscriminators.get(typeMetadata);
         return discriminators != null ? discriminators : Collections.<Discriminator>emptySet();
     }
+
+    /**
+     * An immutable set of discriminators represented by the bits of their ordinals.
+     */
+    private static final class DiscriminatorSet {
+
+        private final long[] words;
+
+        private final int hashCode;
+
+        private DiscriminatorSet(long[] words) {
+            this.words = words;
+            this.hashCode = Arrays.hashCode(words);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DiscriminatorSet)) {
+                return false;
+            }
+            DiscriminatorSet that = (DiscriminatorSet) o;
+            return hashCode == that.hashCode && Arrays.equals(words, that.words);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
 }
@@ -1,38 +1,75 @@
 package com.buschmais.cdo.impl.proxy;
 
 import com.buschmais.cdo.api.CdoException;
-import com.buschmais.cdo.api.proxy.ProxyMethod;
-import com.buschmais.cdo.impl.InstanceManager;
+import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-public class AbstractProxyMethodService<E, M extends ProxyMethod<?>> implements ProxyMethodService<E, M> {
+/**
+ * Base implementation of a {@link ProxyMethodService}.
+ * <p>Each registered method is numbered once with a slot, the proxy methods are held in a dense table indexed by these
+ * slots. The slots of the methods of a {@link ProxyType} are resolved once into an array which is indexed by the
+ * method indexes of the proxy type, an invocation handler therefore never looks up a {@link Method}.</p>
+ * <p>The transaction attribute of each slot is resolved on registration using the {@link InterceptorRegistry}.</p>
+ */
+public class AbstractProxyMethodService<E, M> implements ProxyMethodService<E, M> {
 
-    private final Map<Method, ProxyMethod<E>> proxyMethods = new HashMap<>();
+    private final Map<Method, Integer> slots = new HashMap<>();
 
-    private InstanceManager instanceManager;
+    private final ConcurrentMap<ProxyType, int[]> proxyTypeSlots = new ConcurrentHashMap<>();
 
-    protected AbstractProxyMethodService(InstanceManager instanceManager) {
-        this.instanceManager = instanceManager;
-    }
+    private Object[] proxyMethods = new Object[16];
+
+    private TransactionAttribute[] transactionAttributes = new TransactionAttribute[16];
+
+    private InterceptorRegistry interceptorRegistry;
 
-    protected InstanceManager<?, ?> getInstanceManager() {
-        return instanceManager;
+    protected AbstractProxyMethodService(InterceptorRegistry interceptorRegistry) {
+        this.interceptorRegistry = interceptorRegistry;
     }
 
     @Override
-    public Object invoke(E element, Object instance, Method method, Object[] args) throws Exception {
-        ProxyMethod<E> proxyMethod = proxyMethods.get(method);
-        if (proxyMethod == null) {
-            throw new CdoException("Cannot find query for method " + method.getName());
+    public int[] getSlots(ProxyType proxyType) {
+        int[] result = proxyTypeSlots.get(proxyType);
+        if (result == null) {
+            Method[] methods = proxyType.getMethods();
+            result = new int[methods.length];
+            for (int i = 0; i < methods.length; i++) {
+                Integer slot = slots.get(methods[i]);
+                result[i] = slot != null ? slot.intValue() : -1;
+            }
+            proxyTypeSlots.put(proxyType, result);
         }
-        return proxyMethod.invoke(element, instance, args);
+        return result;
+    }
+
+    @Override
+    public TransactionAttribute getTransactionAttribute(int slot) {
+        return transactionAttributes[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public M getProxyMethod(int slot) {
+        return (M) proxyMethods[slot];
+    }
+
+    /**
+     * Return the number of slots which have been assigned.
+     *
+     * @return The number of slots.
+     */
+    protected int getSlotCount() {
+        return slots.size();
     }
 
-    protected void addMethod(ProxyMethod<E> proxyMethod, Class<?> type, String name, Class<?>... argumentTypes) {
+    protected void addMethod(M proxyMethod, Class<?> type, String name, Class<?>... argumentTypes) {
         Method method;
         try {
             method = type.getDeclaredMethod(name, argumentTypes);
@@ -42,9 +79,19 @@ public class AbstractProxyMethodService<E, M extends ProxyMethod<?>> implements
         addProxyMethod(proxyMethod, method);
     }
 
-    protected void addProxyMethod(ProxyMethod<E> proxyMethod, Method method) {
+    protected void addProxyMethod(M proxyMethod, Method method) {
         if (method != null) {
-            proxyMethods.put(method, proxyMethod);
+            Integer slot = slots.get(method);
+            if (slot == null) {
+                slot = slots.size();
+                slots.put(method, slot);
+                if (slot == proxyMethods.length) {
+                    proxyMethods = Arrays.copyOf(proxyMethods, proxyMethods.length * 2);
+                    transactionAttributes = Arrays.copyOf(transactionAttributes, transactionAttributes.length * 2);
+                }
+            }
+            proxyMethods[slot] = proxyMethod;
+            transactionAttributes[slot] = interceptorRegistry.getTransactionAttribute(method);
         }
     }
 }
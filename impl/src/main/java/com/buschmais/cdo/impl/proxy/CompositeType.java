@@ -0,0 +1,55 @@
+package com.buschmais.cdo.impl.proxy;
+
+import java.util.Arrays;
+
+/**
+ * Represents an ordered combination of interfaces which is implemented by a proxy class.
+ * <p>It is used as key for caching resolved proxy classes.</p>
+ */
+public final class CompositeType {
+
+    private final Class<?>[] types;
+
+    private final int hashCode;
+
+    /**
+     * Constructor.
+     *
+     * @param types The interfaces.
+     */
+    public CompositeType(Class<?>[] types) {
+        this.types = types;
+        this.hashCode = Arrays.hashCode(types);
+    }
+
+    /**
+     * Return the interfaces.
+     *
+     * @return The interfaces.
+     */
+    public Class<?>[] getTypes() {
+        return types;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompositeType)) {
+            return false;
+        }
+        CompositeType that = (CompositeType) o;
+        return hashCode == that.hashCode && Arrays.equals(types, that.types);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return "CompositeType{" + "types=" + Arrays.asList(types) + '}';
+    }
+}
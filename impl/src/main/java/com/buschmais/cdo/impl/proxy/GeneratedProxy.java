@@ -0,0 +1,15 @@
+package com.buschmais.cdo.impl.proxy;
+
+/**
+ * Implemented by all proxy classes generated by the {@link ProxyFactory}.
+ */
+public interface GeneratedProxy {
+
+    /**
+     * Return the invocation handler of the proxy instance.
+     *
+     * @return The invocation handler.
+     */
+    SlotInvocationHandler cdo$getInvocationHandler();
+
+}
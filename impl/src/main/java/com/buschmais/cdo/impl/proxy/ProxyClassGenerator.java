@@ -0,0 +1,215 @@
+package com.buschmais.cdo.impl.proxy;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+/**
+ * Generates the byte code of proxy classes implementing a combination of public interfaces.
+ * <p>A generated class holds a {@link SlotInvocationHandler} and implements each method by passing its index as a
+ * constant to {@link SlotInvocationHandler#invoke(Object, int, Object[])}, i.e. an invocation neither requires a
+ * {@link Method} instance nor a lookup of the method. The methods are numbered in the same order as
+ * {@link java.lang.reflect.Proxy} would dispatch them: <code>hashCode</code>, <code>equals</code> and
+ * <code>toString</code> of {@link Object} first, then the methods of the interfaces.</p>
+ */
+class ProxyClassGenerator implements Opcodes {
+
+    private static final String HANDLER_FIELD = "handler";
+
+    private static final String OBJECT = Type.getInternalName(Object.class);
+
+    private static final String HANDLER = Type.getInternalName(SlotInvocationHandler.class);
+
+    private static final String HANDLER_DESCRIPTOR = Type.getDescriptor(SlotInvocationHandler.class);
+
+    private static final String INVOKE_DESCRIPTOR = "(Ljava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;";
+
+    private ProxyClassGenerator() {
+    }
+
+    /**
+     * Determine the methods to implement for a combination of interfaces.
+     *
+     * @param interfaces The interfaces.
+     * @return The methods, the position of each method is the index passed to the invocation handler.
+     */
+    static Method[] getMethods(Class<?>... interfaces) {
+        Map<String, Method> methods = new LinkedHashMap<>();
+        try {
+            addMethod(methods, Object.class.getMethod("hashCode"));
+            addMethod(methods, Object.class.getMethod("equals", Object.class));
+            addMethod(methods, Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Cannot resolve methods of " + Object.class.getName(), e);
+        }
+        for (Class<?> type : interfaces) {
+            for (Method method : type.getMethods()) {
+                if (!Modifier.isStatic(method.getModifiers())) {
+                    addMethod(methods, method);
+                }
+            }
+        }
+        return methods.values().toArray(new Method[methods.size()]);
+    }
+
+    private static void addMethod(Map<String, Method> methods, Method method) {
+        String key = method.getName() + Type.getMethodDescriptor(method);
+        if (!methods.containsKey(key)) {
+            methods.put(key, method);
+        }
+    }
+
+    /**
+     * Generate a proxy class.
+     *
+     * @param name       The binary name of the class.
+     * @param interfaces The interfaces to implement, all of them must be public.
+     * @param methods    The methods as determined by {@link #getMethods(Class[])}.
+     * @return The byte code.
+     */
+    static byte[] generate(String name, Class<?>[] interfaces, Method[] methods) {
+        String internalName = name.replace('.', '/');
+        String[] interfaceNames = new String[interfaces.length + 1];
+        for (int i = 0; i < interfaces.length; i++) {
+            interfaceNames[i] = Type.getInternalName(interfaces[i]);
+        }
+        interfaceNames[interfaces.length] = Type.getInternalName(GeneratedProxy.class);
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        classWriter.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, internalName, null, OBJECT, interfaceNames);
+        classWriter.visitField(ACC_PRIVATE | ACC_FINAL, HANDLER_FIELD, HANDLER_DESCRIPTOR, null, null).visitEnd();
+        generateConstructor(classWriter, internalName);
+        generateHandlerAccessor(classWriter, internalName);
+        for (int i = 0; i < methods.length; i++) {
+            generateMethod(classWriter, internalName, methods[i], i);
+        }
+        classWriter.visitEnd();
+        return classWriter.toByteArray();
+    }
+
+    private static void generateConstructor(ClassWriter classWriter, String internalName) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "<init>", "(" + HANDLER_DESCRIPTOR + ")V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 1);
+        mv.visitFieldInsn(PUTFIELD, internalName, HANDLER_FIELD, HANDLER_DESCRIPTOR);
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void generateHandlerAccessor(ClassWriter classWriter, String internalName) {
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC | ACC_FINAL, "cdo$getInvocationHandler", "()" + HANDLER_DESCRIPTOR, null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, internalName, HANDLER_FIELD, HANDLER_DESCRIPTOR);
+        mv.visitInsn(ARETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void generateMethod(ClassWriter classWriter, String internalName, Method method, int index) {
+        Class<?>[] exceptionTypes = method.getExceptionTypes();
+        String[] exceptions = new String[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+        }
+        MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC | ACC_FINAL, method.getName(), Type.getMethodDescriptor(method), null, exceptions);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, internalName, HANDLER_FIELD, HANDLER_DESCRIPTOR);
+        mv.visitVarInsn(ALOAD, 0);
+        pushInt(mv, index);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            mv.visitInsn(ACONST_NULL);
+        } else {
+            pushInt(mv, parameterTypes.length);
+            mv.visitTypeInsn(ANEWARRAY, OBJECT);
+            int local = 1;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Type parameterType = Type.getType(parameterTypes[i]);
+                mv.visitInsn(DUP);
+                pushInt(mv, i);
+                mv.visitVarInsn(parameterType.getOpcode(ILOAD), local);
+                box(mv, parameterType);
+                mv.visitInsn(AASTORE);
+                local += parameterType.getSize();
+            }
+        }
+        mv.visitMethodInsn(INVOKEINTERFACE, HANDLER, "invoke", INVOKE_DESCRIPTOR, true);
+        Type returnType = Type.getReturnType(method);
+        switch (returnType.getSort()) {
+            case Type.VOID:
+                mv.visitInsn(POP);
+                mv.visitInsn(RETURN);
+                break;
+            case Type.OBJECT:
+            case Type.ARRAY:
+                if (!OBJECT.equals(returnType.getInternalName())) {
+                    mv.visitTypeInsn(CHECKCAST, returnType.getInternalName());
+                }
+                mv.visitInsn(ARETURN);
+                break;
+            default:
+                unbox(mv, returnType);
+                mv.visitInsn(returnType.getOpcode(IRETURN));
+        }
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static void pushInt(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private static void box(MethodVisitor mv, Type type) {
+        String wrapper = getWrapper(type);
+        if (wrapper != null) {
+            mv.visitMethodInsn(INVOKESTATIC, wrapper, "valueOf", "(" + type.getDescriptor() + ")L" + wrapper + ";", false);
+        }
+    }
+
+    private static void unbox(MethodVisitor mv, Type type) {
+        String wrapper = getWrapper(type);
+        mv.visitTypeInsn(CHECKCAST, wrapper);
+        mv.visitMethodInsn(INVOKEVIRTUAL, wrapper, type.getClassName() + "Value", "()" + type.getDescriptor(), false);
+    }
+
+    private static String getWrapper(Type type) {
+        switch (type.getSort()) {
+            case Type.BOOLEAN:
+                return "java/lang/Boolean";
+            case Type.CHAR:
+                return "java/lang/Character";
+            case Type.BYTE:
+                return "java/lang/Byte";
+            case Type.SHORT:
+                return "java/lang/Short";
+            case Type.INT:
+                return "java/lang/Integer";
+            case Type.FLOAT:
+                return "java/lang/Float";
+            case Type.LONG:
+                return "java/lang/Long";
+            case Type.DOUBLE:
+                return "java/lang/Double";
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.buschmais.cdo.impl.proxy;
+
+import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.api.CompositeObject;
+import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
+
+import java.lang.reflect.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates proxy instances implementing a combination of interfaces.
+ * <p>By default a {@link java.lang.reflect.Proxy} is used which resolves the index of the invoked {@link Method} within
+ * {@link ProxyType#getMethods()} by a lookup. If generated proxy classes are enabled, each method of a proxy class
+ * invokes the {@link SlotInvocationHandler} of the instance passing its index as a constant. If one of the interfaces is
+ * not public the proxy class cannot be defined in a separate class loader, in this case a
+ * {@link java.lang.reflect.Proxy} is used as well.</p>
+ * <p>The proxy type is resolved only once for each {@link CompositeType} or {@link TypeMetadataSet}.</p>
+ * <p>A proxy factory is shared by all {@link com.buschmais.cdo.api.CdoManager}s of a
+ * {@link com.buschmais.cdo.api.CdoManagerFactory} and therefore thread safe.</p>
+ */
+public class ProxyFactory {
+
+    /**
+     * The property enabling generated proxy classes, the default is <code>false</code>.
+     */
+    public static final String PROPERTY_GENERATED = "cdo.proxy.generated";
+
+    private static final String PROXY_CLASS_PREFIX = ProxyFactory.class.getPackage().getName() + ".$CdoProxy";
+
+    private static final AtomicInteger PROXY_CLASS_COUNTER = new AtomicInteger();
+
+    private final ClassLoader classLoader;
+
+    private final ProxyClassLoader proxyClassLoader;
+
+    private final boolean generated;
+
+    private final ConcurrentMap<CompositeType, ProxyType> proxyTypes = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<TypeMetadataSet<?>, ProxyType> entityProxyTypes = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param classLoader The class loader to use for resolving the proxied interfaces.
+     * @param generated   <code>true</code> if proxy classes shall be generated.
+     */
+    public ProxyFactory(ClassLoader classLoader, boolean generated) {
+        this.classLoader = classLoader;
+        this.proxyClassLoader = generated ? new ProxyClassLoader(classLoader) : null;
+        this.generated = generated;
+    }
+
+    /**
+     * Return the proxy type for an entity implementing the given types and {@link CompositeObject}.
+     *
+     * @param types The resolved types of the entity.
+     * @return The proxy type.
+     */
+    public ProxyType getEntityProxyType(TypeMetadataSet<?> types) {
+        ProxyType proxyType = entityProxyTypes.get(types);
+        if (proxyType == null) {
+            Set<Class<?>> classes = types.toClasses();
+            Class<?>[] effectiveTypes = classes.toArray(new Class<?>[classes.size() + 1]);
+            effectiveTypes[classes.size()] = CompositeObject.class;
+            proxyType = getProxyType(effectiveTypes);
+            entityProxyTypes.put(types, proxyType);
+        }
+        return proxyType;
+    }
+
+    /**
+     * Return the proxy type implementing the given interfaces.
+     *
+     * @param types The interfaces to implement.
+     * @return The proxy type.
+     */
+    public ProxyType getProxyType(Class<?>... types) {
+        CompositeType compositeType = new CompositeType(types);
+        ProxyType proxyType = proxyTypes.get(compositeType);
+        if (proxyType == null) {
+            proxyType = createProxyType(compositeType);
+            ProxyType existingProxyType = proxyTypes.putIfAbsent(compositeType, proxyType);
+            if (existingProxyType != null) {
+                proxyType = existingProxyType;
+            }
+        }
+        return proxyType;
+    }
+
+    /**
+     * Determine if an instance has been created by a proxy factory.
+     *
+     * @param instance The instance.
+     * @return <code>true</code> if the instance is a proxy.
+     */
+    public boolean isProxy(Object instance) {
+        return getInvocationHandler(instance) != null;
+    }
+
+    /**
+     * Return the invocation handler of a proxy instance.
+     *
+     * @param instance The instance.
+     * @return The invocation handler or <code>null</code> if the instance is not a proxy.
+     */
+    public SlotInvocationHandler getInvocationHandler(Object instance) {
+        if (instance instanceof GeneratedProxy) {
+            return ((GeneratedProxy) instance).cdo$getInvocationHandler();
+        }
+        if (instance != null && Proxy.isProxyClass(instance.getClass())) {
+            InvocationHandler invocationHandler = Proxy.getInvocationHandler(instance);
+            if (invocationHandler instanceof InvocationHandlerAdapter) {
+                return ((InvocationHandlerAdapter) invocationHandler).slotInvocationHandler;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Create the proxy type implementing the given {@link CompositeType}.
+     *
+     * @param compositeType The {@link CompositeType}.
+     * @return The proxy type.
+     */
+    protected ProxyType createProxyType(CompositeType compositeType) {
+        Class<?>[] types = compositeType.getTypes();
+        Method[] methods = ProxyClassGenerator.getMethods(types);
+        if (!generated || !isPublic(types)) {
+            return new ReflectionProxyType(getProxyConstructor(types, InvocationHandler.class, Proxy.getProxyClass(classLoader, types)), methods);
+        }
+        String name = PROXY_CLASS_PREFIX + PROXY_CLASS_COUNTER.incrementAndGet();
+        Class<?> proxyClass = proxyClassLoader.defineProxyClass(name, ProxyClassGenerator.generate(name, types, methods));
+        return new GeneratedProxyType(getProxyConstructor(types, SlotInvocationHandler.class, proxyClass), methods);
+    }
+
+    private static boolean isPublic(Class<?>[] types) {
+        for (Class<?> type : types) {
+            if (!Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Constructor<?> getProxyConstructor(Class<?>[] types, Class<?> handlerType, Class<?> proxyClass) {
+        try {
+            Constructor<?> constructor = proxyClass.getConstructor(handlerType);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            throw new CdoException("Cannot resolve constructor of proxy class for " + new CompositeType(types), e);
+        }
+    }
+
+    private static <Instance> Instance newInstance(Constructor<?> constructor, Object invocationHandler) {
+        try {
+            return (Instance) constructor.newInstance(invocationHandler);
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new CdoException("Cannot create proxy instance using " + constructor, e);
+        } catch (InvocationTargetException e) {
+            throw new CdoException("Cannot create proxy instance using " + constructor, e.getTargetException());
+        }
+    }
+
+    /**
+     * A proxy type using a generated proxy class.
+     */
+    private static final class GeneratedProxyType extends ProxyType {
+
+        private final Constructor<?> constructor;
+
+        private GeneratedProxyType(Constructor<?> constructor, Method[] methods) {
+            super(methods);
+            this.constructor = constructor;
+        }
+
+        @Override
+        public <Instance> Instance newInstance(SlotInvocationHandler invocationHandler) {
+            return ProxyFactory.newInstance(constructor, invocationHandler);
+        }
+    }
+
+    /**
+     * A proxy type using a {@link java.lang.reflect.Proxy}.
+     */
+    private static final class ReflectionProxyType extends ProxyType {
+
+        private final Constructor<?> constructor;
+
+        private final Map<Method, Integer> indexes = new HashMap<>();
+
+        private ReflectionProxyType(Constructor<?> constructor, Method[] methods) {
+            super(methods);
+            this.constructor = constructor;
+            for (int i = 0; i < methods.length; i++) {
+                indexes.put(methods[i], i);
+            }
+        }
+
+        @Override
+        public <Instance> Instance newInstance(SlotInvocationHandler invocationHandler) {
+            return ProxyFactory.newInstance(constructor, new InvocationHandlerAdapter(indexes, invocationHandler));
+        }
+    }
+
+    /**
+     * Adapts a {@link SlotInvocationHandler} to a {@link java.lang.reflect.Proxy}.
+     */
+    private static final class InvocationHandlerAdapter implements InvocationHandler {
+
+        private final Map<Method, Integer> indexes;
+
+        private final SlotInvocationHandler slotInvocationHandler;
+
+        private InvocationHandlerAdapter(Map<Method, Integer> indexes, SlotInvocationHandler slotInvocationHandler) {
+            this.indexes = indexes;
+            this.slotInvocationHandler = slotInvocationHandler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer index = indexes.get(method);
+            if (index == null) {
+                throw new CdoException("Cannot resolve method " + method + " of proxy type");
+            }
+            return slotInvocationHandler.invoke(proxy, index.intValue(), args);
+        }
+    }
+
+    /**
+     * Defines the generated proxy classes.
+     * <p>The proxied interfaces are resolved using the class loader of the factory, the classes of this module are
+     * resolved using the class loader which loaded the proxy factory.</p>
+     */
+    private static final class ProxyClassLoader extends ClassLoader {
+
+        private final ClassLoader delegate;
+
+        private ProxyClassLoader(ClassLoader delegate) {
+            super(ProxyFactory.class.getClassLoader());
+            this.delegate = delegate;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            Class<?> loadedClass = findLoadedClass(name);
+            if (loadedClass != null) {
+                return loadedClass;
+            }
+            try {
+                return delegate.loadClass(name);
+            } catch (ClassNotFoundException e) {
+                return super.loadClass(name, resolve);
+            }
+        }
+
+        private synchronized Class<?> defineProxyClass(String name, byte[] byteCode) {
+            return defineClass(name, byteCode, 0, byteCode.length);
+        }
+    }
+}
@@ -1,10 +1,30 @@
 package com.buschmais.cdo.impl.proxy;
 
-import com.buschmais.cdo.api.proxy.ProxyMethod;
+import com.buschmais.cdo.api.TransactionAttribute;
 
-import java.lang.reflect.Method;
+public interface ProxyMethodService <E, M> {
 
-public interface ProxyMethodService <E, M extends ProxyMethod<?>> {
+    /**
+     * Resolve the dispatch slots of the methods of a proxy type.
+     *
+     * @param proxyType The proxy type.
+     * @return The slots indexed like {@link ProxyType#getMethods()}, <code>-1</code> for methods without a proxy method.
+     */
+    int[] getSlots(ProxyType proxyType);
 
-     Object invoke(E element, Object instance, Method method, Object[] args) throws Exception;
+    /**
+     * Return the transaction attribute of a slot.
+     *
+     * @param slot The slot.
+     * @return The transaction attribute.
+     */
+    TransactionAttribute getTransactionAttribute(int slot);
+
+    /**
+     * Return the proxy method of a slot.
+     *
+     * @param slot The slot.
+     * @return The proxy method.
+     */
+    M getProxyMethod(int slot);
 }
@@ -0,0 +1,36 @@
+package com.buschmais.cdo.impl.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * A resolved proxy class implementing a combination of interfaces.
+ * <p>Each method which may be invoked on an instance is identified by its index in {@link #getMethods()}, an
+ * invocation handler resolves the index to its proxy method once for all instances of the proxy type.</p>
+ */
+public abstract class ProxyType {
+
+    private final Method[] methods;
+
+    protected ProxyType(Method[] methods) {
+        this.methods = methods;
+    }
+
+    /**
+     * Return the methods of the proxy type.
+     *
+     * @return The methods by their index.
+     */
+    public Method[] getMethods() {
+        return methods;
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param invocationHandler The invocation handler.
+     * @param <Instance>        The instance type.
+     * @return The instance.
+     */
+    public abstract <Instance> Instance newInstance(SlotInvocationHandler invocationHandler);
+
+}
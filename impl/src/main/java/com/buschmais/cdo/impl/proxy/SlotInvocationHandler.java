@@ -0,0 +1,21 @@
+package com.buschmais.cdo.impl.proxy;
+
+/**
+ * Invocation handler of proxy instances created by a {@link ProxyFactory}.
+ * <p>In contrast to {@link java.lang.reflect.InvocationHandler} a method is identified by its index within the
+ * methods of the {@link ProxyType}, the generated proxy classes pass this index as a constant.</p>
+ */
+public interface SlotInvocationHandler {
+
+    /**
+     * Invoke a method of a proxy instance.
+     *
+     * @param proxy The proxy instance.
+     * @param index The index of the method, see {@link ProxyType#getMethods()}.
+     * @param args  The arguments or <code>null</code> if the method does not take any.
+     * @return The result.
+     * @throws Throwable If the invocation fails.
+     */
+    Object invoke(Object proxy, int index, Object[] args) throws Throwable;
+
+}
@@ -5,9 +5,7 @@ import com.buschmais.cdo.impl.PropertyManager;
 import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
 import com.buschmais.cdo.spi.metadata.RelationMetadata;
 
-import java.util.AbstractCollection;
-import java.util.Collection;
-import java.util.Iterator;
+import java.util.*;
 
 public class CollectionProxy<Instance, Entity> extends AbstractCollection<Instance> implements Collection<Instance> {
 
@@ -31,14 +29,23 @@ public class CollectionProxy<Instance, Entity> extends AbstractCollection<Instan
         final Iterator<Entity> iterator = propertyManager.getRelations(entity, metadata, direction);
         return interceptorFactory.addInterceptor(new Iterator<Instance>() {
 
+            private Iterator<Instance> instances = Collections.emptyIterator();
+
             @Override
             public boolean hasNext() {
-                return iterator.hasNext();
+                return instances.hasNext() || iterator.hasNext();
             }
 
             @Override
             public Instance next() {
-                return instanceManager.getInstance(iterator.next());
+                if (!instances.hasNext()) {
+                    List<Entity> entities = new ArrayList<>();
+                    do {
+                        entities.add(iterator.next());
+                    } while (iterator.hasNext() && entities.size() < InstanceManager.BATCH_SIZE);
+                    instances = instanceManager.<Instance>getInstances(entities).iterator();
+                }
+                return instances.next();
             }
 
             @Override
@@ -49,12 +56,15 @@ public class CollectionProxy<Instance, Entity> extends AbstractCollection<Instan
     }
 
     public int size() {
-        int size = 0;
-        for (Iterator<Entity> iterator = propertyManager.getRelations(entity, metadata, direction); iterator.hasNext(); ) {
-            iterator.next();
-            size++;
+        return (int) Math.min(Integer.MAX_VALUE, propertyManager.countRelations(entity, metadata, direction));
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (instanceManager.isEntity(o)) {
+            return propertyManager.hasRelation(entity, metadata, direction, instanceManager.getEntity(o));
         }
-        return size;
+        return false;
     }
 
     @Override
@@ -69,6 +69,11 @@ public class ListProxy<Instance> extends AbstractSequentialList<Instance> implem
         return collectionProxy.size();
     }
 
+    @Override
+    public boolean contains(Object o) {
+        return collectionProxy.contains(o);
+    }
+
     @Override
     public boolean add(Instance instance) {
         return collectionProxy.add(instance);
@@ -0,0 +1,215 @@
+package com.buschmais.cdo.impl.proxy.collection;
+
+import com.buschmais.cdo.impl.InstanceManager;
+import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.spi.metadata.RelationMetadata;
+
+import java.util.*;
+
+/**
+ * A list of instances backed by relations carrying order keys, iteration follows the order of the keys.
+ * <p>The relations are read once and kept as a snapshot sorted by their keys which is refreshed if the property manager
+ * modified relations of the same type from or to the entity not using this list or a transaction completed. Positional reads are answered from the snapshot, an inserted
+ * relation gets a key between the keys of its neighbours, all keys are only renumbered if there is no key left in
+ * between.</p>
+ */
+public class OrderedListProxy<Instance, Entity, Relation> extends AbstractList<Instance> implements RandomAccess {
+
+    private final Entity entity;
+    private final RelationMetadata metadata;
+    private final RelationMetadata.Direction direction;
+    private final InstanceManager<?, Entity> instanceManager;
+    private final PropertyManager<?, Entity, ?, Relation> propertyManager;
+
+    private List<Relation> relations = null;
+    private List<Long> orders = null;
+    private long relationModification;
+
+    public OrderedListProxy(Entity entity, RelationMetadata metadata, RelationMetadata.Direction direction, InstanceManager instanceManager, PropertyManager propertyManager) {
+        this.entity = entity;
+        this.metadata = metadata;
+        this.direction = direction;
+        this.instanceManager = instanceManager;
+        this.propertyManager = propertyManager;
+    }
+
+    @Override
+    public Instance get(int index) {
+        Relation relation = getRelations().get(index);
+        return instanceManager.getInstance(propertyManager.getRelativeTarget(relation, direction));
+    }
+
+    @Override
+    public Iterator<Instance> iterator() {
+        final List<Relation> current = new ArrayList<>(getRelations());
+        return new Iterator<Instance>() {
+
+            private int index = 0;
+
+            private Iterator<Instance> instances = Collections.emptyIterator();
+
+            private int position = 0;
+
+            private boolean removable = false;
+
+            @Override
+            public boolean hasNext() {
+                return instances.hasNext() || index < current.size();
+            }
+
+            @Override
+            public Instance next() {
+                if (!instances.hasNext()) {
+                    if (index >= current.size()) {
+                        throw new NoSuchElementException();
+                    }
+                    int end = Math.min(index + InstanceManager.BATCH_SIZE, current.size());
+                    List<Entity> entities = new ArrayList<>(end - index);
+                    for (; index < end; index++) {
+                        entities.add(propertyManager.getRelativeTarget(current.get(index), direction));
+                    }
+                    instances = instanceManager.<Instance>getInstances(entities).iterator();
+                }
+                position++;
+                removable = true;
+                return instances.next();
+            }
+
+            @Override
+            public void remove() {
+                if (!removable) {
+                    throw new IllegalStateException();
+                }
+                OrderedListProxy.this.remove(--position);
+                removable = false;
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return getRelations().size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (instanceManager.isEntity(o)) {
+            return propertyManager.hasRelation(entity, metadata, direction, instanceManager.getEntity(o));
+        }
+        return false;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (instanceManager.isEntity(o)) {
+            Entity target = instanceManager.getEntity(o);
+            List<Relation> current = getRelations();
+            for (int i = 0; i < current.size(); i++) {
+                if (propertyManager.getRelativeTarget(current.get(i), direction).equals(target)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void add(int index, Instance instance) {
+        List<Relation> current = getRelations();
+        if (index < 0 || index > current.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + current.size());
+        }
+        Long order = getOrder(index);
+        if (order == null) {
+            renumber();
+            order = getOrder(index);
+        }
+        Relation relation = propertyManager.createRelation(entity, metadata, direction, instanceManager.getEntity(instance), order);
+        relations.add(index, relation);
+        orders.add(index, order);
+        modified();
+    }
+
+    @Override
+    public Instance set(int index, Instance instance) {
+        Instance previous = get(index);
+        if (orders.get(index) == null) {
+            renumber();
+        }
+        long order = orders.get(index);
+        propertyManager.deleteRelation(entity, metadata, relations.get(index), direction);
+        Relation relation = propertyManager.createRelation(entity, metadata, direction, instanceManager.getEntity(instance), order);
+        relations.set(index, relation);
+        modified();
+        return previous;
+    }
+
+    @Override
+    public Instance remove(int index) {
+        Instance previous = get(index);
+        propertyManager.deleteRelation(entity, metadata, relations.get(index), direction);
+        relations.remove(index);
+        orders.remove(index);
+        modified();
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    private List<Relation> getRelations() {
+        if (relations == null || relationModification != propertyManager.getRelationModification(entity, metadata)) {
+            relations = propertyManager.getOrderedRelations(entity, metadata, direction);
+            orders = new ArrayList<>(relations.size());
+            for (Relation relation : relations) {
+                orders.add(propertyManager.getOrder(relation));
+            }
+            relationModification = propertyManager.getRelationModification(entity, metadata);
+        }
+        return relations;
+    }
+
+    /**
+     * Determine the order key for a relation inserted at the given index.
+     *
+     * @param index The index.
+     * @return The order key or <code>null</code> if the keys must be renumbered.
+     */
+    private Long getOrder(int index) {
+        Long previous = index > 0 ? orders.get(index - 1) : null;
+        Long next = index < orders.size() ? orders.get(index) : null;
+        if ((index > 0 && previous == null) || (index < orders.size() && next == null)) {
+            return null;
+        }
+        if (previous == null) {
+            return next != null ? next - PropertyManager.ORDER_STEP : 0;
+        } else if (next == null) {
+            return previous + PropertyManager.ORDER_STEP;
+        }
+        return next - previous > 1 ? previous + (next - previous) / 2 : null;
+    }
+
+    private void renumber() {
+        for (int i = 0; i < relations.size(); i++) {
+            Long order = i * PropertyManager.ORDER_STEP;
+            if (!order.equals(orders.get(i))) {
+                propertyManager.setOrder(relations.get(i), metadata, order);
+                orders.set(i, order);
+            }
+        }
+        propertyManager.markDirty(entity);
+        relationModification = propertyManager.getRelationModification(entity, metadata);
+    }
+
+    private void modified() {
+        relationModification = propertyManager.getRelationModification(entity, metadata);
+        modCount++;
+    }
+}
@@ -0,0 +1,15 @@
+package com.buschmais.cdo.impl.proxy.instance;
+
+import com.buschmais.cdo.impl.SessionContext;
+
+/**
+ * A method of an entity proxy.
+ * <p>Entity proxy methods are shared by all {@link com.buschmais.cdo.api.CdoManager}s of a factory, the state of the
+ * current session is passed on invocation.</p>
+ *
+ * @param <Entity> The entity type.
+ */
+public interface EntityProxyMethod<Entity> {
+
+    Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) throws Exception;
+}
@@ -1,13 +1,11 @@
 package com.buschmais.cdo.impl.proxy.instance;
 
 import com.buschmais.cdo.api.CdoException;
-import com.buschmais.cdo.api.CdoTransaction;
 import com.buschmais.cdo.api.CompositeObject;
+import com.buschmais.cdo.api.annotation.Cacheable;
 import com.buschmais.cdo.api.proxy.ProxyMethod;
-import com.buschmais.cdo.impl.InstanceManager;
 import com.buschmais.cdo.impl.MetadataProvider;
-import com.buschmais.cdo.impl.PropertyManager;
-import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
 import com.buschmais.cdo.impl.proxy.AbstractProxyMethodService;
 import com.buschmais.cdo.impl.proxy.instance.composite.AsMethod;
 import com.buschmais.cdo.impl.proxy.instance.object.EqualsMethod;
@@ -15,7 +13,6 @@ import com.buschmais.cdo.impl.proxy.instance.object.HashCodeMethod;
 import com.buschmais.cdo.impl.proxy.instance.object.ToStringMethod;
 import com.buschmais.cdo.impl.proxy.instance.property.*;
 import com.buschmais.cdo.impl.proxy.instance.resultof.ResultOfMethod;
-import com.buschmais.cdo.spi.datastore.DatastoreSession;
 import com.buschmais.cdo.spi.metadata.*;
 import com.buschmais.cdo.spi.reflection.AnnotatedMethod;
 import com.buschmais.cdo.spi.reflection.GetPropertyMethod;
@@ -24,11 +21,17 @@ import com.buschmais.cdo.spi.reflection.SetPropertyMethod;
 
 import java.lang.reflect.Method;
 
-public class EntityProxyMethodService<Entity, M extends ProxyMethod<?>> extends AbstractProxyMethodService<Entity, M> {
+/**
+ * Provides the proxy methods of all registered entity types.
+ * <p>The service is created once for a {@link com.buschmais.cdo.api.CdoManagerFactory} and is immutable after
+ * construction, the proxy methods receive the {@link com.buschmais.cdo.impl.SessionContext} on invocation.</p>
+ */
+public class EntityProxyMethodService<Entity> extends AbstractProxyMethodService<Entity, EntityProxyMethod<Entity>> {
 
-    public EntityProxyMethodService(MetadataProvider<?, ?> metadataProvider, InstanceManager instanceManager, PropertyManager propertyManager, CdoTransaction cdoTransaction, InterceptorFactory interceptorFactory, DatastoreSession datastoreSession) {
-        super(instanceManager);
+    public EntityProxyMethodService(MetadataProvider<?, ?> metadataProvider, InterceptorRegistry interceptorRegistry) {
+        super(interceptorRegistry);
         for (TypeMetadata<?> typeMetadata : metadataProvider.getRegisteredMetadata()) {
+            boolean cacheable = typeMetadata.getAnnotatedType().getAnnotation(Cacheable.class) != null;
             for (AbstractMethodMetadata methodMetadata : typeMetadata.getProperties()) {
                 AnnotatedMethod typeMethod = methodMetadata.getAnnotatedMethod();
                 if (methodMetadata instanceof UnsupportedOperationMethodMetadata) {
@@ -37,7 +40,7 @@ public class EntityProxyMethodService<Entity, M extends ProxyMethod<?>> extends
                     ImplementedByMethodMetadata implementedByMethodMetadata = (ImplementedByMethodMetadata) methodMetadata;
                     Class<? extends ProxyMethod> proxyMethodType = implementedByMethodMetadata.getProxyMethodType();
                     try {
-                        addProxyMethod(proxyMethodType.newInstance(), typeMethod.getAnnotatedElement());
+                        addProxyMethod(new ProxyMethodAdapter<Entity>(proxyMethodType.newInstance()), typeMethod.getAnnotatedElement());
                     } catch (InstantiationException e) {
                         throw new CdoException("Cannot instantiate query method of type " + proxyMethodType.getName(), e);
                     } catch (IllegalAccessException e) {
@@ -46,42 +49,42 @@ public class EntityProxyMethodService<Entity, M extends ProxyMethod<?>> extends
                 }
                 if (methodMetadata instanceof ResultOfMethodMetadata) {
                     ResultOfMethodMetadata resultOfMethodMetadata = (ResultOfMethodMetadata) methodMetadata;
-                    addProxyMethod(new ResultOfMethod(resultOfMethodMetadata, instanceManager, cdoTransaction, interceptorFactory, datastoreSession), typeMethod.getAnnotatedElement());
+                    addProxyMethod(new ResultOfMethod(resultOfMethodMetadata), typeMethod.getAnnotatedElement());
                 }
                 if (methodMetadata instanceof AbstractPropertyMethodMetadata) {
                     PropertyMethod beanPropertyMethod = (PropertyMethod) typeMethod;
                     Method method = beanPropertyMethod.getAnnotatedElement();
                     if (methodMetadata instanceof PrimitivePropertyMethodMetadata) {
                         if (beanPropertyMethod instanceof GetPropertyMethod) {
-                            addProxyMethod(new PrimitivePropertyGetMethod((PrimitivePropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new PrimitivePropertyGetMethod((PrimitivePropertyMethodMetadata) methodMetadata, cacheable), method);
                         } else if (beanPropertyMethod instanceof SetPropertyMethod) {
-                            addProxyMethod(new PrimitivePropertySetMethod((PrimitivePropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new PrimitivePropertySetMethod((PrimitivePropertyMethodMetadata) methodMetadata), method);
                         }
                     } else if (methodMetadata instanceof EnumPropertyMethodMetadata) {
                         if (beanPropertyMethod instanceof GetPropertyMethod) {
-                            addProxyMethod(new EnumPropertyGetMethod((EnumPropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new EnumPropertyGetMethod((EnumPropertyMethodMetadata) methodMetadata, cacheable), method);
                         } else if (beanPropertyMethod instanceof SetPropertyMethod) {
-                            addProxyMethod(new EnumPropertySetMethod((EnumPropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new EnumPropertySetMethod((EnumPropertyMethodMetadata) methodMetadata), method);
                         }
                     } else if (methodMetadata instanceof ReferencePropertyMethodMetadata) {
                         if (beanPropertyMethod instanceof GetPropertyMethod) {
-                            addProxyMethod(new ReferencePropertyGetMethod((ReferencePropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new ReferencePropertyGetMethod((ReferencePropertyMethodMetadata) methodMetadata), method);
                         } else if (beanPropertyMethod instanceof SetPropertyMethod) {
-                            addProxyMethod(new ReferencePropertySetMethod((ReferencePropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new ReferencePropertySetMethod((ReferencePropertyMethodMetadata) methodMetadata), method);
                         }
                     } else if (methodMetadata instanceof CollectionPropertyMethodMetadata) {
                         if (beanPropertyMethod instanceof GetPropertyMethod) {
-                            addProxyMethod(new CollectionPropertyGetMethod((CollectionPropertyMethodMetadata) methodMetadata, instanceManager, propertyManager, interceptorFactory), method);
+                            addProxyMethod(new CollectionPropertyGetMethod((CollectionPropertyMethodMetadata) methodMetadata), method);
                         } else if (beanPropertyMethod instanceof SetPropertyMethod) {
-                            addProxyMethod(new CollectionPropertySetMethod((CollectionPropertyMethodMetadata) methodMetadata, instanceManager, propertyManager), method);
+                            addProxyMethod(new CollectionPropertySetMethod((CollectionPropertyMethodMetadata) methodMetadata), method);
                         }
                     }
                 }
             }
         }
-        addMethod(new AsMethod<Entity>(getInstanceManager()), CompositeObject.class, "as", Class.class);
-        addMethod(new HashCodeMethod<Entity>(datastoreSession), Object.class, "hashCode");
-        addMethod(new EqualsMethod<Entity>(instanceManager, datastoreSession), Object.class, "equals", Object.class);
-        addMethod(new ToStringMethod<Entity>(datastoreSession), Object.class, "toString");
+        addMethod(new ProxyMethodAdapter<>(new AsMethod<Entity>()), CompositeObject.class, "as", Class.class);
+        addMethod(new HashCodeMethod<Entity>(), Object.class, "hashCode");
+        addMethod(new EqualsMethod<Entity>(), Object.class, "equals", Object.class);
+        addMethod(new ToStringMethod<Entity>(), Object.class, "toString");
     }
 }
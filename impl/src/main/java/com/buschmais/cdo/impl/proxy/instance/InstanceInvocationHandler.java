@@ -1,33 +1,78 @@
 package com.buschmais.cdo.impl.proxy.instance;
 
 import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.impl.SessionContext;
+import com.buschmais.cdo.impl.interceptor.AbstractTransactionalInvocationHandler;
+import com.buschmais.cdo.impl.metadata.PropertySlots;
 import com.buschmais.cdo.impl.proxy.ProxyMethodService;
+import com.buschmais.cdo.impl.proxy.ProxyType;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
+import java.util.Set;
 
-public class InstanceInvocationHandler<E> implements InvocationHandler {
+public class InstanceInvocationHandler<E> extends AbstractTransactionalInvocationHandler {
 
     private E entity;
-    private ProxyMethodService<E, ?> proxyMethodService;
+    private ProxyMethodService<E, EntityProxyMethod<E>> proxyMethodService;
+    private SessionContext<?, E> sessionContext;
+    private PropertySlots propertySlots;
+    private Set<?> discriminators;
 
-    public InstanceInvocationHandler(E entity, ProxyMethodService<E, ?> proxyMethodService) {
+    /**
+     * Constructor.
+     *
+     * @param entity             The entity.
+     * @param proxyType          The proxy type of the instance.
+     * @param proxyMethodService The proxy method service.
+     * @param sessionContext     The session context.
+     * @param propertySlots      The property slots of the types of the instance or <code>null</code> if property
+     *                           snapshots are disabled.
+     * @param discriminators     The discriminators the types of the instance have been resolved from.
+     */
+    public InstanceInvocationHandler(E entity, ProxyType proxyType, ProxyMethodService<E, EntityProxyMethod<E>> proxyMethodService, SessionContext<?, E> sessionContext, PropertySlots propertySlots, Set<?> discriminators) {
+        super(sessionContext.getCdoTransaction(), sessionContext.getInterceptorFactory().getInterceptorRegistry(),
+                proxyType.getMethods(), proxyMethodService.getSlots(proxyType));
         this.entity = entity;
         this.proxyMethodService = proxyMethodService;
+        this.sessionContext = sessionContext;
+        this.propertySlots = propertySlots;
+        this.discriminators = discriminators;
     }
 
     @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    protected TransactionAttribute getTransactionAttribute(int slot) {
+        return proxyMethodService.getTransactionAttribute(slot);
+    }
+
+    @Override
+    protected Object proceed(Object proxy, int slot, Object[] args) throws Exception {
         if (entity == null) {
             throw new CdoException("Invalid access to an un-managed instance.");
         }
-        return proxyMethodService.invoke(entity, proxy, method, args);
+        return proxyMethodService.getProxyMethod(slot).invoke(sessionContext, entity, proxy, args);
     }
 
     public E getEntity() {
         return entity;
     }
 
+    public PropertySlots getPropertySlots() {
+        return propertySlots;
+    }
+
+    /**
+     * Return the discriminators of the entity.
+     *
+     * @return The discriminators or <code>null</code> if they have been changed since the instance has been created.
+     */
+    public Set<?> getDiscriminators() {
+        return discriminators;
+    }
+
+    public void setDiscriminators(Set<?> discriminators) {
+        this.discriminators = discriminators;
+    }
+
     public void close() {
         entity = null;
     }
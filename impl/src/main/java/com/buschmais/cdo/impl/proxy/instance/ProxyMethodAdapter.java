@@ -0,0 +1,24 @@
+package com.buschmais.cdo.impl.proxy.instance;
+
+import com.buschmais.cdo.api.proxy.ProxyMethod;
+import com.buschmais.cdo.impl.SessionContext;
+
+/**
+ * Adapts a {@link ProxyMethod} which does not depend on the session, e.g. a method provided by
+ * {@link com.buschmais.cdo.api.annotation.ImplementedBy}, to an {@link EntityProxyMethod}.
+ *
+ * @param <Entity> The entity type.
+ */
+public class ProxyMethodAdapter<Entity> implements EntityProxyMethod<Entity> {
+
+    private final ProxyMethod<Entity> proxyMethod;
+
+    public ProxyMethodAdapter(ProxyMethod<Entity> proxyMethod) {
+        this.proxyMethod = proxyMethod;
+    }
+
+    @Override
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) throws Exception {
+        return proxyMethod.invoke(entity, instance, args);
+    }
+}
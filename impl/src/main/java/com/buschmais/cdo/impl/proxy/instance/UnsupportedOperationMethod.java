@@ -1,11 +1,11 @@
 package com.buschmais.cdo.impl.proxy.instance;
 
-import com.buschmais.cdo.api.proxy.ProxyMethod;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.UnsupportedOperationMethodMetadata;
 
 import java.lang.reflect.Method;
 
-public class UnsupportedOperationMethod<Entity> implements ProxyMethod<Entity> {
+public class UnsupportedOperationMethod<Entity> implements EntityProxyMethod<Entity> {
 
     private UnsupportedOperationMethodMetadata methodMetadata;
 
@@ -14,7 +14,7 @@ public class UnsupportedOperationMethod<Entity> implements ProxyMethod<Entity> {
     }
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         Method method = methodMetadata.getAnnotatedMethod().getAnnotatedElement();
         throw new UnsupportedOperationException("Method '" + method.getName() + "' declared in '" + method.getDeclaringClass().getName() + "' is not mapped to an implementation.");
     }
@@ -1,25 +1,19 @@
 package com.buschmais.cdo.impl.proxy.instance.object;
 
-import com.buschmais.cdo.api.proxy.ProxyMethod;
 import com.buschmais.cdo.impl.InstanceManager;
+import com.buschmais.cdo.impl.SessionContext;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethod;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
 
-public class EqualsMethod<Entity> implements ProxyMethod<Entity> {
-
-    private InstanceManager<?, Entity> instanceManager;
-
-    private DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession;
-
-    public EqualsMethod(InstanceManager<?, Entity> instanceManager, DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession) {
-        this.instanceManager = instanceManager;
-        this.datastoreSession = datastoreSession;
-    }
+public class EqualsMethod<Entity> implements EntityProxyMethod<Entity> {
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         Object other = args[0];
+        InstanceManager<?, Entity> instanceManager = sessionContext.getInstanceManager();
         if (instanceManager.isEntity(other)) {
             Entity otherEntity = instanceManager.getEntity(other);
+            DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession = sessionContext.getDatastoreSession();
             return (datastoreSession.getId(otherEntity).equals(datastoreSession.getId(entity)));
         }
         return Boolean.valueOf(false);
@@ -1,18 +1,12 @@
 package com.buschmais.cdo.impl.proxy.instance.object;
 
-import com.buschmais.cdo.spi.datastore.DatastoreSession;
-import com.buschmais.cdo.api.proxy.ProxyMethod;
+import com.buschmais.cdo.impl.SessionContext;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethod;
 
-public class HashCodeMethod<Entity> implements ProxyMethod<Entity> {
-
-    private DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession;
-
-    public HashCodeMethod(DatastoreSession<?, Entity,?, ?, ?, ?> datastoreSession) {
-        this.datastoreSession = datastoreSession;
-    }
+public class HashCodeMethod<Entity> implements EntityProxyMethod<Entity> {
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
-        return datastoreSession.getId(entity).hashCode();
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
+        return sessionContext.getDatastoreSession().getId(entity).hashCode();
     }
 }
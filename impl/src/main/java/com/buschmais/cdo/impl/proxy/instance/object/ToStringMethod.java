@@ -1,18 +1,12 @@
 package com.buschmais.cdo.impl.proxy.instance.object;
 
-import com.buschmais.cdo.spi.datastore.DatastoreSession;
-import com.buschmais.cdo.api.proxy.ProxyMethod;
+import com.buschmais.cdo.impl.SessionContext;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethod;
 
-public class ToStringMethod<Entity> implements ProxyMethod<Entity> {
-
-    private DatastoreSession<?, Entity,?, ?, ?, ?> datastoreSession;
-
-    public ToStringMethod(DatastoreSession datastoreSession) {
-        this.datastoreSession = datastoreSession;
-    }
+public class ToStringMethod<Entity> implements EntityProxyMethod<Entity> {
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         StringBuffer stringBuffer = new StringBuffer();
         for (Class<?> type : instance.getClass().getInterfaces()) {
             if (stringBuffer.length() > 0) {
@@ -21,7 +15,7 @@ public class ToStringMethod<Entity> implements ProxyMethod<Entity> {
             stringBuffer.append(type);
         }
         stringBuffer.append(", id=");
-        stringBuffer.append(datastoreSession.getId(entity));
+        stringBuffer.append(sessionContext.getDatastoreSession().getId(entity));
         return stringBuffer.toString();
     }
 }
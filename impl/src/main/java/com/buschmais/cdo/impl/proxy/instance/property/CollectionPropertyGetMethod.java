@@ -1,10 +1,10 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
 import com.buschmais.cdo.api.CdoException;
-import com.buschmais.cdo.impl.InstanceManager;
-import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.impl.proxy.collection.CollectionProxy;
 import com.buschmais.cdo.impl.proxy.collection.ListProxy;
+import com.buschmais.cdo.impl.proxy.collection.OrderedListProxy;
 import com.buschmais.cdo.impl.proxy.collection.SetProxy;
 import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
 import com.buschmais.cdo.spi.metadata.CollectionPropertyMethodMetadata;
@@ -15,22 +15,24 @@ import java.util.Set;
 
 public class CollectionPropertyGetMethod<Entity> extends AbstractPropertyMethod<Entity, CollectionPropertyMethodMetadata> {
 
-    private InterceptorFactory interceptorFactory;
-
-    public CollectionPropertyGetMethod(CollectionPropertyMethodMetadata<?> metadata, InstanceManager instanceManager, PropertyManager propertyManager, InterceptorFactory interceptorFactory) {
-        super(metadata, instanceManager, propertyManager);
-        this.interceptorFactory = interceptorFactory;
+    public CollectionPropertyGetMethod(CollectionPropertyMethodMetadata<?> metadata) {
+        super(metadata);
     }
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         CollectionPropertyMethodMetadata<?> collectionPropertyMetadata = getMetadata();
-        CollectionProxy<?, Entity> collectionProxy = new CollectionProxy<>(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection(), getInstanceManager(), getPropertyManager(), interceptorFactory);
+        InterceptorFactory interceptorFactory = sessionContext.getInterceptorFactory();
+        CollectionProxy<?, Entity> collectionProxy = new CollectionProxy<>(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection(), sessionContext.getInstanceManager(), sessionContext.getPropertyManager(), interceptorFactory);
         Collection<?> collection;
         if (Set.class.isAssignableFrom(collectionPropertyMetadata.getAnnotatedMethod().getType())) {
             collection = new SetProxy<>(collectionProxy);
         } else if (List.class.isAssignableFrom(collectionPropertyMetadata.getAnnotatedMethod().getType())) {
-            collection = new ListProxy<>(collectionProxy);
+            if (collectionPropertyMetadata.isOrdered() && sessionContext.getPropertyManager().isOrdered()) {
+                collection = new OrderedListProxy<>(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection(), sessionContext.getInstanceManager(), sessionContext.getPropertyManager());
+            } else {
+                collection = new ListProxy<>(collectionProxy);
+            }
         } else if (Collection.class.isAssignableFrom(collectionPropertyMetadata.getAnnotatedMethod().getType())) {
             collection = collectionProxy;
         } else {
@@ -1,25 +1,26 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
-import com.buschmais.cdo.impl.InstanceManager;
-import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.CollectionPropertyMethodMetadata;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 public class CollectionPropertySetMethod<Entity> extends AbstractPropertyMethod<Entity, CollectionPropertyMethodMetadata> {
 
-    public CollectionPropertySetMethod(CollectionPropertyMethodMetadata metadata, InstanceManager instanceManager, PropertyManager propertyManager) {
-        super(metadata, instanceManager, propertyManager);
+    public CollectionPropertySetMethod(CollectionPropertyMethodMetadata metadata) {
+        super(metadata);
     }
 
-    public Object invoke(Entity entity, Object instance, Object[] args) {
-        Object value = args[0];
-        getPropertyManager().removeRelations(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection());
-        Collection<?> collection = (Collection<?>) value;
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
+        Collection<?> collection = (Collection<?>) args[0];
+        List<Entity> targets = new ArrayList<>(collection.size());
         for (Object o : collection) {
-            Entity target = getInstanceManager().getEntity(o);
-            getPropertyManager().createRelation(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection(), target);
+            targets.add(sessionContext.getInstanceManager().getEntity(o));
         }
+        CollectionPropertyMethodMetadata<?> metadata = getMetadata();
+        sessionContext.getPropertyManager().setRelations(entity, metadata.getRelationshipMetadata(), metadata.getDirection(), targets, metadata.isOrdered());
         return null;
     }
 }
@@ -1,17 +1,32 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
-import com.buschmais.cdo.impl.InstanceManager;
 import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata;
 
 public class EnumPropertyGetMethod<Entity> extends AbstractPropertyMethod<Entity, EnumPropertyMethodMetadata> {
 
-    public EnumPropertyGetMethod(EnumPropertyMethodMetadata metadata, InstanceManager instanceManager, PropertyManager propertyManager) {
-        super(metadata, instanceManager, propertyManager);
+    private final boolean cacheable;
+
+    /**
+     * Constructor.
+     *
+     * @param metadata  The property metadata.
+     * @param cacheable <code>true</code> if the value may be read from the property cache.
+     */
+    public EnumPropertyGetMethod(EnumPropertyMethodMetadata metadata, boolean cacheable) {
+        super(metadata);
+        this.cacheable = cacheable;
     }
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
-        return getPropertyManager().getEnumProperty(entity, getMetadata());
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
+        PropertyManager<?, Entity, ?, ?> propertyManager = sessionContext.getPropertyManager();
+        if (cacheable) {
+            return propertyManager.getCachedEnumProperty(entity, getMetadata());
+        } else if (propertyManager.isSnapshotEnabled()) {
+            return propertyManager.getSnapshotProperty(entity, sessionContext.getInstanceManager().getPropertySlots(instance), getMetadata());
+        }
+        return propertyManager.getEnumProperty(entity, getMetadata());
     }
 }
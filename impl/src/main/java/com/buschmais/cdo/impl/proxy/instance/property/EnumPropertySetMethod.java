@@ -1,19 +1,18 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
-import com.buschmais.cdo.impl.InstanceManager;
-import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata;
 
 public class EnumPropertySetMethod<Entity> extends AbstractPropertyMethod<Entity, EnumPropertyMethodMetadata> {
 
-    public EnumPropertySetMethod(EnumPropertyMethodMetadata metadata, InstanceManager instanceManager, PropertyManager propertyManager) {
-        super(metadata, instanceManager, propertyManager);
+    public EnumPropertySetMethod(EnumPropertyMethodMetadata metadata) {
+        super(metadata);
     }
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         Enum<?> value = (Enum<?>) args[0];
-        getPropertyManager().setEnumProperty(entity, getMetadata(), value);
+        sessionContext.getPropertyManager().setEnumProperty(entity, getMetadata(), value);
         return null;
     }
 }
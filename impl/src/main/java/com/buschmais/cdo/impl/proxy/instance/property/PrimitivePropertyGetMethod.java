@@ -1,23 +1,39 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
-import com.buschmais.cdo.impl.InstanceManager;
 import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
 
 public class PrimitivePropertyGetMethod<Entity> extends AbstractPropertyMethod<Entity,
         PrimitivePropertyMethodMetadata> {
 
-    public PrimitivePropertyGetMethod(PrimitivePropertyMethodMetadata metadata, InstanceManager instanceManager, PropertyManager propertyManager) {
-        super(metadata, instanceManager, propertyManager);
+    private final boolean cacheable;
+
+    /**
+     * Constructor.
+     *
+     * @param metadata  The property metadata.
+     * @param cacheable <code>true</code> if the value may be read from the property cache.
+     */
+    public PrimitivePropertyGetMethod(PrimitivePropertyMethodMetadata metadata, boolean cacheable) {
+        super(metadata);
+        this.cacheable = cacheable;
     }
 
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         PrimitivePropertyMethodMetadata<?> metadata = getMetadata();
-        if (!getPropertyManager().hasProperty(entity, metadata)) {
+        PropertyManager<?, Entity, ?, ?> propertyManager = sessionContext.getPropertyManager();
+        Object value;
+        if (cacheable) {
+            value = propertyManager.getCachedProperty(entity, metadata);
+        } else if (propertyManager.isSnapshotEnabled()) {
+            value = propertyManager.getSnapshotProperty(entity, sessionContext.getInstanceManager().getPropertySlots(instance), metadata);
+        } else {
+            value = propertyManager.getPropertyOrNull(entity, metadata);
+        }
+        if (value == null) {
             return null;
         }
-
-        Object value = getPropertyManager().getProperty(entity, metadata);
         Class<?> type = metadata.getAnnotatedMethod().getType();
         if (Enum.class.isAssignableFrom(type)) {
             return Enum.valueOf((Class<Enum>) type, (String) value);
@@ -1,27 +1,24 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
-import com.buschmais.cdo.impl.InstanceManager;
-import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
 
 public class PrimitivePropertySetMethod<Entity> extends AbstractPropertyMethod<Entity, PrimitivePropertyMethodMetadata> {
 
-    public PrimitivePropertySetMethod(PrimitivePropertyMethodMetadata metadata, InstanceManager instanceManager, PropertyManager propertyManager) {
-        super(metadata, instanceManager, propertyManager);
+    public PrimitivePropertySetMethod(PrimitivePropertyMethodMetadata metadata) {
+        super(metadata);
     }
 
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         Object value = args[0];
         PrimitivePropertyMethodMetadata<?> metadata = getMetadata();
         if (value != null) {
             if (Enum.class.isAssignableFrom(metadata.getAnnotatedMethod().getType())) {
                 value = ((Enum) value).name();
             }
-            getPropertyManager().setProperty(entity, metadata, value);
+            sessionContext.getPropertyManager().setProperty(entity, metadata, value);
         } else {
-            if (getPropertyManager().hasProperty(entity, metadata)) {
-                getPropertyManager().removeProperty(entity, metadata);
-            }
+            sessionContext.getPropertyManager().removeProperty(entity, metadata);
         }
         return null;
     }
@@ -1,19 +1,18 @@
 package com.buschmais.cdo.impl.proxy.instance.property;
 
-import com.buschmais.cdo.impl.InstanceManager;
-import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.SessionContext;
 import com.buschmais.cdo.spi.metadata.ReferencePropertyMethodMetadata;
 
 public class ReferencePropertySetMethod<Entity> extends AbstractPropertyMethod<Entity, ReferencePropertyMethodMetadata> {
 
-    public ReferencePropertySetMethod(ReferencePropertyMethodMetadata metadata, InstanceManager instanceManager, PropertyManager propertyManager) {
-        super(metadata, instanceManager, propertyManager);
+    public ReferencePropertySetMethod(ReferencePropertyMethodMetadata metadata) {
+        super(metadata);
     }
 
-    public Object invoke(Entity entity, Object instance, Object[] args) {
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
         Object value = args[0];
-        Entity target = value != null ? getInstanceManager().getEntity(value) : null;
-        getPropertyManager().createSingleRelation(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection(), target);
+        Entity target = value != null ? sessionContext.getInstanceManager().getEntity(value) : null;
+        sessionContext.getPropertyManager().createSingleRelation(entity, getMetadata().getRelationshipMetadata(), getMetadata().getDirection(), target);
         return null;
     }
 }
@@ -1,37 +1,28 @@
 package com.buschmais.cdo.impl.proxy.instance.resultof;
 
-import com.buschmais.cdo.api.CdoTransaction;
 import com.buschmais.cdo.api.Query;
 import com.buschmais.cdo.api.annotation.ResultOf;
-import com.buschmais.cdo.api.proxy.ProxyMethod;
 import com.buschmais.cdo.impl.InstanceManager;
-import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.SessionContext;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethod;
 import com.buschmais.cdo.impl.query.CdoQueryImpl;
-import com.buschmais.cdo.spi.datastore.DatastoreSession;
 import com.buschmais.cdo.spi.metadata.ResultOfMethodMetadata;
 
 import java.util.Collections;
 import java.util.List;
 
-public class ResultOfMethod<Entity> implements ProxyMethod<Entity> {
+public class ResultOfMethod<Entity> implements EntityProxyMethod<Entity> {
 
     private ResultOfMethodMetadata resultOfMethodMetadata;
-    private InstanceManager instanceManager;
-    private CdoTransaction cdoTransaction;
-    private InterceptorFactory interceptorFactory;
-    private DatastoreSession datastoreSession;
 
-    public ResultOfMethod(ResultOfMethodMetadata resultOfMethodMetadata, InstanceManager instanceManager, CdoTransaction cdoTransaction, InterceptorFactory interceptorFactory, DatastoreSession datastoreSession) {
+    public ResultOfMethod(ResultOfMethodMetadata resultOfMethodMetadata) {
         this.resultOfMethodMetadata = resultOfMethodMetadata;
-        this.instanceManager = instanceManager;
-        this.cdoTransaction = cdoTransaction;
-        this.interceptorFactory = interceptorFactory;
-        this.datastoreSession = datastoreSession;
     }
 
     @Override
-    public Object invoke(Entity entity, Object instance, Object[] args) {
-        CdoQueryImpl<?, Class<?>> query = new CdoQueryImpl(resultOfMethodMetadata.getQuery(), datastoreSession, instanceManager, cdoTransaction, interceptorFactory, Collections.<Class<?>>emptyList());
+    public Object invoke(SessionContext<?, Entity> sessionContext, Entity entity, Object instance, Object[] args) {
+        InstanceManager<?, Entity> instanceManager = sessionContext.getInstanceManager();
+        CdoQueryImpl<?, Class<?>> query = new CdoQueryImpl(resultOfMethodMetadata.getQuery(), sessionContext.getDatastoreSession(), instanceManager, sessionContext.getCdoTransaction(), sessionContext.getInterceptorFactory(), sessionContext.getQueryCache(), sessionContext.getSnapshotCache(), sessionContext.getWriteBuffer(), Collections.<Class<?>>emptyList());
         String usingThisAs = resultOfMethodMetadata.getUsingThisAs();
         query.withParameter(usingThisAs, instanceManager.getInstance(entity));
         List<ResultOf.Parameter> parameters = resultOfMethodMetadata.getParameters();
@@ -1,22 +1,32 @@
 package com.buschmais.cdo.impl.proxy.query;
 
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.impl.interceptor.AbstractTransactionalInvocationHandler;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
+import com.buschmais.cdo.impl.proxy.ProxyType;
+
 import java.util.Map;
 
-public class RowInvocationHandler implements InvocationHandler {
+public class RowInvocationHandler extends AbstractTransactionalInvocationHandler {
 
     private Map<String, Object> row;
 
     private RowProxyMethodService rowProxyMethodService;
 
-    public RowInvocationHandler(Map<String, Object> row, RowProxyMethodService rowProxyMethodService) {
+    public RowInvocationHandler(Map<String, Object> row, ProxyType proxyType, RowProxyMethodService rowProxyMethodService, CdoTransaction cdoTransaction, InterceptorRegistry interceptorRegistry) {
+        super(cdoTransaction, interceptorRegistry, proxyType.getMethods(), rowProxyMethodService.getSlots(proxyType));
         this.row = row;
         this.rowProxyMethodService = rowProxyMethodService;
     }
 
     @Override
-    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        return rowProxyMethodService.invoke(row, proxy, method, args);
+    protected TransactionAttribute getTransactionAttribute(int slot) {
+        return rowProxyMethodService.getTransactionAttribute(slot);
+    }
+
+    @Override
+    protected Object proceed(Object proxy, int slot, Object[] args) throws Exception {
+        return rowProxyMethodService.getProxyMethod(slot).invoke(row, proxy, args);
     }
 }
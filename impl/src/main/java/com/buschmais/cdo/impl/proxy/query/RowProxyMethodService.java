@@ -2,7 +2,8 @@ package com.buschmais.cdo.impl.proxy.query;
 
 import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.CompositeObject;
-import com.buschmais.cdo.impl.InstanceManager;
+import com.buschmais.cdo.api.proxy.ProxyMethod;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
 import com.buschmais.cdo.impl.proxy.AbstractProxyMethodService;
 import com.buschmais.cdo.impl.proxy.instance.composite.AsMethod;
 import com.buschmais.cdo.impl.proxy.query.object.EqualsMethod;
@@ -21,10 +22,10 @@ import java.util.SortedSet;
 
 import static com.buschmais.cdo.api.Query.Result.CompositeRowObject;
 
-public class RowProxyMethodService extends AbstractProxyMethodService<Map<String, Object>, RowProxyMethod> {
+public class RowProxyMethodService extends AbstractProxyMethodService<Map<String, Object>, ProxyMethod<Map<String, Object>>> {
 
-    public RowProxyMethodService(SortedSet<Class<?>> types, InstanceManager instanceManager) {
-        super(instanceManager);
+    public RowProxyMethodService(SortedSet<Class<?>> types, InterceptorRegistry interceptorRegistry) {
+        super(interceptorRegistry);
         BeanMethodProvider beanMethodProvider = BeanMethodProvider.newInstance();
         for (Class<?> type : types) {
             Collection<AnnotatedMethod> typeMethodsOfType = beanMethodProvider.getMethods(type);
@@ -37,7 +38,7 @@ public class RowProxyMethodService extends AbstractProxyMethodService<Map<String
                 addProxyMethod(proxyMethod, beanPropertyMethod.getAnnotatedElement());
             }
         }
-        addMethod(new AsMethod<Map<String, Object>>(getInstanceManager()), CompositeObject.class, "as", Class.class);
+        addMethod(new AsMethod<Map<String, Object>>(), CompositeObject.class, "as", Class.class);
         addMethod(new com.buschmais.cdo.impl.proxy.query.row.GetMethod(), CompositeRowObject.class, "get", String.class, Class.class);
         addMethod(new GetColumnsMethod(), CompositeRowObject.class, "getColumns");
         addMethod(new HashCodeMethod(), Object.class, "hashCode");
@@ -4,7 +4,10 @@ import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.CdoTransaction;
 import com.buschmais.cdo.api.Query;
 import com.buschmais.cdo.api.ResultIterator;
+import com.buschmais.cdo.api.annotation.Cacheable;
 import com.buschmais.cdo.impl.InstanceManager;
+import com.buschmais.cdo.impl.cache.PropertySnapshotCache;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
 import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
 import com.buschmais.cdo.impl.transaction.TransactionalQueryResultIterable;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
@@ -18,18 +21,27 @@ public class CdoQueryImpl<T, QL> implements Query<T> {
     private final InstanceManager instanceManager;
     private final CdoTransaction cdoTransaction;
     private final InterceptorFactory interceptorFactory;
+    private final QueryCache queryCache;
+    private final PropertySnapshotCache<?> snapshotCache;
+    private final PropertyWriteBuffer writeBuffer;
     private final Collection<Class<?>> types;
     private Map<String, Object> parameters = null;
+    private Query<T> proxy = null;
+    private boolean cacheable;
 
     public CdoQueryImpl(QL expression, DatastoreSession datastoreSession, InstanceManager instanceManager,
-                        CdoTransaction cdoTransaction, InterceptorFactory interceptorFactory,
-                        Collection<Class<?>> types) {
+                        CdoTransaction cdoTransaction, InterceptorFactory interceptorFactory, QueryCache queryCache,
+                        PropertySnapshotCache<?> snapshotCache, PropertyWriteBuffer writeBuffer, Collection<Class<?>> types) {
         this.expression = expression;
         this.datastoreSession = datastoreSession;
         this.instanceManager = instanceManager;
         this.cdoTransaction = cdoTransaction;
         this.interceptorFactory = interceptorFactory;
+        this.queryCache = queryCache;
+        this.snapshotCache = snapshotCache;
+        this.writeBuffer = writeBuffer;
         this.types = types;
+        this.cacheable = expression instanceof Class<?> && ((Class<?>) expression).isAnnotationPresent(Cacheable.class);
     }
 
     @Override
@@ -41,7 +53,7 @@ public class CdoQueryImpl<T, QL> implements Query<T> {
         if (oldValue != null) {
             throw new CdoException("Parameter '" + name + "' has already been assigned to value '" + value + "'.");
         }
-        return interceptorFactory.addInterceptor(this);
+        return getProxy();
     }
 
     @Override
@@ -50,7 +62,13 @@ public class CdoQueryImpl<T, QL> implements Query<T> {
             throw new CdoException(("Parameters have already been assigned: " + parameters));
         }
         this.parameters = parameters;
-        return interceptorFactory.addInterceptor(this);
+        return getProxy();
+    }
+
+    @Override
+    public Query<T> cacheable() {
+        this.cacheable = true;
+        return getProxy();
     }
 
     @Override
@@ -66,13 +84,79 @@ public class CdoQueryImpl<T, QL> implements Query<T> {
                 effectiveParameters.put(name, value);
             }
         }
-        ResultIterator<Map<String, Object>> iterator = datastoreSession.execute(expression, effectiveParameters);
+        // Buffered property values must be visible to the datastore.
+        writeBuffer.flush();
+        ResultIterator<Map<String, Object>> iterator;
+        if (cacheable && cdoTransaction.isActive()) {
+            List<Map<String, Object>> rows = queryCache.get(expression, effectiveParameters);
+            if (rows == null) {
+                queryCache.executed(expression);
+                rows = new ArrayList<>();
+                ResultIterator<Map<String, Object>> datastoreIterator = datastoreSession.execute(expression, effectiveParameters);
+                try {
+                    while (datastoreIterator.hasNext()) {
+                        rows.add(datastoreIterator.next());
+                    }
+                } finally {
+                    datastoreIterator.close();
+                }
+                queryCache.put(expression, effectiveParameters, rows);
+            }
+            iterator = new RowIterator(rows.iterator());
+        } else {
+            // Modifications by the query are not tracked, cached rows and property snapshots may be stale afterwards.
+            if (queryCache.executed(expression)) {
+                queryCache.clear();
+                if (snapshotCache != null) {
+                    snapshotCache.clear();
+                }
+            }
+            iterator = datastoreSession.execute(expression, effectiveParameters);
+        }
         SortedSet<Class<?>> resultTypes = getResultTypes();
-        QueryResultIterableImpl queryResultIterable = new QueryResultIterableImpl(instanceManager, datastoreSession,
-                iterator, resultTypes);
+        QueryResultIterableImpl queryResultIterable = new QueryResultIterableImpl(instanceManager, datastoreSession, cdoTransaction,
+                interceptorFactory, iterator, resultTypes);
         return new TransactionalQueryResultIterable(queryResultIterable, cdoTransaction);
     }
 
+    /**
+     * Iterates over cached rows.
+     */
+    private static class RowIterator implements ResultIterator<Map<String, Object>> {
+
+        private final Iterator<Map<String, Object>> iterator;
+
+        private RowIterator(Iterator<Map<String, Object>> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            return iterator.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Remove not supported");
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private Query<T> getProxy() {
+        if (proxy == null) {
+            proxy = interceptorFactory.addInterceptor(this);
+        }
+        return proxy;
+    }
+
     private SortedSet<Class<?>> getResultTypes() {
         SortedSet<Class<?>> resultTypes = new TreeSet<>(new Comparator<Class<?>>() {
             @Override
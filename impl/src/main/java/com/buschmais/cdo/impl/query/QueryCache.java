@@ -0,0 +1,158 @@
+package com.buschmais.cdo.impl.query;
+
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.spi.datastore.DatastoreQueryAnalyzer;
+import com.buschmais.cdo.spi.datastore.DatastoreSession;
+
+import java.util.*;
+
+/**
+ * Caches the rows of cacheable queries for the current transaction of a {@link com.buschmais.cdo.api.CdoManager}.
+ * <p>Cached rows are invalidated if an entity is created, deleted, migrated or modified which carries a discriminator
+ * read by the query. If the datastore session does not implement {@link DatastoreQueryAnalyzer} or cannot determine
+ * the discriminators of a query its rows are invalidated by any modification. Queries which are not cached and not
+ * reported as read-only by the {@link DatastoreQueryAnalyzer} may modify any entity, therefore all rows are
+ * invalidated if such a query is executed.</p>
+ * <p>The cache also records if the current transaction executed a query which may modify entities, i.e. which is not
+ * reported as read-only by the {@link DatastoreQueryAnalyzer}.</p>
+ *
+ * @param <Entity> The entity type.
+ */
+public class QueryCache<Entity> implements CdoTransaction.Synchronization {
+
+    private final DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession;
+
+    private final Map<Key, Entry> entries = new HashMap<>();
+
+    private boolean modifiedByQuery = false;
+
+    public QueryCache(DatastoreSession<?, Entity, ?, ?, ?, ?> datastoreSession) {
+        this.datastoreSession = datastoreSession;
+    }
+
+    /**
+     * Return the cached rows of a query.
+     *
+     * @param expression The query expression.
+     * @param parameters The effective parameters of the query.
+     * @return The rows or <code>null</code> if no rows are cached.
+     */
+    List<Map<String, Object>> get(Object expression, Map<String, Object> parameters) {
+        Entry entry = entries.get(new Key(expression, parameters));
+        return entry != null ? entry.rows : null;
+    }
+
+    /**
+     * Cache the rows of a query.
+     *
+     * @param expression The query expression.
+     * @param parameters The effective parameters of the query.
+     * @param rows       The rows.
+     */
+    void put(Object expression, Map<String, Object> parameters, List<Map<String, Object>> rows) {
+        Set<?> discriminators = null;
+        if (datastoreSession instanceof DatastoreQueryAnalyzer) {
+            discriminators = ((DatastoreQueryAnalyzer<?>) datastoreSession).getQueryDiscriminators(expression);
+        }
+        entries.put(new Key(expression, new HashMap<>(parameters)), new Entry(Collections.unmodifiableList(rows), discriminators));
+    }
+
+    /**
+     * Record the execution of a query against the datastore.
+     *
+     * @param expression The query expression.
+     * @return <code>true</code> if the query may modify entities.
+     */
+    boolean executed(Object expression) {
+        boolean modifying = !(datastoreSession instanceof DatastoreQueryAnalyzer) || !((DatastoreQueryAnalyzer<?>) datastoreSession).isReadOnly(expression);
+        modifiedByQuery |= modifying;
+        return modifying;
+    }
+
+    /**
+     * Determine if the current transaction executed a query which may have modified entities.
+     *
+     * @return <code>true</code> if such a query has been executed.
+     */
+    public boolean isModifiedByQuery() {
+        return modifiedByQuery;
+    }
+
+    /**
+     * Determine if rows are cached.
+     *
+     * @return <code>true</code> if no rows are cached.
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Invalidate all cached rows which depend on entities with the given discriminators.
+     *
+     * @param discriminators The discriminators.
+     */
+    public void invalidate(Set<?> discriminators) {
+        for (Iterator<Entry> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            Set<?> queryDiscriminators = iterator.next().discriminators;
+            if (queryDiscriminators == null || !Collections.disjoint(queryDiscriminators, discriminators)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    @Override
+    public void beforeCompletion() {
+    }
+
+    @Override
+    public void afterCompletion(boolean committed) {
+        clear();
+        modifiedByQuery = false;
+    }
+
+    private static final class Key {
+
+        private final Object expression;
+
+        private final Map<String, Object> parameters;
+
+        private Key(Object expression, Map<String, Object> parameters) {
+            this.expression = expression;
+            this.parameters = parameters;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return expression.equals(key.expression) && parameters.equals(key.parameters);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * expression.hashCode() + parameters.hashCode();
+        }
+    }
+
+    private static final class Entry {
+
+        private final List<Map<String, Object>> rows;
+
+        private final Set<?> discriminators;
+
+        private Entry(List<Map<String, Object>> rows, Set<?> discriminators) {
+            this.rows = rows;
+            this.discriminators = discriminators;
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.buschmais.cdo.impl.query;
 
+import com.buschmais.cdo.api.CdoTransaction;
 import com.buschmais.cdo.api.Query;
 import com.buschmais.cdo.api.ResultIterator;
 import com.buschmais.cdo.impl.AbstractResultIterable;
 import com.buschmais.cdo.impl.InstanceManager;
+import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
+import com.buschmais.cdo.impl.proxy.ProxyType;
 import com.buschmais.cdo.impl.proxy.query.RowInvocationHandler;
 import com.buschmais.cdo.impl.proxy.query.RowProxyMethodService;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
@@ -15,59 +19,103 @@ class QueryResultIterableImpl<T> extends AbstractResultIterable<T> implements Qu
 
     private InstanceManager instanceManager;
     private DatastoreSession datastoreSession;
+    private CdoTransaction cdoTransaction;
+    private InterceptorRegistry interceptorRegistry;
     private ResultIterator<Map<String, Object>> iterator;
     private SortedSet<Class<?>> types;
     private RowProxyMethodService rowProxyMethodService;
+    private ProxyType proxyType;
 
-    QueryResultIterableImpl(InstanceManager instanceManager, DatastoreSession datastoreSession,
-                            ResultIterator<Map<String, Object>> iterator, SortedSet<Class<?>> types) {
+    QueryResultIterableImpl(InstanceManager instanceManager, DatastoreSession datastoreSession, CdoTransaction cdoTransaction,
+                            InterceptorFactory interceptorFactory, ResultIterator<Map<String, Object>> iterator, SortedSet<Class<?>> types) {
         this.instanceManager = instanceManager;
         this.datastoreSession = datastoreSession;
+        this.cdoTransaction = cdoTransaction;
+        this.interceptorRegistry = interceptorFactory.getInterceptorRegistry();
         this.iterator = iterator;
         this.types = types;
-        this.rowProxyMethodService = new RowProxyMethodService(types, instanceManager);
+        this.rowProxyMethodService = new RowProxyMethodService(types, interceptorRegistry);
+        this.proxyType = instanceManager.getProxyType(types, CompositeRowObject.class);
     }
 
     @Override
     public ResultIterator<T> iterator() {
         return new ResultIterator<T>() {
 
+            private Deque<Map<String, Object>> rows = new ArrayDeque<>();
+
             @Override
             public boolean hasNext() {
-                return iterator.hasNext();
+                return !rows.isEmpty() || iterator.hasNext();
             }
 
             @Override
             public T next() {
-                Map<String, Object> next = iterator.next();
-                Map<String, Object> row = new LinkedHashMap<>();
-                for (Map.Entry<String, Object> entry : next.entrySet()) {
-                    String column = entry.getKey();
-                    Object value = entry.getValue();
-                    Object decodedValue = decodeValue(value);
-                    row.put(column, decodedValue);
+                if (rows.isEmpty()) {
+                    fetchRows();
                 }
-                RowInvocationHandler invocationHandler = new RowInvocationHandler(row, rowProxyMethodService);
-                return (T) instanceManager.createInstance(invocationHandler, types, CompositeRowObject.class);
+                Map<String, Object> row = rows.removeFirst();
+                RowInvocationHandler invocationHandler = new RowInvocationHandler(row, proxyType, rowProxyMethodService, cdoTransaction, interceptorRegistry);
+                return proxyType.newInstance(invocationHandler);
             }
 
             @Override
             public void remove() {
-                iterator.remove();
+                throw new UnsupportedOperationException("Remove not supported");
+            }
+
+            /**
+             * Fetch the next rows from the datastore and decode them, the instances of all entities contained in these
+             * rows are resolved together.
+             */
+            private void fetchRows() {
+                List<Map<String, Object>> datastoreRows = new ArrayList<>();
+                List<Object> entities = new ArrayList<>();
+                do {
+                    Map<String, Object> datastoreRow = iterator.next();
+                    datastoreRows.add(datastoreRow);
+                    for (Object value : datastoreRow.values()) {
+                        collectEntities(value, entities);
+                    }
+                } while (iterator.hasNext() && datastoreRows.size() < InstanceManager.BATCH_SIZE);
+                Iterator<Object> instances = instanceManager.getInstances(entities).iterator();
+                for (Map<String, Object> datastoreRow : datastoreRows) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (Map.Entry<String, Object> entry : datastoreRow.entrySet()) {
+                        String column = entry.getKey();
+                        Object value = entry.getValue();
+                        Object decodedValue = decodeValue(value, instances);
+                        row.put(column, decodedValue);
+                    }
+                    rows.addLast(row);
+                }
+            }
+
+            private void collectEntities(Object value, List<Object> entities) {
+                if (value == null) {
+                    return;
+                }
+                if (datastoreSession.isEntity(value)) {
+                    entities.add(value);
+                } else if (value instanceof List<?>) {
+                    for (Object o : (List<?>) value) {
+                        collectEntities(o, entities);
+                    }
+                }
             }
 
-            private Object decodeValue(Object value) {
+            private Object decodeValue(Object value, Iterator<Object> instances) {
                 if (value == null) {
                     return value;
                 }
                 Object decodedValue;
                 if (datastoreSession.isEntity(value)) {
-                    return instanceManager.getInstance(value);
+                    return instances.next();
                 } else if (value instanceof List<?>) {
                     List<?> listValue = (List<?>) value;
                     List<Object> decodedList = new ArrayList<>();
                     for (Object o : listValue) {
-                        decodedList.add(decodeValue(o));
+                        decodedList.add(decodeValue(o, instances));
                     }
                     decodedValue = decodedList;
                 } else {
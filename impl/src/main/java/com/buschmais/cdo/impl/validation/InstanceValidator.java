@@ -4,33 +4,39 @@ import com.buschmais.cdo.impl.cache.TransactionalCache;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
-import javax.validation.ValidatorFactory;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+/**
+ * Validates the instances which have been marked as dirty within the current transaction.
+ * <p>Validation reads the properties of the instances and therefore runs on the thread owning the transaction.</p>
+ */
 public class InstanceValidator {
 
-    private final ValidatorFactory validatorFactory;
+    private final Validator validator;
 
     private final TransactionalCache<?> cache;
 
-    public InstanceValidator(ValidatorFactory validatorFactory, TransactionalCache<?> cache) {
-        this.validatorFactory = validatorFactory;
+    /**
+     * Constructor.
+     *
+     * @param validator The validator shared by all managers of a factory or <code>null</code> if validation is disabled.
+     * @param cache     The cache.
+     */
+    public InstanceValidator(Validator validator, TransactionalCache<?> cache) {
+        this.validator = validator;
         this.cache = cache;
     }
 
     public Set<ConstraintViolation<Object>> validate() {
-        if (validatorFactory == null) {
+        if (validator == null) {
             return Collections.emptySet();
         }
-        Validator validator = validatorFactory.getValidator();
         Set<ConstraintViolation<Object>> violations = new HashSet<>();
-        for (Object instance : new ArrayList(cache.values())) {
+        for (Object instance : cache.getDirtyInstances()) {
             violations.addAll(validator.validate(instance));
         }
         return violations;
-
     }
 }
@@ -0,0 +1,316 @@
+package com.buschmais.cdo.impl.test.benchmark;
+
+import com.buschmais.cdo.api.CompositeObject;
+import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.impl.CdoTransactionImpl;
+import com.buschmais.cdo.impl.SessionContext;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
+import com.buschmais.cdo.impl.cache.TransactionalCache;
+import com.buschmais.cdo.impl.interceptor.InterceptorFactory;
+import com.buschmais.cdo.impl.interceptor.InterceptorRegistry;
+import com.buschmais.cdo.impl.metadata.MetadataProviderImpl;
+import com.buschmais.cdo.impl.proxy.ProxyFactory;
+import com.buschmais.cdo.impl.proxy.ProxyType;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethod;
+import com.buschmais.cdo.impl.proxy.instance.EntityProxyMethodService;
+import com.buschmais.cdo.impl.proxy.instance.InstanceInvocationHandler;
+import com.buschmais.cdo.impl.test.bootstrap.provider.TestCdoDatastore;
+import com.buschmais.cdo.impl.test.bootstrap.provider.metadata.TestEntityMetadata;
+import com.buschmais.cdo.spi.datastore.DatastorePropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastorePropertyReader;
+import com.buschmais.cdo.spi.datastore.DatastoreSession;
+import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
+import com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.RelationMetadata;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the dispatch of getters of entity proxies.
+ * <p>For each number of properties an entity interface is generated and registered with an
+ * {@link EntityProxyMethodService}, the getters are invoked on instances of this interface:</p>
+ * <ul>
+ * <li><code>hashMapDispatch</code>: a {@link Proxy} resolving the {@link EntityProxyMethod} by a
+ * {@link HashMap} lookup of the invoked {@link Method}, i.e. the dispatch before slot tables were introduced.</li>
+ * <li><code>slotDispatch</code>: an instance created by a {@link ProxyFactory} using {@link Proxy}.</li>
+ * <li><code>generatedSlotDispatch</code>: an instance of a proxy class generated by a {@link ProxyFactory}.</li>
+ * </ul>
+ * <p>The getters are called by a generated class without reflection, the datastore returns a constant value.</p>
+ * <p>The benchmark is executed using {@link #main(String[])}.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProxyMethodDispatchBenchmark {
+
+    private static final String ENTITY_TYPE_PREFIX = ProxyMethodDispatchBenchmark.class.getPackage().getName() + ".Entity";
+
+    @Param({"5", "50", "500"})
+    private int propertyCount;
+
+    private PropertyReader propertyReader;
+
+    private Object hashMapInstance;
+
+    private Object slotInstance;
+
+    private Object generatedInstance;
+
+    private int index;
+
+    @Setup
+    public void setUp() throws Exception {
+        EntityTypeLoader entityTypeLoader = new EntityTypeLoader(ProxyMethodDispatchBenchmark.class.getClassLoader());
+        Class<?> entityType = entityTypeLoader.defineEntityType(propertyCount);
+        propertyReader = entityTypeLoader.definePropertyReader(entityType, propertyCount);
+        InterceptorRegistry interceptorRegistry = new InterceptorRegistry(TransactionAttribute.NOT_SUPPORTED);
+        MetadataProviderImpl<TestEntityMetadata, String> metadataProvider = new MetadataProviderImpl<>(Arrays.<Class<?>>asList(entityType), new TestCdoDatastore<>(null));
+        TypeMetadataSet<TestEntityMetadata> types = new TypeMetadataSet<>();
+        types.add(metadataProvider.getEntityMetadata(entityType));
+        EntityProxyMethodService<Object> proxyMethodService = new EntityProxyMethodService<>(metadataProvider, interceptorRegistry);
+        ProxyFactory proxyFactory = new ProxyFactory(entityTypeLoader, false);
+        ProxyFactory generatingProxyFactory = new ProxyFactory(entityTypeLoader, true);
+        SessionContext<Object, Object> sessionContext = createSessionContext(metadataProvider, proxyFactory, proxyMethodService, interceptorRegistry);
+        Object entity = new Object();
+        hashMapInstance = newHashMapInstance(entityTypeLoader, entityType, proxyFactory.getEntityProxyType(types), proxyMethodService, sessionContext, entity);
+        slotInstance = newInstance(proxyFactory.getEntityProxyType(types), proxyMethodService, sessionContext, entity);
+        generatedInstance = newInstance(generatingProxyFactory.getEntityProxyType(types), proxyMethodService, sessionContext, entity);
+    }
+
+    @Benchmark
+    public Object hashMapDispatch() {
+        return propertyReader.get(hashMapInstance, next());
+    }
+
+    @Benchmark
+    public Object slotDispatch() {
+        return propertyReader.get(slotInstance, next());
+    }
+
+    @Benchmark
+    public Object generatedSlotDispatch() {
+        return propertyReader.get(generatedInstance, next());
+    }
+
+    private int next() {
+        int current = index;
+        index = current + 1 == propertyCount ? 0 : current + 1;
+        return current;
+    }
+
+    private SessionContext<Object, Object> createSessionContext(MetadataProviderImpl<?, ?> metadataProvider, ProxyFactory proxyFactory, EntityProxyMethodService<Object> proxyMethodService, InterceptorRegistry interceptorRegistry) {
+        final ConstantPropertyManager datastorePropertyManager = new ConstantPropertyManager();
+        DatastoreSession<Object, Object, ?, ?, ?, ?> datastoreSession = (DatastoreSession<Object, Object, ?, ?, ?, ?>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DatastoreSession.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getDatastorePropertyManager".equals(method.getName())) {
+                    return datastorePropertyManager;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        CdoTransactionImpl cdoTransaction = new CdoTransactionImpl(null);
+        return new SessionContext<>(metadataProvider, proxyFactory, proxyMethodService, datastoreSession, new TransactionalCache(),
+                null, null, new PropertyWriteBuffer<>(datastoreSession, false), cdoTransaction, new InterceptorFactory(cdoTransaction, interceptorRegistry), null);
+    }
+
+    private Object newInstance(ProxyType proxyType, EntityProxyMethodService<Object> proxyMethodService, SessionContext<Object, Object> sessionContext, Object entity) {
+        return proxyType.newInstance(new InstanceInvocationHandler<>(entity, proxyType, proxyMethodService, sessionContext, null, null));
+    }
+
+    private Object newHashMapInstance(ClassLoader classLoader, Class<?> entityType, ProxyType proxyType, EntityProxyMethodService<Object> proxyMethodService, final SessionContext<Object, Object> sessionContext, final Object entity) {
+        Method[] methods = proxyType.getMethods();
+        int[] slots = proxyMethodService.getSlots(proxyType);
+        final Map<Method, EntityProxyMethod<Object>> proxyMethods = new HashMap<>();
+        for (int i = 0; i < methods.length; i++) {
+            if (slots[i] >= 0) {
+                proxyMethods.put(methods[i], proxyMethodService.getProxyMethod(slots[i]));
+            }
+        }
+        return Proxy.newProxyInstance(classLoader, new Class<?>[]{entityType, CompositeObject.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                return proxyMethods.get(method).invoke(sessionContext, entity, proxy, args);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ProxyMethodDispatchBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Invokes a getter of an entity by its number.
+     */
+    public interface PropertyReader {
+
+        Object get(Object instance, int property);
+
+    }
+
+    /**
+     * Defines the entity interfaces with the properties <code>Property0</code> to <code>Property[n-1]</code> and the
+     * corresponding {@link PropertyReader}s.
+     */
+    private static final class EntityTypeLoader extends ClassLoader implements Opcodes {
+
+        private static final String OBJECT = Type.getInternalName(Object.class);
+
+        private static final String STRING_GETTER = "()" + Type.getDescriptor(String.class);
+
+        private EntityTypeLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> defineEntityType(int propertyCount) {
+            String name = ENTITY_TYPE_PREFIX + propertyCount;
+            ClassWriter classWriter = new ClassWriter(0);
+            classWriter.visit(V1_5, ACC_PUBLIC | ACC_ABSTRACT | ACC_INTERFACE, name.replace('.', '/'), null, OBJECT, null);
+            for (int i = 0; i < propertyCount; i++) {
+                classWriter.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, "getProperty" + i, STRING_GETTER, null, null).visitEnd();
+                classWriter.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, "setProperty" + i, "(" + Type.getDescriptor(String.class) + ")V", null, null).visitEnd();
+            }
+            classWriter.visitEnd();
+            return define(name, classWriter.toByteArray());
+        }
+
+        private PropertyReader definePropertyReader(Class<?> entityType, int propertyCount) throws ReflectiveOperationException {
+            String name = entityType.getName() + "Reader";
+            String entityTypeName = Type.getInternalName(entityType);
+            ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            classWriter.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SUPER, name.replace('.', '/'), null, OBJECT, new String[]{Type.getInternalName(PropertyReader.class)});
+            MethodVisitor mv = classWriter.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            mv = classWriter.visitMethod(ACC_PUBLIC, "get", "(Ljava/lang/Object;I)Ljava/lang/Object;", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitTypeInsn(CHECKCAST, entityTypeName);
+            mv.visitVarInsn(ILOAD, 2);
+            Label defaultLabel = new Label();
+            Label[] labels = new Label[propertyCount];
+            for (int i = 0; i < propertyCount; i++) {
+                labels[i] = new Label();
+            }
+            mv.visitTableSwitchInsn(0, propertyCount - 1, defaultLabel, labels);
+            for (int i = 0; i < propertyCount; i++) {
+                mv.visitLabel(labels[i]);
+                mv.visitMethodInsn(INVOKEINTERFACE, entityTypeName, "getProperty" + i, STRING_GETTER, true);
+                mv.visitInsn(ARETURN);
+            }
+            mv.visitLabel(defaultLabel);
+            mv.visitInsn(POP);
+            mv.visitInsn(ACONST_NULL);
+            mv.visitInsn(ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            classWriter.visitEnd();
+            return (PropertyReader) define(name, classWriter.toByteArray()).newInstance();
+        }
+
+        private Class<?> define(String name, byte[] byteCode) {
+            return defineClass(name, byteCode, 0, byteCode.length);
+        }
+    }
+
+    /**
+     * A datastore property manager returning a constant value for all primitive properties.
+     */
+    private static final class ConstantPropertyManager implements DatastorePropertyManager<Object, Object, Object, Object, Object>, DatastorePropertyReader<Object, Object> {
+
+        private static final String VALUE = "value";
+
+        @Override
+        public Object getPropertyOrNull(Object entity, PrimitivePropertyMethodMetadata<Object> metadata) {
+            return VALUE;
+        }
+
+        @Override
+        public boolean hasProperty(Object entity, PrimitivePropertyMethodMetadata<Object> metadata) {
+            return true;
+        }
+
+        @Override
+        public Object getProperty(Object entity, PrimitivePropertyMethodMetadata<Object> metadata) {
+            return VALUE;
+        }
+
+        @Override
+        public void setProperty(Object entity, PrimitivePropertyMethodMetadata<Object> metadata, Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void removeProperty(Object entity, PrimitivePropertyMethodMetadata<Object> metadata) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Enum<?> getEnumProperty(Object entity, EnumPropertyMethodMetadata<Object> metadata) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setEnumProperty(Object entity, EnumPropertyMethodMetadata<Object> metadata, Enum<?> value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasSingleRelation(Object source, RelationMetadata<Object> metadata, RelationMetadata.Direction direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getSingleRelation(Object source, RelationMetadata<Object> metadata, RelationMetadata.Direction direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Iterable<Object> getRelations(Object source, RelationMetadata<Object> metadata, RelationMetadata.Direction direction) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object createRelation(Object source, RelationMetadata<Object> metadata, RelationMetadata.Direction direction, Object target) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteRelation(Object relation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getSource(Object relation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getTarget(Object relation) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
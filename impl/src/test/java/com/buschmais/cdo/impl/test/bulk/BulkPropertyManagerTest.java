@@ -0,0 +1,252 @@
+package com.buschmais.cdo.impl.test.bulk;
+
+import com.buschmais.cdo.impl.PropertyManager;
+import com.buschmais.cdo.impl.cache.PropertySnapshotCache;
+import com.buschmais.cdo.impl.cache.PropertyWriteBuffer;
+import com.buschmais.cdo.impl.cache.TransactionalCache;
+import com.buschmais.cdo.impl.metadata.MetadataProviderImpl;
+import com.buschmais.cdo.impl.metadata.PropertySlots;
+import com.buschmais.cdo.impl.query.QueryCache;
+import com.buschmais.cdo.impl.test.bootstrap.provider.TestCdoDatastore;
+import com.buschmais.cdo.impl.test.bootstrap.provider.metadata.TestEntityMetadata;
+import com.buschmais.cdo.impl.test.bulk.composite.A;
+import com.buschmais.cdo.spi.datastore.DatastoreBulkPropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastorePropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastoreSession;
+import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
+import com.buschmais.cdo.spi.metadata.AbstractPropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.RelationMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Verifies the usage of {@link DatastoreBulkPropertyManager} using a stub of the datastore property manager.
+ */
+public class BulkPropertyManagerTest {
+
+    private PropertySlots slots;
+
+    private PrimitivePropertyMethodMetadata<?> name;
+
+    private PrimitivePropertyMethodMetadata<?> value;
+
+    private List<String> invocations = new ArrayList<>();
+
+    private List<Object[]> arguments = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MetadataProviderImpl<TestEntityMetadata, String> metadataProvider = new MetadataProviderImpl<>(Arrays.<Class<?>>asList(A.class), new TestCdoDatastore<>(null));
+        TypeMetadataSet<TestEntityMetadata> types = new TypeMetadataSet<>();
+        types.add(metadataProvider.getEntityMetadata(A.class));
+        slots = metadataProvider.getPropertySlots(types);
+        for (AbstractPropertyMethodMetadata<?> metadata : slots.getProperties()) {
+            if ("Name".equals(metadata.getAnnotatedMethod().getName())) {
+                name = (PrimitivePropertyMethodMetadata<?>) metadata;
+            } else {
+                value = (PrimitivePropertyMethodMetadata<?>) metadata;
+            }
+        }
+    }
+
+    @Test
+    public void loadSnapshots() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(true);
+        PropertySnapshotCache<Long> snapshotCache = new PropertySnapshotCache<>();
+        PropertyWriteBuffer<Long, Long> writeBuffer = new PropertyWriteBuffer<>(datastoreSession, true);
+        PropertyManager<Long, Long, Long, Long> propertyManager = createPropertyManager(datastoreSession, snapshotCache, writeBuffer);
+        snapshotCache.put(2L, slots, new Object[]{"cached", "cached"});
+        writeBuffer.put(3L, 3L, value, "buffered");
+        propertyManager.loadSnapshots(Arrays.asList(1L, 2L, 3L), slots);
+        // Only the entities without a snapshot are read using one access.
+        assertThat(invocations, contains("getAllProperties"));
+        assertThat((List<Long>) arguments.get(0)[0], contains(1L, 3L));
+        assertThat(snapshotCache.get(1L, slots)[slots.getSlot(name)], equalTo((Object) "Name1"));
+        assertThat(snapshotCache.get(1L, slots)[slots.getSlot(value)], equalTo((Object) "Value1"));
+        assertThat(snapshotCache.get(2L, slots)[slots.getSlot(name)], equalTo((Object) "cached"));
+        assertThat(snapshotCache.get(3L, slots)[slots.getSlot(name)], equalTo((Object) "Name3"));
+        assertThat(snapshotCache.get(3L, slots)[slots.getSlot(value)], equalTo((Object) "buffered"));
+    }
+
+    @Test
+    public void loadSnapshotsWithoutBulkPropertyManager() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(false);
+        PropertySnapshotCache<Long> snapshotCache = new PropertySnapshotCache<>();
+        PropertyManager<Long, Long, Long, Long> propertyManager = createPropertyManager(datastoreSession, snapshotCache, new PropertyWriteBuffer<>(datastoreSession, true));
+        propertyManager.loadSnapshots(Arrays.asList(1L, 2L), slots);
+        assertThat(invocations, empty());
+        assertThat(snapshotCache.get(1L, slots), nullValue());
+        assertThat(propertyManager.getSnapshotProperty(1L, slots, value), equalTo((Object) "Value1"));
+        // Without the bulk property manager the snapshot is read property by property.
+        assertThat(invocations, contains("hasProperty", "getProperty", "hasProperty", "getProperty"));
+        assertThat(snapshotCache.get(1L, slots)[slots.getSlot(name)], equalTo((Object) "Name1"));
+    }
+
+    @Test
+    public void flush() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(true);
+        PropertyWriteBuffer<Long, Long> writeBuffer = new PropertyWriteBuffer<>(datastoreSession, true);
+        writeBuffer.put(1L, 1L, name, "a");
+        writeBuffer.put(2L, 2L, value, "b");
+        writeBuffer.put(1L, 1L, value, null);
+        writeBuffer.flush();
+        // The values of all entities are written using one access.
+        assertThat(invocations, contains("setAllProperties"));
+        Map<Long, Map<PrimitivePropertyMethodMetadata<?>, Object>> values = (Map<Long, Map<PrimitivePropertyMethodMetadata<?>, Object>>) arguments.get(0)[0];
+        assertThat(values.keySet(), containsInAnyOrder(1L, 2L));
+        assertThat(values.get(1L).get(name), equalTo((Object) "a"));
+        assertThat(values.get(1L).containsKey(value), equalTo(true));
+        assertThat(values.get(1L).get(value), nullValue());
+        assertThat(values.get(2L).get(value), equalTo((Object) "b"));
+        assertThat(values.get(2L).containsKey(name), equalTo(false));
+        assertThat(writeBuffer.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void flushEntity() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(true);
+        PropertyWriteBuffer<Long, Long> writeBuffer = new PropertyWriteBuffer<>(datastoreSession, true);
+        writeBuffer.put(1L, 1L, name, "a");
+        writeBuffer.put(2L, 2L, name, "b");
+        writeBuffer.flush(2L);
+        assertThat(invocations, contains("setProperties"));
+        assertThat(arguments.get(0)[0], equalTo((Object) 2L));
+        assertThat(((Map<?, ?>) arguments.get(0)[1]).get(name), equalTo((Object) "b"));
+        assertThat(writeBuffer.get(1L, name), equalTo((Object) "a"));
+    }
+
+    @Test
+    public void flushWithoutBulkPropertyManager() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(false);
+        PropertyWriteBuffer<Long, Long> writeBuffer = new PropertyWriteBuffer<>(datastoreSession, true);
+        writeBuffer.put(1L, 1L, name, "a");
+        writeBuffer.put(2L, 2L, value, null);
+        writeBuffer.flush();
+        assertThat(invocations, containsInAnyOrder("setProperty", "removeProperty"));
+        assertThat(arguments, containsInAnyOrder(new Object[]{1L, name, "a"}, new Object[]{2L, value}));
+    }
+
+    @Test
+    public void getRelationsBulk() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(true);
+        PropertyManager<Long, Long, Long, Long> propertyManager = createPropertyManager(datastoreSession, null, new PropertyWriteBuffer<>(datastoreSession, true));
+        List<Iterable<Long>> relations = propertyManager.getRelationsBulk(Arrays.asList(1L, 2L), null, RelationMetadata.Direction.OUTGOING);
+        // The relations of all entities are read using one access.
+        assertThat(invocations, contains("getRelationsBulk"));
+        assertThat(relations.get(0), contains(10L, 11L));
+        assertThat(relations.get(1), contains(20L, 21L));
+    }
+
+    @Test
+    public void getRelationsWithoutBulkPropertyManager() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(false);
+        PropertyManager<Long, Long, Long, Long> propertyManager = createPropertyManager(datastoreSession, null, new PropertyWriteBuffer<>(datastoreSession, true));
+        List<Iterable<Long>> relations = propertyManager.getRelationsBulk(Arrays.asList(1L, 2L), null, RelationMetadata.Direction.OUTGOING);
+        assertThat(invocations, contains("getRelations", "getRelations"));
+        assertThat(relations.get(0), contains(10L, 11L));
+        assertThat(relations.get(1), contains(20L, 21L));
+    }
+
+    @Test
+    public void writeBehindWithoutRead() {
+        DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession = createDatastoreSession(true);
+        PropertySnapshotCache<Long> snapshotCache = new PropertySnapshotCache<>();
+        PropertyWriteBuffer<Long, Long> writeBuffer = new PropertyWriteBuffer<>(datastoreSession, true);
+        PropertyManager<Long, Long, Long, Long> propertyManager = createPropertyManager(datastoreSession, snapshotCache, writeBuffer);
+        snapshotCache.put(2L, slots, new Object[]{"cached", "cached"});
+        // Values which are neither buffered nor contained in a snapshot are buffered without reading the store.
+        assertThat(propertyManager.setProperty(1L, name, "a"), equalTo(true));
+        assertThat(propertyManager.removeProperty(1L, value), equalTo(true));
+        assertThat(propertyManager.setProperty(2L, name, "b"), equalTo(true));
+        assertThat(invocations, empty());
+        assertThat(writeBuffer.get(1L, name), equalTo((Object) "a"));
+        assertThat(writeBuffer.get(1L, value), nullValue());
+        assertThat(writeBuffer.get(2L, name), equalTo((Object) "b"));
+        assertThat(snapshotCache.get(2L, slots)[slots.getSlot(name)], equalTo((Object) "b"));
+    }
+
+    private PropertyManager<Long, Long, Long, Long> createPropertyManager(DatastoreSession<Long, Long, ?, ?, Long, Long> datastoreSession, PropertySnapshotCache<Long> snapshotCache, PropertyWriteBuffer<Long, Long> writeBuffer) {
+        return new PropertyManager<>(datastoreSession, new TransactionalCache<Long>(), null, snapshotCache, writeBuffer, new QueryCache<>(datastoreSession), null, null);
+    }
+
+    /**
+     * Create a datastore session using entity ids as entities, the value of a property is its name followed by the id
+     * and the ids of the relations of an entity are its id multiplied by ten plus zero and one.
+     *
+     * @param bulk <code>true</code> if the property manager shall implement {@link DatastoreBulkPropertyManager}.
+     * @return The datastore session.
+     */
+    private DatastoreSession<Long, Long, ?, ?, Long, Long> createDatastoreSession(boolean bulk) {
+        Class<?>[] interfaces = bulk ? new Class<?>[]{DatastorePropertyManager.class, DatastoreBulkPropertyManager.class} : new Class<?>[]{DatastorePropertyManager.class};
+        final Object datastorePropertyManager = Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                invocations.add(method.getName());
+                arguments.add(args);
+                switch (method.getName()) {
+                    case "getAllProperties":
+                        List<Object[]> values = new ArrayList<>();
+                        for (Long entity : (List<Long>) args[0]) {
+                            values.add(getValues(entity, (List<AbstractPropertyMethodMetadata<?>>) args[1]));
+                        }
+                        return values;
+                    case "getProperties":
+                        return getValues((Long) args[0], (List<AbstractPropertyMethodMetadata<?>>) args[1]);
+                    case "getRelationsBulk":
+                        List<Iterable<Long>> relations = new ArrayList<>();
+                        for (Long entity : (List<Long>) args[0]) {
+                            relations.add(getRelations(entity));
+                        }
+                        return relations;
+                    case "getRelations":
+                        return getRelations((Long) args[0]);
+                    case "getProperty":
+                    case "getPropertyOrNull":
+                        return getValue((Long) args[0], (AbstractPropertyMethodMetadata<?>) args[1]);
+                    case "hasProperty":
+                        return true;
+                    default:
+                        return null;
+                }
+            }
+        });
+        return (DatastoreSession<Long, Long, ?, ?, Long, Long>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DatastoreSession.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                switch (method.getName()) {
+                    case "getId":
+                        return args[0];
+                    case "getDatastorePropertyManager":
+                        return datastorePropertyManager;
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        });
+    }
+
+    private Object[] getValues(Long entity, List<AbstractPropertyMethodMetadata<?>> properties) {
+        Object[] values = new Object[properties.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = getValue(entity, properties.get(i));
+        }
+        return values;
+    }
+
+    private Object getValue(Long entity, AbstractPropertyMethodMetadata<?> metadata) {
+        return metadata.getAnnotatedMethod().getName() + entity;
+    }
+
+    private Iterable<Long> getRelations(Long entity) {
+        return Arrays.asList(entity * 10, entity * 10 + 1);
+    }
+}
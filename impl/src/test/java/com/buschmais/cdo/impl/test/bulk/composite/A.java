@@ -0,0 +1,13 @@
+package com.buschmais.cdo.impl.test.bulk.composite;
+
+public interface A {
+
+    String getName();
+
+    void setName(String name);
+
+    String getValue();
+
+    void setValue(String value);
+
+}
@@ -0,0 +1,51 @@
+package com.buschmais.cdo.impl.test.cache;
+
+import com.buschmais.cdo.impl.cache.LongIdentityMap;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class LongIdentityMapTest {
+
+    @Test
+    public void putGetRemove() {
+        LongIdentityMap<String> map = new LongIdentityMap<>();
+        assertThat(map.put(0, "zero"), nullValue());
+        assertThat(map.put(-1, "minus one"), nullValue());
+        assertThat(map.put(Long.MAX_VALUE, "max"), nullValue());
+        assertThat(map.put(0, "0"), equalTo("zero"));
+        assertThat(map.size(), equalTo(3));
+        assertThat(map.get(0), equalTo("0"));
+        assertThat(map.get(Long.valueOf(-1)), equalTo("minus one"));
+        assertThat(map.get(1), nullValue());
+        assertThat(map.remove(Long.MAX_VALUE), equalTo("max"));
+        assertThat(map.remove(Long.MAX_VALUE), nullValue());
+        assertThat(map.values(), containsInAnyOrder("0", "minus one"));
+        map.clear();
+        assertThat(map.size(), equalTo(0));
+        assertThat(map.get(0), nullValue());
+    }
+
+    @Test
+    public void randomOperations() {
+        LongIdentityMap<Long> map = new LongIdentityMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            long key = random.nextInt(2000) * 1024L;
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key), equalTo(expected.remove(key)));
+            } else {
+                assertThat(map.put(key, Long.valueOf(i)), equalTo(expected.put(key, Long.valueOf(i))));
+            }
+        }
+        assertThat(map.size(), equalTo(expected.size()));
+        assertThat((Map<Long, Long>) map, equalTo(expected));
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertThat(map.get(entry.getKey().longValue()), equalTo(entry.getValue()));
+        }
+    }
+}
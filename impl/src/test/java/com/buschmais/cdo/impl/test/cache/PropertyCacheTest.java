@@ -0,0 +1,49 @@
+package com.buschmais.cdo.impl.test.cache;
+
+import com.buschmais.cdo.impl.cache.PropertyCache;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class PropertyCacheTest {
+
+    @Test
+    public void leastRecentlyUsed() {
+        PropertyCache<Long> cache = new PropertyCache<>(2, PropertyCache.Eviction.LRU);
+        cache.put(1L, "name", "a1", cache.getVersion());
+        cache.put(2L, "name", "a2", cache.getVersion());
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get(1L, "name"), equalTo((Object) "a1"));
+        }
+        assertThat(cache.get(2L, "name"), equalTo((Object) "a2"));
+        cache.put(3L, "name", "a3", cache.getVersion());
+        assertThat(cache.get(1L, "name"), equalTo(PropertyCache.NOT_CACHED));
+        assertThat(cache.get(2L, "name"), equalTo((Object) "a2"));
+        assertThat(cache.get(3L, "name"), equalTo((Object) "a3"));
+        assertThat(cache.getEvictions(), equalTo(1L));
+    }
+
+    @Test
+    public void leastFrequentlyUsed() {
+        PropertyCache<Long> cache = new PropertyCache<>(2, PropertyCache.Eviction.LFU);
+        cache.put(1L, "name", "a1", cache.getVersion());
+        cache.put(2L, "name", "a2", cache.getVersion());
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.get(1L, "name"), equalTo((Object) "a1"));
+        }
+        assertThat(cache.get(2L, "name"), equalTo((Object) "a2"));
+        cache.put(3L, "name", "a3", cache.getVersion());
+        assertThat(cache.get(1L, "name"), equalTo((Object) "a1"));
+        assertThat(cache.get(2L, "name"), equalTo(PropertyCache.NOT_CACHED));
+        assertThat(cache.get(3L, "name"), equalTo((Object) "a3"));
+        assertThat(cache.getEvictions(), equalTo(1L));
+        // Invalidated entities are removed from the eviction order.
+        cache.invalidate(Collections.singleton(1L));
+        cache.put(4L, "name", "a4", cache.getVersion());
+        assertThat(cache.size(), equalTo(2));
+        assertThat(cache.getEvictions(), equalTo(1L));
+    }
+}
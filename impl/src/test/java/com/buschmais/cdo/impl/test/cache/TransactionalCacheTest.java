@@ -0,0 +1,29 @@
+package com.buschmais.cdo.impl.test.cache;
+
+import com.buschmais.cdo.impl.cache.TransactionalCache;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class TransactionalCacheTest {
+
+    @Test
+    public void dirtyEntities() {
+        TransactionalCache<Long> cache = new TransactionalCache<>();
+        cache.put(1L, "instance1");
+        cache.put(2L, "instance2");
+        assertThat(cache.getDirtyEntities(), empty());
+        cache.markDirty(1L, "entity1");
+        cache.markDirty(3L, "entity3");
+        assertThat(cache.getDirtyEntities(), containsInAnyOrder((Object) "entity1", "entity3"));
+        assertThat(cache.isDirty(1L), equalTo(true));
+        assertThat(cache.isDirty(2L), equalTo(false));
+        cache.remove(3L);
+        assertThat(cache.getDirtyEntities(), contains((Object) "entity1"));
+        assertThat(cache.isModified(3L), equalTo(true));
+        cache.afterCompletion(true);
+        assertThat(cache.getDirtyEntities(), empty());
+        assertThat(cache.isModified(), equalTo(false));
+    }
+}
@@ -0,0 +1,59 @@
+package com.buschmais.cdo.neo4j.api;
+
+import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.neo4j.impl.datastore.CypherExecutor;
+import com.buschmais.cdo.neo4j.impl.datastore.EmbeddedNeo4jDatastore;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Base class for factories creating embedded datastores.
+ * <p>Supports the property {@link #PROPERTY_QUERY_CACHE_SIZE} which configures the size of the query plan cache of
+ * the Cypher execution engine shared by all sessions.</p>
+ */
+abstract class AbstractEmbeddedDatastoreFactory implements DatastoreFactory<EmbeddedNeo4jDatastore> {
+
+    /**
+     * The property holding the number of query plans to cache.
+     */
+    public static final String PROPERTY_QUERY_CACHE_SIZE = "cdo.neo4j.queryCacheSize";
+
+    @Override
+    public EmbeddedNeo4jDatastore createGraphDatabaseService(URI uri, Properties properties) throws MalformedURLException {
+        int queryCacheSize = getQueryCacheSize(properties);
+        GraphDatabaseBuilder builder = getGraphDatabaseBuilder(uri);
+        builder.setConfig(GraphDatabaseSettings.query_cache_size, Integer.toString(queryCacheSize));
+        GraphDatabaseService graphDatabaseService = builder.newGraphDatabase();
+        return new EmbeddedNeo4jDatastore(graphDatabaseService, queryCacheSize);
+    }
+
+    /**
+     * Return the builder for the graph database service.
+     *
+     * @param uri The URI of the datastore.
+     * @return The {@link GraphDatabaseBuilder}.
+     * @throws MalformedURLException If the URI cannot be converted.
+     */
+    protected abstract GraphDatabaseBuilder getGraphDatabaseBuilder(URI uri) throws MalformedURLException;
+
+    private int getQueryCacheSize(Properties properties) {
+        String value = properties != null ? properties.getProperty(PROPERTY_QUERY_CACHE_SIZE) : null;
+        if (value == null) {
+            return CypherExecutor.DEFAULT_QUERY_CACHE_SIZE;
+        }
+        try {
+            int queryCacheSize = Integer.parseInt(value.trim());
+            if (queryCacheSize >= 0) {
+                return queryCacheSize;
+            }
+        } catch (NumberFormatException e) {
+            throw new CdoException("Invalid value '" + value + "' for property " + PROPERTY_QUERY_CACHE_SIZE, e);
+        }
+        throw new CdoException("Invalid value '" + value + "' for property " + PROPERTY_QUERY_CACHE_SIZE);
+    }
+}
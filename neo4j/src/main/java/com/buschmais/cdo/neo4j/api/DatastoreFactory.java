@@ -4,8 +4,9 @@ import com.buschmais.cdo.spi.datastore.Datastore;
 
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.util.Properties;
 
 interface DatastoreFactory<DS extends Datastore> {
-    DS createGraphDatabaseService(URI uri) throws MalformedURLException;
+    DS createGraphDatabaseService(URI uri, Properties properties) throws MalformedURLException;
 }
 
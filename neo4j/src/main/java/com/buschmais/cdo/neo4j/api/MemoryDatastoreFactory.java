@@ -1,15 +1,14 @@
 package com.buschmais.cdo.neo4j.api;
 
-import com.buschmais.cdo.neo4j.impl.datastore.EmbeddedNeo4jDatastore;
-import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.factory.GraphDatabaseBuilder;
 import org.neo4j.test.TestGraphDatabaseFactory;
 
 import java.net.URI;
 
-public class MemoryDatastoreFactory implements DatastoreFactory<EmbeddedNeo4jDatastore> {
+public class MemoryDatastoreFactory extends AbstractEmbeddedDatastoreFactory {
 
-    @Override public EmbeddedNeo4jDatastore createGraphDatabaseService(URI uri) {
-        GraphDatabaseService graphDatabaseService = new TestGraphDatabaseFactory().newImpermanentDatabase();
-        return new EmbeddedNeo4jDatastore(graphDatabaseService);
+    @Override
+    protected GraphDatabaseBuilder getGraphDatabaseBuilder(URI uri) {
+        return new TestGraphDatabaseFactory().newImpermanentDatabaseBuilder();
     }
-}
\ No newline at end of file
+}
@@ -21,7 +21,7 @@ public class Neo4jCdoProvider implements CdoDatastoreProvider {
         DatastoreFactory datastoreFactory = lookupFactory(uri);
 
         try {
-            return datastoreFactory.createGraphDatabaseService(uri);
+            return datastoreFactory.createGraphDatabaseService(uri, cdoUnit.getProperties());
         } catch (MalformedURLException e) {
             throw new RuntimeException(e);
         }
@@ -4,10 +4,11 @@ import com.buschmais.cdo.neo4j.impl.datastore.RestNeo4jDatastore;
 
 import java.net.MalformedURLException;
 import java.net.URI;
+import java.util.Properties;
 
 class RemoteDatastoreFactory implements DatastoreFactory<RestNeo4jDatastore> {
 
-    @Override public RestNeo4jDatastore createGraphDatabaseService(URI uri) throws MalformedURLException {
+    @Override public RestNeo4jDatastore createGraphDatabaseService(URI uri, Properties properties) throws MalformedURLException {
         return new RestNeo4jDatastore(uri.toURL().toExternalForm());
     }
 }
@@ -6,6 +6,7 @@ import com.buschmais.cdo.neo4j.api.annotation.Cypher;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.NodeMetadata;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.PrimitivePropertyMetadata;
 import com.buschmais.cdo.spi.datastore.DatastorePropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastoreQueryAnalyzer;
 import com.buschmais.cdo.spi.datastore.DatastoreSession;
 import com.buschmais.cdo.spi.datastore.TypeMetadataSet;
 import com.buschmais.cdo.spi.metadata.IndexedPropertyMethodMetadata;
@@ -13,17 +14,20 @@ import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.TypeMetadata;
 import org.neo4j.graphdb.*;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
-public abstract class AbstractNeo4jDatastoreSession<GDS extends GraphDatabaseService> implements DatastoreSession<Long, Node, NodeMetadata, Label, Long, Relationship> {
+public abstract class AbstractNeo4jDatastoreSession<GDS extends GraphDatabaseService> implements DatastoreSession<Long, Node, NodeMetadata, Label, Long, Relationship>, DatastoreQueryAnalyzer<Label> {
 
     private GDS graphDatabaseService;
     private Neo4jPropertyManager propertyManager;
 
     public AbstractNeo4jDatastoreSession(GDS graphDatabaseService) {
+        this(graphDatabaseService, new Neo4jPropertyManager());
+    }
+
+    protected AbstractNeo4jDatastoreSession(GDS graphDatabaseService, Neo4jPropertyManager propertyManager) {
         this.graphDatabaseService = graphDatabaseService;
-        this.propertyManager = new Neo4jPropertyManager();
+        this.propertyManager = propertyManager;
     }
 
     @Override
@@ -92,6 +96,10 @@ public abstract class AbstractNeo4jDatastoreSession<GDS extends GraphDatabaseSer
     public void flush(Node node) {
     }
 
+    @Override
+    public void close() {
+    }
+
     protected <QL> String getCypher(QL expression) {
         if (expression instanceof String) {
             return (String) expression;
@@ -106,12 +114,58 @@ public abstract class AbstractNeo4jDatastoreSession<GDS extends GraphDatabaseSer
         throw new CdoException("Unsupported query expression " + expression);
     }
 
+    /**
+     * Return the labels of a node.
+     * <p>The labels of a node are distinct, the returned set is a read-only view of the label collection provided by
+     * the node which is only copied if the node does not provide a collection.</p>
+     */
     @Override
     public Set<Label> getDiscriminators(Node node) {
-        Set<Label> labels = new HashSet<>();
-        for (Label label : node.getLabels()) {
-            labels.add(label);
+        Iterable<Label> labels = node.getLabels();
+        if (labels instanceof Collection) {
+            return new LabelSet((Collection<Label>) labels);
+        }
+        List<Label> labelList = new ArrayList<>();
+        for (Label label : labels) {
+            labelList.add(label);
+        }
+        return new LabelSet(labelList);
+    }
+
+    @Override
+    public <QL> Set<Label> getQueryDiscriminators(QL query) {
+        return CypherLabelScanner.getLabels(getCypher(query));
+    }
+
+    @Override
+    public <QL> boolean isReadOnly(QL query) {
+        return CypherLabelScanner.isReadOnly(getCypher(query));
+    }
+
+    /**
+     * A read-only set backed by a collection of distinct labels.
+     */
+    private static final class LabelSet extends AbstractSet<Label> {
+
+        private final Collection<Label> labels;
+
+        private LabelSet(Collection<Label> labels) {
+            this.labels = labels;
+        }
+
+        @Override
+        public Iterator<Label> iterator() {
+            return Collections.unmodifiableCollection(labels).iterator();
+        }
+
+        @Override
+        public int size() {
+            return labels.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return labels.contains(o);
         }
-        return labels;
     }
 }
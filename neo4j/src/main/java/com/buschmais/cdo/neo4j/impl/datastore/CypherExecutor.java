@@ -0,0 +1,81 @@
+package com.buschmais.cdo.neo4j.impl.datastore;
+
+import org.neo4j.cypher.javacompat.ExecutionEngine;
+import org.neo4j.cypher.javacompat.ExecutionResult;
+import org.neo4j.graphdb.GraphDatabaseService;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executes Cypher queries using a single {@link ExecutionEngine} which is shared by all sessions of an
+ * {@link EmbeddedNeo4jDatastore}.
+ * <p>The execution engine is thread safe and caches query plans by query text up to the configured query cache size.
+ * As it does not expose statistics about its plan cache the query texts are mirrored in a LRU structure of the same
+ * size to provide hit and miss counters, these are an approximation as the engine also drops plans on schema
+ * changes.</p>
+ */
+public class CypherExecutor {
+
+    /**
+     * The default size of the query plan cache of Neo4j.
+     */
+    public static final int DEFAULT_QUERY_CACHE_SIZE = 100;
+
+    private final ExecutionEngine executionEngine;
+
+    private final Map<String, Boolean> queries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    public CypherExecutor(GraphDatabaseService graphDatabaseService, final int queryCacheSize) {
+        this.executionEngine = new ExecutionEngine(graphDatabaseService);
+        this.queries = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > queryCacheSize;
+            }
+        };
+    }
+
+    /**
+     * Execute a query.
+     *
+     * @param query      The query.
+     * @param parameters The parameters.
+     * @return The result.
+     */
+    public ExecutionResult execute(String query, Map<String, Object> parameters) {
+        boolean cached;
+        synchronized (queries) {
+            cached = queries.put(query, Boolean.TRUE) != null;
+        }
+        if (cached) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+        return executionEngine.execute(query, parameters);
+    }
+
+    /**
+     * Return the number of queries which have been executed using a cached plan.
+     *
+     * @return The number of plan cache hits.
+     */
+    public long getPlanCacheHits() {
+        return hits.get();
+    }
+
+    /**
+     * Return the number of queries which required a plan to be built.
+     *
+     * @return The number of plan cache misses.
+     */
+    public long getPlanCacheMisses() {
+        return misses.get();
+    }
+}
@@ -0,0 +1,194 @@
+package com.buschmais.cdo.neo4j.impl.datastore;
+
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.Label;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Determines the labels of all nodes which may be read by a Cypher query.
+ * <p>The scan is conservative: every node pattern of the query must declare at least one label, otherwise the query
+ * is considered to read nodes with any label. The same applies to queries using <code>START</code> and relationship
+ * patterns which are not enclosed by node patterns. Function calls (e.g. <code>count(...)</code>) and string literals
+ * are skipped, parenthesized expressions which are not node patterns make the result unknown.</p>
+ * <p>A query is considered to be read-only if it does not contain any updating clause outside of string literals.</p>
+ */
+class CypherLabelScanner {
+
+    private static final Set<String> UPDATING_CLAUSES = new HashSet<>(Arrays.asList("CREATE", "MERGE", "SET", "DELETE", "REMOVE", "FOREACH"));
+
+    private final String cypher;
+
+    private int position = 0;
+
+    private CypherLabelScanner(String cypher) {
+        this.cypher = cypher;
+    }
+
+    /**
+     * Scan a query.
+     *
+     * @param cypher The Cypher query.
+     * @return The labels or <code>null</code> if the labels cannot be determined.
+     */
+    static Set<Label> getLabels(String cypher) {
+        return new CypherLabelScanner(cypher).scan();
+    }
+
+    /**
+     * Determine if a query only reads the graph.
+     *
+     * @param cypher The Cypher query.
+     * @return <code>true</code> if the query does not contain an updating clause.
+     */
+    static boolean isReadOnly(String cypher) {
+        return new CypherLabelScanner(cypher).scanReadOnly();
+    }
+
+    private boolean scanReadOnly() {
+        while (position < cypher.length()) {
+            char c = cypher.charAt(position);
+            if (c == '\'' || c == '"' || c == '`') {
+                skipQuoted(c);
+            } else if (isIdentifierPart(c)) {
+                if (UPDATING_CLAUSES.contains(readIdentifier().toUpperCase())) {
+                    return false;
+                }
+            } else {
+                position++;
+            }
+        }
+        return true;
+    }
+
+    private Set<Label> scan() {
+        Set<Label> labels = new HashSet<>();
+        while (position < cypher.length()) {
+            char c = cypher.charAt(position);
+            if (c == '\'' || c == '"' || c == '`') {
+                skipQuoted(c);
+            } else if (c == '-' || (c == '<' && position + 1 < cypher.length() && cypher.charAt(position + 1) == '-')) {
+                if (!scanRelationshipPattern()) {
+                    return null;
+                }
+            } else if (isIdentifierPart(c)) {
+                String identifier = readIdentifier();
+                if ("START".equalsIgnoreCase(identifier)) {
+                    return null;
+                }
+            } else if (c == '(') {
+                int start = position;
+                position++;
+                if (start > 0 && isIdentifierPart(cypher.charAt(start - 1))) {
+                    // function call, e.g. node({id}) or count(n)
+                    continue;
+                }
+                if (!scanNodePattern(labels)) {
+                    return null;
+                }
+            } else {
+                position++;
+            }
+        }
+        return labels.isEmpty() ? null : labels;
+    }
+
+    /**
+     * Scan a node pattern starting after its opening parenthesis, i.e. <code>(n:Label1:Label2 {...})</code>.
+     *
+     * @param labels The labels to add to.
+     * @return <code>true</code> if the pattern declares at least one label.
+     */
+    private boolean scanNodePattern(Set<Label> labels) {
+        skipWhitespace();
+        readIdentifier();
+        skipWhitespace();
+        boolean labelled = false;
+        while (position < cypher.length() && cypher.charAt(position) == ':') {
+            position++;
+            skipWhitespace();
+            String label = readIdentifier();
+            if (label == null) {
+                return false;
+            }
+            labels.add(DynamicLabel.label(label));
+            labelled = true;
+            skipWhitespace();
+        }
+        return labelled;
+    }
+
+    /**
+     * Scan a relationship pattern, i.e. <code>)-[r:TYPE]-&gt;(</code>.
+     *
+     * @return <code>true</code> if the pattern connects two node patterns.
+     */
+    private boolean scanRelationshipPattern() {
+        int previous = position - 1;
+        while (previous >= 0 && Character.isWhitespace(cypher.charAt(previous))) {
+            previous--;
+        }
+        if (previous < 0 || cypher.charAt(previous) != ')') {
+            return false;
+        }
+        while (position < cypher.length()) {
+            char c = cypher.charAt(position);
+            if (c == '[') {
+                int end = cypher.indexOf(']', position);
+                if (end < 0) {
+                    return false;
+                }
+                position = end + 1;
+            } else if (c == '-' || c == '<' || c == '>' || Character.isWhitespace(c)) {
+                position++;
+            } else {
+                return c == '(';
+            }
+        }
+        return false;
+    }
+
+    private String readIdentifier() {
+        if (position >= cypher.length()) {
+            return null;
+        }
+        if (cypher.charAt(position) == '`') {
+            int end = cypher.indexOf('`', position + 1);
+            if (end < 0) {
+                return null;
+            }
+            String identifier = cypher.substring(position + 1, end);
+            position = end + 1;
+            return identifier;
+        }
+        int start = position;
+        while (position < cypher.length() && isIdentifierPart(cypher.charAt(position))) {
+            position++;
+        }
+        return position > start ? cypher.substring(start, position) : null;
+    }
+
+    private void skipQuoted(char quote) {
+        position++;
+        while (position < cypher.length()) {
+            char c = cypher.charAt(position++);
+            if (c == '\\') {
+                position++;
+            } else if (c == quote) {
+                return;
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < cypher.length() && Character.isWhitespace(cypher.charAt(position))) {
+            position++;
+        }
+    }
+
+    private static boolean isIdentifierPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+}
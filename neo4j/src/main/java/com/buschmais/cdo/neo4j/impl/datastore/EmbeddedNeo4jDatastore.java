@@ -3,33 +3,82 @@ package com.buschmais.cdo.neo4j.impl.datastore;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.IndexedPropertyMetadata;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.NodeMetadata;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.PrimitivePropertyMetadata;
+import com.buschmais.cdo.spi.datastore.DatastoreQueryPlanStatistics;
 import com.buschmais.cdo.spi.metadata.IndexedPropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.TypeMetadata;
+import org.neo4j.graphdb.DependencyResolver;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
 import org.neo4j.graphdb.Transaction;
 import org.neo4j.graphdb.schema.ConstraintDefinition;
 import org.neo4j.graphdb.schema.ConstraintType;
 import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.kernel.GraphDatabaseAPI;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collection;
 
-public class EmbeddedNeo4jDatastore extends AbstractNeo4jDatastore<EmbeddedNeo4jDatastoreSession> {
+public class EmbeddedNeo4jDatastore extends AbstractNeo4jDatastore<EmbeddedNeo4jDatastoreSession> implements DatastoreQueryPlanStatistics {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedNeo4jDatastore.class);
 
     private final GraphDatabaseService graphDatabaseService;
 
+    private final CypherExecutor cypherExecutor;
+
+    private final Neo4jPropertyManager propertyManager;
+
     public EmbeddedNeo4jDatastore(GraphDatabaseService graphDatabaseService) {
+        this(graphDatabaseService, CypherExecutor.DEFAULT_QUERY_CACHE_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graphDatabaseService The graph database service.
+     * @param queryCacheSize       The query cache size the graph database service has been configured with.
+     */
+    public EmbeddedNeo4jDatastore(GraphDatabaseService graphDatabaseService, int queryCacheSize) {
         this.graphDatabaseService = graphDatabaseService;
+        this.cypherExecutor = new CypherExecutor(graphDatabaseService, queryCacheSize);
+        this.propertyManager = createPropertyManager(graphDatabaseService);
     }
 
     @Override
     public EmbeddedNeo4jDatastoreSession createSession() {
-        return new EmbeddedNeo4jDatastoreSession(graphDatabaseService);
+        return new EmbeddedNeo4jDatastoreSession(graphDatabaseService, cypherExecutor, propertyManager);
+    }
+
+    /**
+     * Create the property manager shared by all sessions, properties are read using the kernel API if the graph
+     * database service provides it.
+     *
+     * @param graphDatabaseService The graph database service.
+     * @return The property manager.
+     */
+    private static Neo4jPropertyManager createPropertyManager(GraphDatabaseService graphDatabaseService) {
+        if (graphDatabaseService instanceof GraphDatabaseAPI) {
+            DependencyResolver dependencyResolver = ((GraphDatabaseAPI) graphDatabaseService).getDependencyResolver();
+            return new EmbeddedNeo4jPropertyManager(dependencyResolver.resolveDependency(ThreadToStatementContextBridge.class));
+        }
+        return new Neo4jPropertyManager();
+    }
+
+    public CypherExecutor getCypherExecutor() {
+        return cypherExecutor;
+    }
+
+    @Override
+    public long getQueryPlanCacheHits() {
+        return cypherExecutor.getPlanCacheHits();
+    }
+
+    @Override
+    public long getQueryPlanCacheMisses() {
+        return cypherExecutor.getPlanCacheMisses();
     }
 
     @Override
@@ -3,7 +3,6 @@ package com.buschmais.cdo.neo4j.impl.datastore;
 import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.ResultIterator;
 import com.buschmais.cdo.spi.datastore.DatastoreTransaction;
-import org.neo4j.cypher.javacompat.ExecutionEngine;
 import org.neo4j.cypher.javacompat.ExecutionResult;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Transaction;
@@ -48,13 +47,24 @@ public class EmbeddedNeo4jDatastoreSession extends AbstractNeo4jDatastoreSession
     }
 
     private final DatastoreTransaction datastoreTransaction;
-    private final ExecutionEngine executionEngine;
+    private final CypherExecutor cypherExecutor;
 
 
-    public EmbeddedNeo4jDatastoreSession(GraphDatabaseService graphDatabaseService) {
-        super(graphDatabaseService);
+    public EmbeddedNeo4jDatastoreSession(GraphDatabaseService graphDatabaseService, CypherExecutor cypherExecutor) {
+        this(graphDatabaseService, cypherExecutor, new Neo4jPropertyManager());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param graphDatabaseService The graph database service.
+     * @param cypherExecutor       The Cypher executor shared by all sessions of the datastore.
+     * @param propertyManager      The property manager.
+     */
+    EmbeddedNeo4jDatastoreSession(GraphDatabaseService graphDatabaseService, CypherExecutor cypherExecutor, Neo4jPropertyManager propertyManager) {
+        super(graphDatabaseService, propertyManager);
         datastoreTransaction = new EmbeddedNeo4jDatastoreTransaction();
-        executionEngine = new ExecutionEngine(graphDatabaseService);
+        this.cypherExecutor = cypherExecutor;
     }
 
     @Override
@@ -62,9 +72,25 @@ public class EmbeddedNeo4jDatastoreSession extends AbstractNeo4jDatastoreSession
         return datastoreTransaction;
     }
 
+    @Override
+    public void close() {
+        if (datastoreTransaction.isActive()) {
+            datastoreTransaction.rollback();
+        }
+    }
+
     @Override
     public <QL> ResultIterator<Map<String, Object>> execute(QL expression, Map<String, Object> parameters) {
-        ExecutionResult executionResult = executionEngine.execute(getCypher(expression), parameters);
+        ExecutionResult executionResult = cypherExecutor.execute(getCypher(expression), parameters);
         return new ResourceResultIterator(executionResult.iterator());
     }
+
+    /**
+     * Return the Cypher executor shared by all sessions of the datastore.
+     *
+     * @return The {@link CypherExecutor}.
+     */
+    public CypherExecutor getCypherExecutor() {
+        return cypherExecutor;
+    }
 }
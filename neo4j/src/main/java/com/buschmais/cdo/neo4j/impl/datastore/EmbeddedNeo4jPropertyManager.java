@@ -0,0 +1,105 @@
+package com.buschmais.cdo.neo4j.impl.datastore;
+
+import com.buschmais.cdo.neo4j.impl.datastore.metadata.EnumPropertyMetadata;
+import com.buschmais.cdo.neo4j.impl.datastore.metadata.PrimitivePropertyMetadata;
+import com.buschmais.cdo.spi.metadata.AbstractPropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.NotFoundException;
+import org.neo4j.kernel.api.ReadOperations;
+import org.neo4j.kernel.api.Statement;
+import org.neo4j.kernel.api.exceptions.EntityNotFoundException;
+import org.neo4j.kernel.api.properties.DefinedProperty;
+import org.neo4j.kernel.impl.core.ThreadToStatementContextBridge;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Property manager for embedded graph databases which reads primitive properties through the kernel statement API.
+ * <p>The property key token of a property is resolved once and kept in its metadata, reads are performed using the
+ * token id, i.e. without resolving the name of the property key on every access. A token which does not exist yet
+ * (i.e. no node has ever been written with this property) is resolved again on the next access.</p>
+ */
+class EmbeddedNeo4jPropertyManager extends Neo4jPropertyManager {
+
+    private final ThreadToStatementContextBridge statementContextBridge;
+
+    EmbeddedNeo4jPropertyManager(ThreadToStatementContextBridge statementContextBridge) {
+        this.statementContextBridge = statementContextBridge;
+    }
+
+    @Override
+    public boolean hasProperty(Node node, PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata> metadata) {
+        return getPropertyOrNull(node, metadata) != null;
+    }
+
+    @Override
+    public Object getPropertyOrNull(Node node, PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata> metadata) {
+        try (Statement statement = statementContextBridge.instance()) {
+            ReadOperations readOperations = statement.readOperations();
+            int propertyKeyId = getPropertyKeyId(readOperations, metadata.getDatastoreMetadata());
+            if (propertyKeyId == PrimitivePropertyMetadata.UNRESOLVED) {
+                return null;
+            }
+            return readOperations.nodeGetProperty(node.getId(), propertyKeyId).value(null);
+        } catch (EntityNotFoundException e) {
+            throw new NotFoundException(e);
+        }
+    }
+
+    /**
+     * Return the values of properties reading all properties of the node at once.
+     */
+    @Override
+    public Object[] getProperties(Node node, List<AbstractPropertyMethodMetadata<?>> properties) {
+        try (Statement statement = statementContextBridge.instance()) {
+            ReadOperations readOperations = statement.readOperations();
+            Map<Integer, Object> valuesByPropertyKeyId = new HashMap<>();
+            for (Iterator<DefinedProperty> iterator = readOperations.nodeGetAllProperties(node.getId()); iterator.hasNext(); ) {
+                DefinedProperty property = iterator.next();
+                valuesByPropertyKeyId.put(property.propertyKeyId(), property.value());
+            }
+            Object[] values = new Object[properties.size()];
+            List<Label> labels = null;
+            for (int i = 0; i < values.length; i++) {
+                AbstractPropertyMethodMetadata<?> metadata = properties.get(i);
+                if (metadata instanceof EnumPropertyMethodMetadata) {
+                    if (labels == null) {
+                        labels = getLabels(node);
+                    }
+                    values[i] = getEnumProperty(labels, ((EnumPropertyMethodMetadata<EnumPropertyMetadata>) metadata).getDatastoreMetadata());
+                } else {
+                    PrimitivePropertyMetadata propertyMetadata = ((PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata>) metadata).getDatastoreMetadata();
+                    values[i] = valuesByPropertyKeyId.get(getPropertyKeyId(readOperations, propertyMetadata));
+                }
+            }
+            return values;
+        } catch (EntityNotFoundException e) {
+            throw new NotFoundException(e);
+        }
+    }
+
+    /**
+     * Return the id of the property key token of a property.
+     *
+     * @param readOperations The read operations.
+     * @param metadata       The property metadata.
+     * @return The id or {@link PrimitivePropertyMetadata#UNRESOLVED} if the token does not exist yet.
+     */
+    private int getPropertyKeyId(ReadOperations readOperations, PrimitivePropertyMetadata metadata) {
+        int propertyKeyId = metadata.getPropertyKeyId();
+        if (propertyKeyId == PrimitivePropertyMetadata.UNRESOLVED) {
+            propertyKeyId = readOperations.propertyKeyGetForName(metadata.getName());
+            if (propertyKeyId < 0) {
+                return PrimitivePropertyMetadata.UNRESOLVED;
+            }
+            metadata.setPropertyKeyId(propertyKeyId);
+        }
+        return propertyKeyId;
+    }
+}
@@ -16,18 +16,30 @@ import com.buschmais.cdo.spi.reflection.AnnotatedType;
 import org.apache.commons.lang.StringUtils;
 import org.neo4j.graphdb.DynamicLabel;
 import org.neo4j.graphdb.DynamicRelationshipType;
+import org.neo4j.graphdb.RelationshipType;
 
+import java.util.HashMap;
 import java.util.Map;
 
 public class Neo4jMetadataFactory implements DatastoreMetadataFactory<NodeMetadata, org.neo4j.graphdb.Label> {
 
+    /**
+     * The labels created for the metadata by their names, all metadata shares the same label instances.
+     */
+    private final Map<String, org.neo4j.graphdb.Label> labels = new HashMap<>();
+
+    /**
+     * The relationship types created for the metadata by their names.
+     */
+    private final Map<String, RelationshipType> relationshipTypes = new HashMap<>();
+
     @Override
     public NodeMetadata createEntityMetadata(AnnotatedType annotatedType, Map<Class<?>, TypeMetadata<NodeMetadata>> metadataByType) {
         Label labelAnnotation = annotatedType.getAnnotation(Label.class);
         org.neo4j.graphdb.Label label = null;
         IndexedPropertyMethodMetadata<?> indexedProperty = null;
         if (labelAnnotation != null) {
-            label = DynamicLabel.label(labelAnnotation.value());
+            label = getLabel(labelAnnotation.value());
             Class<?> usingIndexOf = labelAnnotation.usingIndexedPropertyOf();
             if (!Object.class.equals(usingIndexOf)) {
                 indexedProperty = metadataByType.get(usingIndexOf).getIndexedProperty();
@@ -62,7 +74,15 @@ public class Neo4jMetadataFactory implements DatastoreMetadataFactory<NodeMetada
     public EnumPropertyMetadata createEnumPropertyMetadata(PropertyMethod propertyMethod) {
         Property property = propertyMethod.getAnnotationOfProperty(Property.class);
         String name = property != null ? property.value() : propertyMethod.getName();
-        return new EnumPropertyMetadata(name);
+        Object[] constants = propertyMethod.getType().getEnumConstants();
+        org.neo4j.graphdb.Label[] enumerationLabels = new org.neo4j.graphdb.Label[constants.length];
+        Map<String, Enum<?>> values = new HashMap<>();
+        for (Object constant : constants) {
+            Enum<?> value = (Enum<?>) constant;
+            enumerationLabels[value.ordinal()] = getLabel(value.name());
+            values.put(value.name(), value);
+        }
+        return new EnumPropertyMetadata(name, enumerationLabels, values);
     }
 
     @Override
@@ -75,8 +95,7 @@ public class Neo4jMetadataFactory implements DatastoreMetadataFactory<NodeMetada
     public RelationshipMetadata createRelationMetadata(PropertyMethod propertyMethod) {
         Relation relation = propertyMethod.getAnnotationOfProperty(Relation.class);
         String name = relation != null ? relation.value() : StringUtils.capitalize(propertyMethod.getName());
-        DynamicRelationshipType relationshipType = DynamicRelationshipType.withName(name);
-        return new RelationshipMetadata(relationshipType);
+        return new RelationshipMetadata(getRelationshipType(name));
     }
 
     public RelationMetadata.Direction getRelationDirection(PropertyMethod propertyMethod) {
@@ -90,4 +109,22 @@ public class Neo4jMetadataFactory implements DatastoreMetadataFactory<NodeMetada
         }
         return RelationMetadata.Direction.OUTGOING;
     }
+
+    private org.neo4j.graphdb.Label getLabel(String name) {
+        org.neo4j.graphdb.Label label = labels.get(name);
+        if (label == null) {
+            label = DynamicLabel.label(name);
+            labels.put(name, label);
+        }
+        return label;
+    }
+
+    private RelationshipType getRelationshipType(String name) {
+        RelationshipType relationshipType = relationshipTypes.get(name);
+        if (relationshipType == null) {
+            relationshipType = DynamicRelationshipType.withName(name);
+            relationshipTypes.put(name, relationshipType);
+        }
+        return relationshipType;
+    }
 }
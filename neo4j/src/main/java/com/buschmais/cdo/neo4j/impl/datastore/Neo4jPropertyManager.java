@@ -4,13 +4,29 @@ import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.EnumPropertyMetadata;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.PrimitivePropertyMetadata;
 import com.buschmais.cdo.neo4j.impl.datastore.metadata.RelationshipMetadata;
+import com.buschmais.cdo.spi.datastore.DatastoreBulkPropertyManager;
 import com.buschmais.cdo.spi.datastore.DatastorePropertyManager;
+import com.buschmais.cdo.spi.datastore.DatastorePropertyReader;
+import com.buschmais.cdo.spi.datastore.DatastoreRelationCounter;
+import com.buschmais.cdo.spi.datastore.DatastoreRelationOrder;
+import com.buschmais.cdo.spi.metadata.AbstractPropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
 import com.buschmais.cdo.spi.metadata.RelationMetadata;
 import org.neo4j.graphdb.*;
 
-public class Neo4jPropertyManager implements DatastorePropertyManager<Node, Relationship, PrimitivePropertyMetadata, EnumPropertyMetadata, RelationshipMetadata> {
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public class Neo4jPropertyManager implements DatastorePropertyManager<Node, Relationship, PrimitivePropertyMetadata, EnumPropertyMetadata, RelationshipMetadata>, DatastoreRelationCounter<Node, RelationshipMetadata>, DatastoreRelationOrder<Relationship>, DatastorePropertyReader<Node, PrimitivePropertyMetadata>, DatastoreBulkPropertyManager<Node, Relationship, PrimitivePropertyMetadata, RelationshipMetadata> {
+
+    /**
+     * The name of the relationship property holding the order key of relationships mapped to ordered lists.
+     */
+    public static final String ORDER_PROPERTY = "cdo_order";
+
 
     @Override
     public boolean hasSingleRelation(Node source, RelationMetadata<RelationshipMetadata> metadata, RelationMetadata.Direction direction) {
@@ -27,6 +43,33 @@ public class Neo4jPropertyManager implements DatastorePropertyManager<Node, Rela
         return source.getRelationships(metadata.getDatastoreMetadata().getRelationshipType(), getDirection(direction));
     }
 
+    @Override
+    public long countRelations(Node source, RelationMetadata<RelationshipMetadata> metadata, RelationMetadata.Direction direction) {
+        long count = 0;
+        for (Iterator<Relationship> iterator = getRelations(source, metadata, direction).iterator(); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Determine if a relationship between two nodes exists.
+     * <p>The relationships of both nodes are walked alternately, i.e. the costs are bound by the smaller degree.</p>
+     */
+    @Override
+    public boolean hasRelation(Node source, RelationMetadata<RelationshipMetadata> metadata, RelationMetadata.Direction direction, Node target) {
+        RelationshipType relationshipType = metadata.getDatastoreMetadata().getRelationshipType();
+        Direction sourceDirection = getDirection(direction);
+        Iterator<Relationship> sourceRelationships = source.getRelationships(relationshipType, sourceDirection).iterator();
+        Iterator<Relationship> targetRelationships = target.getRelationships(relationshipType, sourceDirection.reverse()).iterator();
+        while (sourceRelationships.hasNext() && targetRelationships.hasNext()) {
+            if (sourceRelationships.next().getOtherNode(source).equals(target) || targetRelationships.next().getOtherNode(target).equals(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public Relationship createRelation(Node source, RelationMetadata<RelationshipMetadata> metadata, RelationMetadata.Direction direction, Node target) {
         switch (direction) {
@@ -45,6 +88,17 @@ public class Neo4jPropertyManager implements DatastorePropertyManager<Node, Rela
     }
 
 
+    @Override
+    public Long getOrder(Relationship relationship) {
+        Object order = relationship.getProperty(ORDER_PROPERTY, null);
+        return order != null ? ((Number) order).longValue() : null;
+    }
+
+    @Override
+    public void setOrder(Relationship relationship, long order) {
+        relationship.setProperty(ORDER_PROPERTY, order);
+    }
+
     @Override
     public Node getTarget(Relationship relationship) {
         return relationship.getEndNode();
@@ -84,31 +138,123 @@ public class Neo4jPropertyManager implements DatastorePropertyManager<Node, Rela
         node.setProperty(metadata.getDatastoreMetadata().getName(), value);
     }
 
+    @Override
+    public void setProperties(Node node, Map<PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata>, Object> values) {
+        for (Map.Entry<PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata>, Object> entry : values.entrySet()) {
+            String name = entry.getKey().getDatastoreMetadata().getName();
+            Object value = entry.getValue();
+            if (value != null) {
+                node.setProperty(name, value);
+            } else {
+                node.removeProperty(name);
+            }
+        }
+    }
+
     @Override
     public Object getProperty(Node node, PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata> metadata) {
         return node.getProperty(metadata.getDatastoreMetadata().getName());
     }
 
+    @Override
+    public Object getPropertyOrNull(Node node, PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata> metadata) {
+        return node.getProperty(metadata.getDatastoreMetadata().getName(), null);
+    }
+
+    /**
+     * Return the values of properties, the labels of the node are read once for all enumeration properties.
+     */
+    @Override
+    public Object[] getProperties(Node node, List<AbstractPropertyMethodMetadata<?>> properties) {
+        Object[] values = new Object[properties.size()];
+        List<Label> labels = null;
+        for (int i = 0; i < values.length; i++) {
+            AbstractPropertyMethodMetadata<?> metadata = properties.get(i);
+            if (metadata instanceof EnumPropertyMethodMetadata) {
+                if (labels == null) {
+                    labels = getLabels(node);
+                }
+                values[i] = getEnumProperty(labels, ((EnumPropertyMethodMetadata<EnumPropertyMetadata>) metadata).getDatastoreMetadata());
+            } else {
+                values[i] = getPropertyOrNull(node, (PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata>) metadata);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public List<Object[]> getAllProperties(List<Node> nodes, List<AbstractPropertyMethodMetadata<?>> properties) {
+        List<Object[]> values = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            values.add(getProperties(node, properties));
+        }
+        return values;
+    }
+
+    @Override
+    public void setAllProperties(Map<Node, Map<PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata>, Object>> values) {
+        for (Map.Entry<Node, Map<PrimitivePropertyMethodMetadata<PrimitivePropertyMetadata>, Object>> entry : values.entrySet()) {
+            setProperties(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public List<Iterable<Relationship>> getRelationsBulk(List<Node> sources, RelationMetadata<RelationshipMetadata> metadata, RelationMetadata.Direction direction) {
+        List<Iterable<Relationship>> relations = new ArrayList<>(sources.size());
+        for (Node source : sources) {
+            relations.add(getRelations(source, metadata, direction));
+        }
+        return relations;
+    }
+
+    /**
+     * Return the value of an enumeration property using a single pass over the labels of the node.
+     */
     @Override
     public Enum<?> getEnumProperty(Node node, EnumPropertyMethodMetadata<EnumPropertyMetadata> metadata) {
-        for (Enum<?> enumerationValue : metadata.getEnumerationType().getEnumConstants()) {
-            if (node.hasLabel(DynamicLabel.label(enumerationValue.name()))) {
-                return enumerationValue;
+        return getEnumProperty(node.getLabels(), metadata.getDatastoreMetadata());
+    }
+
+    protected Enum<?> getEnumProperty(Iterable<Label> labels, EnumPropertyMetadata enumPropertyMetadata) {
+        for (Label label : labels) {
+            Enum<?> value = enumPropertyMetadata.getValue(label);
+            if (value != null) {
+                return value;
             }
         }
         return null;
     }
 
+    protected List<Label> getLabels(Node node) {
+        List<Label> labels = new ArrayList<>();
+        for (Label label : node.getLabels()) {
+            labels.add(label);
+        }
+        return labels;
+    }
+
     @Override
     public void setEnumProperty(Node node, EnumPropertyMethodMetadata<EnumPropertyMetadata> metadata, Enum<?> value) {
-        for (Enum<?> enumerationValue : metadata.getEnumerationType().getEnumConstants()) {
-            Label label = DynamicLabel.label(enumerationValue.name());
-            if (enumerationValue.equals(value)) {
-                node.addLabel(label);
-            } else if (node.hasLabel(label)) {
-                node.removeLabel(label);
+        EnumPropertyMetadata enumPropertyMetadata = metadata.getDatastoreMetadata();
+        Label valueLabel = value != null ? enumPropertyMetadata.getLabel(value) : null;
+        boolean present = false;
+        List<Label> labelsToRemove = new ArrayList<>(1);
+        for (Label label : node.getLabels()) {
+            Enum<?> labelValue = enumPropertyMetadata.getValue(label);
+            if (labelValue != null) {
+                if (labelValue.equals(value)) {
+                    present = true;
+                } else {
+                    labelsToRemove.add(label);
+                }
             }
         }
+        for (Label label : labelsToRemove) {
+            node.removeLabel(label);
+        }
+        if (valueLabel != null && !present) {
+            node.addLabel(valueLabel);
+        }
     }
 
 }
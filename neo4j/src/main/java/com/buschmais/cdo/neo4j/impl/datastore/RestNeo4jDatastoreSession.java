@@ -2,16 +2,21 @@ package com.buschmais.cdo.neo4j.impl.datastore;
 
 import com.buschmais.cdo.api.CdoException;
 import com.buschmais.cdo.api.ResultIterator;
+import com.buschmais.cdo.spi.datastore.DatastoreDiscriminatorResolver;
 import com.buschmais.cdo.spi.datastore.DatastoreTransaction;
+import org.neo4j.graphdb.DynamicLabel;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
 import org.neo4j.rest.graphdb.RestAPI;
 import org.neo4j.rest.graphdb.RestGraphDatabase;
 import org.neo4j.rest.graphdb.query.RestCypherQueryEngine;
 import org.neo4j.rest.graphdb.util.QueryResult;
 
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 
-public class RestNeo4jDatastoreSession extends AbstractNeo4jDatastoreSession<RestGraphDatabase> {
+public class RestNeo4jDatastoreSession extends AbstractNeo4jDatastoreSession<RestGraphDatabase> implements DatastoreDiscriminatorResolver<Node, Label> {
+
+    private static final String DISCRIMINATORS_QUERY = "START n=node({ids}) RETURN id(n) AS id, labels(n) AS labels";
 
     public RestNeo4jDatastoreSession(RestGraphDatabase graphDatabaseService) {
         super(graphDatabaseService);
@@ -22,6 +27,33 @@ public class RestNeo4jDatastoreSession extends AbstractNeo4jDatastoreSession<Res
         throw new CdoException("Transactions are not supported for this datastore.");
     }
 
+    /**
+     * Read the labels of all given nodes using one Cypher query.
+     */
+    @Override
+    public List<Set<Label>> getDiscriminators(List<Node> nodes) {
+        List<Long> ids = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            ids.add(Long.valueOf(node.getId()));
+        }
+        RestCypherQueryEngine restCypherQueryEngine = new RestCypherQueryEngine(getGraphDatabaseService().getRestAPI());
+        QueryResult<Map<String, Object>> queryResult = restCypherQueryEngine.query(DISCRIMINATORS_QUERY, Collections.<String, Object>singletonMap("ids", ids));
+        Map<Long, Set<Label>> labelsById = new HashMap<>();
+        for (Map<String, Object> row : queryResult) {
+            Set<Label> labels = new HashSet<>();
+            for (Object name : (Collection<?>) row.get("labels")) {
+                labels.add(DynamicLabel.label(name.toString()));
+            }
+            labelsById.put(((Number) row.get("id")).longValue(), labels);
+        }
+        List<Set<Label>> discriminators = new ArrayList<>(nodes.size());
+        for (Long id : ids) {
+            Set<Label> labels = labelsById.get(id);
+            discriminators.add(labels != null ? labels : Collections.<Label>emptySet());
+        }
+        return discriminators;
+    }
+
     @Override
     public <QL> ResultIterator<Map<String, Object>> execute(QL expression, Map<String, Object> parameters) {
         RestAPI restAPI = getGraphDatabaseService().getRestAPI();
@@ -1,10 +1,47 @@
 package com.buschmais.cdo.neo4j.impl.datastore.metadata;
 
+import org.neo4j.graphdb.Label;
+
+import java.util.Map;
+
 public class EnumPropertyMetadata {
 
     private String propertyName;
 
-    public EnumPropertyMetadata(String propertyName) {
+    private Label[] labels;
+
+    private Map<String, Enum<?>> values;
+
+    /**
+     * Constructor.
+     *
+     * @param propertyName The name of the property.
+     * @param labels       The labels representing the enumeration constants, indexed by their ordinals.
+     * @param values       The enumeration constants by the names of their labels.
+     */
+    public EnumPropertyMetadata(String propertyName, Label[] labels, Map<String, Enum<?>> values) {
         this.propertyName = propertyName;
+        this.labels = labels;
+        this.values = values;
+    }
+
+    /**
+     * Return the label representing an enumeration constant.
+     *
+     * @param value The enumeration constant.
+     * @return The label.
+     */
+    public Label getLabel(Enum<?> value) {
+        return labels[value.ordinal()];
+    }
+
+    /**
+     * Return the enumeration constant represented by a label.
+     *
+     * @param label The label.
+     * @return The enumeration constant or <code>null</code> if the label does not represent a constant of the enumeration.
+     */
+    public Enum<?> getValue(Label label) {
+        return values.get(label.name());
     }
 }
@@ -2,8 +2,15 @@ package com.buschmais.cdo.neo4j.impl.datastore.metadata;
 
 public class PrimitivePropertyMetadata {
 
+    /**
+     * Indicates that the property key id has not been resolved yet.
+     */
+    public static final int UNRESOLVED = -1;
+
     private String name;
 
+    private volatile int propertyKeyId = UNRESOLVED;
+
     public PrimitivePropertyMetadata(String name) {
         this.name = name;
     }
@@ -11,4 +18,33 @@ public class PrimitivePropertyMetadata {
     public String getName() {
         return name;
     }
+
+    /**
+     * Return the id of the property key token as resolved by the embedded datastore.
+     *
+     * @return The id or {@link #UNRESOLVED}.
+     */
+    public int getPropertyKeyId() {
+        return propertyKeyId;
+    }
+
+    public void setPropertyKeyId(int propertyKeyId) {
+        this.propertyKeyId = propertyKeyId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrimitivePropertyMetadata)) {
+            return false;
+        }
+        return name.equals(((PrimitivePropertyMetadata) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
 }
@@ -13,4 +13,20 @@ public class RelationshipMetadata {
     public RelationshipType getRelationshipType() {
         return relationshipType;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RelationshipMetadata)) {
+            return false;
+        }
+        return relationshipType.name().equals(((RelationshipMetadata) o).relationshipType.name());
+    }
+
+    @Override
+    public int hashCode() {
+        return relationshipType.name().hashCode();
+    }
 }
@@ -16,8 +16,21 @@ public abstract class AbstractEmbeddedCdoManagerTest extends AbstractCdoManagerT
     @Override
     protected CdoManagerFactory getNeo4jCdoManagerFactory(Class<?>[] types) throws URISyntaxException {
         CdoUnit cdoUnit = new CdoUnit("embedded", "Embedded CDO unit", new URI("memory:///"), Neo4jCdoProvider.class,
-                types, ValidationMode.AUTO, getTransactionAttribute(), new Properties());
+                types, getValidationMode(), getTransactionAttribute(), getProperties());
         return Cdo.createCdoManagerFactory(cdoUnit);
     }
 
+    protected ValidationMode getValidationMode() {
+        return ValidationMode.AUTO;
+    }
+
+    /**
+     * Return the properties of the CDO unit.
+     *
+     * @return The properties.
+     */
+    protected Properties getProperties() {
+        return new Properties();
+    }
+
 }
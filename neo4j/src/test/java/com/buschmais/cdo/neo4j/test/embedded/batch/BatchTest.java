@@ -0,0 +1,39 @@
+package com.buschmais.cdo.neo4j.test.embedded.batch;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.batch.composite.A;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class BatchTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class};
+    }
+
+    @Test
+    public void createAndDeleteAll() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        List<A> instances = cdoManager.createAll(A.class, 3);
+        assertThat(instances.size(), equalTo(3));
+        for (int i = 0; i < instances.size(); i++) {
+            instances.get(i).setName("a" + i);
+        }
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(executeQuery("MATCH (a:A) RETURN count(a) AS count").<Long>getColumn("count").get(0), equalTo(3L));
+        cdoManager.deleteAll(instances.subList(0, 2));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(executeQuery("MATCH (a:A) RETURN a.name AS name").<String>getColumn("name").get(0), equalTo("a2"));
+        cdoManager.currentTransaction().commit();
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.A;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class CacheTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class};
+    }
+
+    @Override
+    protected Properties getProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("cdo.cache.maxSize", "10");
+        return properties;
+    }
+
+    @Test
+    public void boundedCache() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        List<A> instances = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            A a = cdoManager.create(A.class);
+            a.setName("a" + i);
+            instances.add(a);
+        }
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        List<A> result = executeQuery("MATCH (a:A) RETURN a").getColumn("a");
+        assertThat(result.size(), equalTo(100));
+        for (A a : result) {
+            assertThat(instances, hasItem(sameInstance(a)));
+        }
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void detach() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a");
+        cdoManager.detach(a);
+        A detached = executeQuery("MATCH (a:A) RETURN a").<A>getColumn("a").get(0);
+        assertThat(detached, not(sameInstance(a)));
+        assertThat(detached.getName(), equalTo("a"));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void clear() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a");
+        cdoManager.clear();
+        A cleared = executeQuery("MATCH (a:A) RETURN a").<A>getColumn("a").get(0);
+        assertThat(cleared, not(sameInstance(a)));
+        assertThat(cleared.getName(), equalTo("a"));
+        cdoManager.currentTransaction().commit();
+    }
+}
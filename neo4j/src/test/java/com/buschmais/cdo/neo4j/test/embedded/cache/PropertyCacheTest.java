@@ -0,0 +1,69 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.Statistics;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.B;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class PropertyCacheTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{B.class};
+    }
+
+    @Test
+    public void sharedValues() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        B b = cdoManager.create(B.class);
+        b.setName("b1");
+        cdoManager.currentTransaction().commit();
+        Statistics statistics = getCdoManagerFactory().getStatistics();
+        long hits = statistics.getPropertyCacheHits();
+        long misses = statistics.getPropertyCacheMisses();
+        assertThat(readName(), equalTo("b1"));
+        assertThat(statistics.getPropertyCacheMisses(), equalTo(misses + 1));
+        assertThat(readName(), equalTo("b1"));
+        assertThat(statistics.getPropertyCacheHits(), equalTo(hits + 1));
+        assertThat(statistics.getPropertyCacheSize(), equalTo(1));
+        long invalidations = statistics.getPropertyCacheInvalidations();
+        cdoManager.currentTransaction().begin();
+        b.setName("b2");
+        assertThat(b.getName(), equalTo("b2"));
+        cdoManager.currentTransaction().commit();
+        assertThat(statistics.getPropertyCacheInvalidations(), equalTo(invalidations + 1));
+        assertThat(readName(), equalTo("b2"));
+    }
+
+    @Test
+    public void modifiedByQuery() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        B b = cdoManager.create(B.class);
+        b.setName("b1");
+        cdoManager.currentTransaction().commit();
+        assertThat(readName(), equalTo("b1"));
+        cdoManager.currentTransaction().begin();
+        executeQuery("MATCH (b:B) SET b.name='b2'");
+        cdoManager.currentTransaction().commit();
+        assertThat(readName(), equalTo("b2"));
+    }
+
+    private String readName() {
+        CdoManager cdoManager = getCdoManagerFactory().createCdoManager();
+        try {
+            cdoManager.currentTransaction().begin();
+            B b = cdoManager.createQuery("MATCH (b:B) RETURN b").execute().getSingleResult().get("b", B.class);
+            String name = b.getName();
+            cdoManager.currentTransaction().commit();
+            return name;
+        } finally {
+            cdoManager.close();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.A;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class PropertySnapshotTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class};
+    }
+
+    @Override
+    protected Properties getProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("cdo.propertySnapshot.enabled", "true");
+        return properties;
+    }
+
+    @Test
+    public void snapshot() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        assertThat(a.getName(), equalTo(null));
+        a.setName("a1");
+        assertThat(a.getName(), equalTo("a1"));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo("a1"));
+        // Writes of queries are not tracked, the snapshots are discarded.
+        cdoManager.createQuery("MATCH (a:A) SET a.name='a2'").execute();
+        assertThat(a.getName(), equalTo("a2"));
+        // Writes through the instance are applied to the snapshot.
+        a.setName("a3");
+        assertThat(a.getName(), equalTo("a3"));
+        a.setName(null);
+        assertThat(a.getName(), equalTo(null));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo(null));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void rollback() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a1");
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        a.setName("a2");
+        assertThat(a.getName(), equalTo("a2"));
+        cdoManager.currentTransaction().rollback();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo("a1"));
+        cdoManager.currentTransaction().commit();
+    }
+}
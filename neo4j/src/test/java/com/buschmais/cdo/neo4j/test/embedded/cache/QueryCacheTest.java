@@ -0,0 +1,83 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.Query;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.A;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.B;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.Status;
+import org.junit.Test;
+
+import static com.buschmais.cdo.api.Query.Result.CompositeRowObject;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class QueryCacheTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class, B.class};
+    }
+
+    @Test
+    public void invalidation() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a1");
+        assertThat(countA(), equalTo(1));
+        // Writes of queries are not tracked, all cached results are invalidated.
+        cdoManager.createQuery("CREATE (a:A {name:'a2'})").execute();
+        assertThat(countA(), equalTo(2));
+        // Modifications of entities with other labels keep the cached result.
+        B b = cdoManager.create(B.class);
+        b.setName("b1");
+        assertThat(countA(), equalTo(2));
+        // Modifications of entities with the label invalidate the cached result.
+        a.setName("a3");
+        assertThat(countA(), equalTo(2));
+        cdoManager.create(A.class);
+        assertThat(countA(), equalTo(3));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void transactionScope() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        cdoManager.create(A.class);
+        assertThat(countA(), equalTo(1));
+        cdoManager.createQuery("CREATE (a:A {name:'a2'})").execute();
+        assertThat(countA(), equalTo(2));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(countA(), equalTo(2));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void removedLabel() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setStatus(Status.ACTIVE);
+        assertThat(count("MATCH (a:ACTIVE) RETURN a"), equalTo(1));
+        // The entity loses the label the cached result depends on.
+        a.setStatus(Status.INACTIVE);
+        assertThat(count("MATCH (a:ACTIVE) RETURN a"), equalTo(0));
+        cdoManager.currentTransaction().commit();
+    }
+
+    private int countA() {
+        return count("MATCH (a:A) RETURN a");
+    }
+
+    private int count(String query) {
+        Query.Result<CompositeRowObject> result = getCdoManager().createQuery(query).cacheable().execute();
+        int count = 0;
+        for (CompositeRowObject row : result) {
+            count++;
+        }
+        return count;
+    }
+}
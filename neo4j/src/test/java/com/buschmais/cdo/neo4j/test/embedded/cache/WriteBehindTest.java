@@ -0,0 +1,85 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.CompositeObject;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.A;
+import com.buschmais.cdo.neo4j.test.embedded.cache.composite.B;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.Assert.assertThat;
+
+public class WriteBehindTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class, B.class};
+    }
+
+    @Override
+    protected Properties getProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("cdo.writeBehind.enabled", "true");
+        return properties;
+    }
+
+    @Test
+    public void writeBehind() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a1");
+        assertThat(a.getName(), equalTo("a1"));
+        // Buffered values are written before a query is executed.
+        assertThat(executeQuery("MATCH (a:A) RETURN a.name AS name").<String>getColumn("name"), hasItem("a1"));
+        a.setName("a2");
+        assertThat(a.getName(), equalTo("a2"));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo("a2"));
+        a.setName(null);
+        assertThat(a.getName(), equalTo(null));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo(null));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void rollback() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a1");
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        a.setName("a2");
+        assertThat(a.getName(), equalTo("a2"));
+        cdoManager.currentTransaction().rollback();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo("a1"));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void sharedProperty() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        CompositeObject composite = cdoManager.create(A.class, B.class);
+        A a = composite.as(A.class);
+        B b = composite.as(B.class);
+        a.setName("a");
+        b.setName("b");
+        assertThat(a.getName(), equalTo("b"));
+        a.setName("c");
+        assertThat(b.getName(), equalTo("c"));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(executeQuery("MATCH (a:A:B) RETURN a.name AS name").<String>getColumn("name"), hasItem("c"));
+        cdoManager.currentTransaction().commit();
+    }
+}
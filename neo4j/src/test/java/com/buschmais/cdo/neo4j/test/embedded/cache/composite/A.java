@@ -0,0 +1,16 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache.composite;
+
+import com.buschmais.cdo.neo4j.api.annotation.Label;
+
+@Label("A")
+public interface A {
+
+    String getName();
+
+    void setName(String name);
+
+    Status getStatus();
+
+    void setStatus(Status status);
+
+}
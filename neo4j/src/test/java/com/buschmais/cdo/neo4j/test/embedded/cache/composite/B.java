@@ -0,0 +1,14 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache.composite;
+
+import com.buschmais.cdo.api.annotation.Cacheable;
+import com.buschmais.cdo.neo4j.api.annotation.Label;
+
+@Label("B")
+@Cacheable
+public interface B {
+
+    String getName();
+
+    void setName(String name);
+
+}
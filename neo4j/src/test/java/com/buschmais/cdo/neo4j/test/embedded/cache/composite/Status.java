@@ -0,0 +1,6 @@
+package com.buschmais.cdo.neo4j.test.embedded.cache.composite;
+
+public enum Status {
+    ACTIVE,
+    INACTIVE;
+}
@@ -1,14 +1,23 @@
 package com.buschmais.cdo.neo4j.test.embedded.mapping;
 
 import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.impl.InstanceManager;
 import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
 import com.buschmais.cdo.neo4j.test.embedded.mapping.composite.A;
 import com.buschmais.cdo.neo4j.test.embedded.mapping.composite.B;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.core.IsCollectionContaining.hasItem;
 import static org.junit.Assert.assertThat;
@@ -37,6 +46,31 @@ public class CollectionPropertyMappingTest extends AbstractEmbeddedCdoManagerTes
         cdoManager.currentTransaction().commit();
     }
 
+    @Test
+    public void containsAndSize() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        Set<B> setOfB = a.getSetOfB();
+        assertThat(setOfB.contains(b1), equalTo(false));
+        assertThat(setOfB.size(), equalTo(0));
+        setOfB.add(b1);
+        a.getMappedSetOfB().add(b2);
+        assertThat(setOfB.contains(b1), equalTo(true));
+        assertThat(setOfB.contains(b2), equalTo(false));
+        assertThat(setOfB.contains(a), equalTo(false));
+        assertThat(setOfB.size(), equalTo(1));
+        List<B> listOfB = a.getListOfB();
+        listOfB.add(b2);
+        listOfB.add(b2);
+        assertThat(listOfB.contains(b2), equalTo(true));
+        assertThat(listOfB.contains(b1), equalTo(false));
+        assertThat(listOfB.size(), equalTo(2));
+        cdoManager.currentTransaction().commit();
+    }
+
     @Test
     public void mappedSetProperty() {
         CdoManager cdoManager = getCdoManager();
@@ -70,6 +104,30 @@ public class CollectionPropertyMappingTest extends AbstractEmbeddedCdoManagerTes
         cdoManager.currentTransaction().commit();
     }
 
+    @Test
+    public void listPropertyExceedingBatchSize() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        int size = 2 * InstanceManager.BATCH_SIZE + 1;
+        for (int i = 0; i < size; i++) {
+            a.getListOfB().add(cdoManager.create(B.class));
+        }
+        cdoManager.currentTransaction().commit();
+        closeCdoManager();
+        cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        List<A> result = executeQuery("match (a:A) return a").getColumn("a");
+        assertThat(result.size(), equalTo(1));
+        List<B> listOfB = result.get(0).getListOfB();
+        assertThat(listOfB.size(), equalTo(size));
+        Set<B> distinctB = new HashSet<>(listOfB);
+        assertThat(distinctB.size(), equalTo(size));
+        List<B> allB = executeQuery("match (b:B) return b").getColumn("b");
+        assertThat(new HashSet<>(allB), equalTo(distinctB));
+        cdoManager.currentTransaction().commit();
+    }
+
     @Test
     public void mappedListProperty() {
         CdoManager cdoManager = getCdoManager();
@@ -85,4 +143,154 @@ public class CollectionPropertyMappingTest extends AbstractEmbeddedCdoManagerTes
         assertThat(result.getColumn("b"), hasItem(b));
         cdoManager.currentTransaction().commit();
     }
+
+    @Test
+    public void replaceSetProperty() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        B b3 = cdoManager.create(B.class);
+        a.setSetOfB(new HashSet<>(Arrays.asList(b1, b2)));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        Long relationId = getRelationId(b2);
+        a.setSetOfB(new HashSet<>(Arrays.asList(b2, b3)));
+        assertThat(a.getSetOfB(), equalTo((Set<B>) new HashSet<>(Arrays.asList(b2, b3))));
+        assertThat(getRelationId(b2), equalTo(relationId));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void replaceListProperty() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        a.setListOfB(Arrays.asList(b1, b2, b1));
+        assertThat(a.getListOfB(), containsInAnyOrder(b1, b2, b1));
+        a.setListOfB(Arrays.asList(b2, b2, b1));
+        assertThat(a.getListOfB(), containsInAnyOrder(b2, b2, b1));
+        a.setListOfB(new ArrayList<>(a.getListOfB()));
+        assertThat(a.getListOfB(), containsInAnyOrder(b2, b2, b1));
+        a.setListOfB(Collections.<B>emptyList());
+        assertThat(a.getListOfB().size(), equalTo(0));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void replaceOrderedListProperty() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        a.setOrderedListOfB(Arrays.asList(b1, b2, b1));
+        assertThat(a.getOrderedListOfB(), equalTo(Arrays.asList(b1, b2, b1)));
+        a.setOrderedListOfB(Arrays.asList(b2, b2, b1));
+        assertThat(a.getOrderedListOfB(), equalTo(Arrays.asList(b2, b2, b1)));
+        a.setOrderedListOfB(new ArrayList<>(a.getOrderedListOfB()));
+        assertThat(a.getOrderedListOfB(), equalTo(Arrays.asList(b2, b2, b1)));
+        a.setOrderedListOfB(Collections.<B>emptyList());
+        assertThat(a.getOrderedListOfB().size(), equalTo(0));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void positionalListAccess() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        B b3 = cdoManager.create(B.class);
+        List<B> listOfB = a.getOrderedListOfB();
+        listOfB.add(b1);
+        listOfB.add(b3);
+        listOfB.add(1, b2);
+        listOfB.add(0, b3);
+        assertThat(listOfB, equalTo(Arrays.asList(b3, b1, b2, b3)));
+        assertThat(listOfB.get(2), equalTo(b2));
+        assertThat(listOfB.indexOf(b3), equalTo(0));
+        assertThat(listOfB.subList(1, 3), equalTo(Arrays.asList(b1, b2)));
+        assertThat(listOfB.set(0, b2), equalTo(b3));
+        assertThat(listOfB.remove(1), equalTo(b1));
+        cdoManager.currentTransaction().commit();
+        closeCdoManager();
+        cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        a = executeQuery("match (a:A) return a").<A>getColumn("a").get(0);
+        assertThat(a.getOrderedListOfB(), equalTo(Arrays.asList(b2, b2, b3)));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void insertWithoutGap() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        List<B> listOfB = a.getOrderedListOfB();
+        listOfB.add(b1);
+        listOfB.add(b1);
+        for (int i = 0; i < 25; i++) {
+            listOfB.add(1, b2);
+        }
+        assertThat(listOfB.size(), equalTo(27));
+        assertThat(listOfB.get(0), equalTo(b1));
+        assertThat(listOfB.get(26), equalTo(b1));
+        assertThat(listOfB.lastIndexOf(b2), equalTo(25));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void removeByOrderedListIterator() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        List<B> listOfB = a.getOrderedListOfB();
+        listOfB.addAll(Arrays.asList(b1, b2, b1, b2));
+        for (Iterator<B> iterator = listOfB.iterator(); iterator.hasNext(); ) {
+            if (iterator.next() == b1) {
+                iterator.remove();
+            }
+        }
+        assertThat(listOfB, equalTo(Arrays.asList(b2, b2)));
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getOrderedListOfB(), equalTo(Arrays.asList(b2, b2)));
+        cdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void rollbackOrderedList() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b1 = cdoManager.create(B.class);
+        B b2 = cdoManager.create(B.class);
+        List<B> listOfB = a.getOrderedListOfB();
+        listOfB.add(b1);
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        listOfB.add(0, b2);
+        assertThat(listOfB, equalTo(Arrays.asList(b2, b1)));
+        cdoManager.currentTransaction().rollback();
+        cdoManager.currentTransaction().begin();
+        assertThat(listOfB, equalTo(Arrays.asList(b1)));
+        cdoManager.currentTransaction().commit();
+    }
+
+    private Long getRelationId(B b) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("b", b);
+        List<Long> ids = executeQuery("match (a:A)-[r]->(b) where b={b} return id(r) as id", parameters).getColumn("id");
+        assertThat(ids.size(), equalTo(1));
+        return ids.get(0);
+    }
 }
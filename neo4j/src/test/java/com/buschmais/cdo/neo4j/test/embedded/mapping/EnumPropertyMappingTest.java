@@ -29,6 +29,7 @@ public class EnumPropertyMappingTest extends AbstractEmbeddedCdoManagerTest {
         cdoManager.currentTransaction().commit();
         cdoManager.currentTransaction().begin();
         assertThat(a.getEnumerationLabel(), equalTo(Enumeration.SECOND));
+        assertThat(executeQuery("MATCH (a:A:FIRST) RETURN count(a) AS count").<Long>getColumn("count").get(0), equalTo(0L));
         a.setEnumerationLabel(null);
         cdoManager.currentTransaction().commit();
         cdoManager.currentTransaction().begin();
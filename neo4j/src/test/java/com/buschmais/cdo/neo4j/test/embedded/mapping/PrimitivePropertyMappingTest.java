@@ -21,6 +21,7 @@ public class PrimitivePropertyMappingTest extends AbstractEmbeddedCdoManagerTest
         CdoManager cdoManager = getCdoManager();
         cdoManager.currentTransaction().begin();
         A a = cdoManager.create(A.class);
+        assertThat(a.getString(), equalTo(null));
         a.setString("value");
         cdoManager.currentTransaction().commit();
         cdoManager.currentTransaction().begin();
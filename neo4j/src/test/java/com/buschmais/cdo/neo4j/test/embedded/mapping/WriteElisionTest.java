@@ -0,0 +1,65 @@
+package com.buschmais.cdo.neo4j.test.embedded.mapping;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.Statistics;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.mapping.composite.A;
+import com.buschmais.cdo.neo4j.test.embedded.mapping.composite.B;
+import com.buschmais.cdo.neo4j.test.embedded.mapping.composite.Enumeration;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class WriteElisionTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class, B.class};
+    }
+
+    @Test
+    public void unchangedValues() {
+        CdoManager cdoManager = getCdoManager();
+        Statistics statistics = getCdoManagerFactory().getStatistics();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        B b = cdoManager.create(B.class);
+        a.setString("value");
+        a.setEnumerationLabel(Enumeration.FIRST);
+        a.setEnumerationProperty(Enumeration.FIRST);
+        a.setB(b);
+        cdoManager.currentTransaction().commit();
+        long elidedWrites = statistics.getElidedWrites();
+        List<Long> relationIds = executeQueryInTransaction("MATCH (a:A)-[r]->(b:B) RETURN id(r) AS id");
+        cdoManager.currentTransaction().begin();
+        a.setString("value");
+        a.setEnumerationLabel(Enumeration.FIRST);
+        a.setEnumerationProperty(Enumeration.FIRST);
+        a.setB(b);
+        a.setMappedString(null);
+        cdoManager.currentTransaction().commit();
+        assertThat(statistics.getElidedWrites(), equalTo(elidedWrites + 5));
+        assertThat(executeQueryInTransaction("MATCH (a:A)-[r]->(b:B) RETURN id(r) AS id"), equalTo(relationIds));
+        cdoManager.currentTransaction().begin();
+        a.setString("other value");
+        a.setEnumerationLabel(Enumeration.SECOND);
+        cdoManager.currentTransaction().commit();
+        assertThat(statistics.getElidedWrites(), equalTo(elidedWrites + 5));
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getString(), equalTo("other value"));
+        assertThat(a.getEnumerationLabel(), equalTo(Enumeration.SECOND));
+        assertThat(a.getB(), equalTo(b));
+        cdoManager.currentTransaction().commit();
+    }
+
+    private List<Long> executeQueryInTransaction(String query) {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        List<Long> ids = executeQuery(query).getColumn("id");
+        cdoManager.currentTransaction().commit();
+        return ids;
+    }
+}
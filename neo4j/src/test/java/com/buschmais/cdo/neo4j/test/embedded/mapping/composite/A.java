@@ -1,5 +1,6 @@
 package com.buschmais.cdo.neo4j.test.embedded.mapping.composite;
 
+import com.buschmais.cdo.api.annotation.Ordered;
 import com.buschmais.cdo.neo4j.api.annotation.Indexed;
 import com.buschmais.cdo.neo4j.api.annotation.Label;
 import com.buschmais.cdo.neo4j.api.annotation.Property;
@@ -37,11 +38,20 @@ public interface A extends Version {
 
     Set<B> getSetOfB();
 
+    void setSetOfB(Set<B> setOfB);
+
     @Relation("MAPPED_SET_OF_B")
     Set<B> getMappedSetOfB();
 
     List<B> getListOfB();
 
+    void setListOfB(List<B> listOfB);
+
+    @Ordered
+    List<B> getOrderedListOfB();
+
+    void setOrderedListOfB(List<B> orderedListOfB);
+
     @Relation("MAPPED_LIST_OF_B")
     List<B> getMappedListOfB();
 
@@ -0,0 +1,106 @@
+package com.buschmais.cdo.neo4j.test.embedded.pool;
+
+import com.buschmais.cdo.api.CdoException;
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.api.Statistics;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.pool.composite.A;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.core.IsCollectionContaining.hasItem;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class SessionPoolTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class};
+    }
+
+    @Override
+    protected Properties getProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("cdo.sessionPool.size", "1");
+        return properties;
+    }
+
+    @Test
+    public void reuseClosedManager() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        a.setName("a");
+        cdoManager.currentTransaction().commit();
+        closeCdoManager();
+        Statistics statistics = getCdoManagerFactory().getStatistics();
+        assertThat(statistics.getSessionPoolSize(), equalTo(1));
+        long hits = statistics.getSessionPoolHits();
+        long borrowCount = statistics.getSessionBorrowCount();
+        CdoManager pooledCdoManager = getCdoManager();
+        assertThat(statistics.getSessionPoolHits(), equalTo(hits + 1));
+        assertThat(statistics.getSessionBorrowCount(), equalTo(borrowCount + 1));
+        assertThat(statistics.getSessionPoolSize(), equalTo(0));
+        pooledCdoManager.currentTransaction().begin();
+        List<String> names = executeQuery("MATCH (a:A) RETURN a.name as name").getColumn("name");
+        assertThat(names, hasItem("a"));
+        pooledCdoManager.currentTransaction().commit();
+    }
+
+    @Test
+    public void poolSizeIsBounded() {
+        CdoManager cdoManager1 = getCdoManagerFactory().createCdoManager();
+        CdoManager cdoManager2 = getCdoManagerFactory().createCdoManager();
+        cdoManager1.close();
+        cdoManager2.close();
+        assertThat(getCdoManagerFactory().getStatistics().getSessionPoolSize(), equalTo(1));
+    }
+
+    @Test
+    public void closedManagerCannotBeUsed() {
+        CdoManager cdoManager = getCdoManagerFactory().createCdoManager();
+        cdoManager.close();
+        CdoManager pooledCdoManager = getCdoManagerFactory().createCdoManager();
+        assertThat(pooledCdoManager, not(sameInstance(cdoManager)));
+        try {
+            cdoManager.currentTransaction();
+            fail("Expecting a " + CdoException.class.getName());
+        } catch (CdoException e) {
+        }
+        cdoManager.close();
+        assertThat(getCdoManagerFactory().getStatistics().getSessionPoolSize(), equalTo(0));
+        pooledCdoManager.currentTransaction().begin();
+        pooledCdoManager.create(A.class);
+        pooledCdoManager.currentTransaction().commit();
+        pooledCdoManager.close();
+    }
+
+    @Test
+    public void stateIsResetWhenPooled() {
+        CdoManager cdoManager = getCdoManagerFactory().createCdoManager();
+        final boolean[] completed = {false};
+        cdoManager.currentTransaction().registerSynchronization(new CdoTransaction.Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(boolean committed) {
+                completed[0] = true;
+            }
+        });
+        cdoManager.close();
+        CdoManager pooledCdoManager = getCdoManagerFactory().createCdoManager();
+        pooledCdoManager.currentTransaction().begin();
+        pooledCdoManager.currentTransaction().commit();
+        pooledCdoManager.close();
+        assertThat(completed[0], equalTo(false));
+    }
+}
@@ -0,0 +1,46 @@
+package com.buschmais.cdo.neo4j.test.embedded.proxy;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.impl.proxy.GeneratedProxy;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.proxy.composite.A;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+public class GeneratedProxyTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class};
+    }
+
+    @Override
+    protected Properties getProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("cdo.proxy.generated", "true");
+        return properties;
+    }
+
+    @Test
+    public void primitiveProperties() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.create(A.class);
+        assertThat(a, instanceOf(GeneratedProxy.class));
+        a.setName("a");
+        a.setCount(42);
+        a.setActive(true);
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        assertThat(a.getName(), equalTo("a"));
+        assertThat(a.getCount(), equalTo(42));
+        assertThat(a.isActive(), equalTo(true));
+        assertThat(a, equalTo(a));
+        assertThat(a.toString(), notNullValue());
+        cdoManager.currentTransaction().commit();
+    }
+}
@@ -0,0 +1,20 @@
+package com.buschmais.cdo.neo4j.test.embedded.proxy.composite;
+
+import com.buschmais.cdo.neo4j.api.annotation.Label;
+
+@Label("A")
+public interface A {
+
+    String getName();
+
+    void setName(String name);
+
+    int getCount();
+
+    void setCount(int count);
+
+    boolean isActive();
+
+    void setActive(boolean active);
+
+}
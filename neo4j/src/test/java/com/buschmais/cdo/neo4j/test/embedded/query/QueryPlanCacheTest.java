@@ -0,0 +1,44 @@
+package com.buschmais.cdo.neo4j.test.embedded.query;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.Statistics;
+import com.buschmais.cdo.neo4j.impl.datastore.CypherExecutor;
+import com.buschmais.cdo.neo4j.impl.datastore.EmbeddedNeo4jDatastoreSession;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.query.composite.A;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class QueryPlanCacheTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class};
+    }
+
+    @Test
+    public void sharedExecutor() {
+        CdoManager cdoManager = getCdoManager();
+        CypherExecutor cypherExecutor = cdoManager.getDatastoreSession(EmbeddedNeo4jDatastoreSession.class).getCypherExecutor();
+        CdoManager otherCdoManager = getCdoManagerFactory().createCdoManager();
+        try {
+            assertThat(otherCdoManager.getDatastoreSession(EmbeddedNeo4jDatastoreSession.class).getCypherExecutor(), sameInstance(cypherExecutor));
+            Statistics statistics = getCdoManagerFactory().getStatistics();
+            long hits = statistics.getQueryPlanCacheHits();
+            long misses = statistics.getQueryPlanCacheMisses();
+            cdoManager.currentTransaction().begin();
+            assertThat(cdoManager.createQuery("MATCH (a:A) WHERE a.value = {value} RETURN a").withParameter("value", "A1").execute().hasResult(), equalTo(false));
+            cdoManager.currentTransaction().commit();
+            otherCdoManager.currentTransaction().begin();
+            assertThat(otherCdoManager.createQuery("MATCH (a:A) WHERE a.value = {value} RETURN a").withParameter("value", "A2").execute().hasResult(), equalTo(false));
+            otherCdoManager.currentTransaction().commit();
+            assertThat(statistics.getQueryPlanCacheMisses(), equalTo(misses + 1));
+            assertThat(statistics.getQueryPlanCacheHits(), equalTo(hits + 1));
+        } finally {
+            otherCdoManager.close();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.buschmais.cdo.neo4j.test.embedded.transaction;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.CdoTransaction;
+import com.buschmais.cdo.api.TransactionAttribute;
+import com.buschmais.cdo.impl.CdoManagerFactoryImpl;
+import com.buschmais.cdo.impl.interceptor.Invocation;
+import com.buschmais.cdo.impl.interceptor.InvocationInterceptor;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.transaction.composite.A;
+import com.buschmais.cdo.neo4j.test.embedded.transaction.composite.B;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
+import static org.hamcrest.core.IsCollectionContaining.hasItem;
+import static org.junit.Assert.assertThat;
+
+public class InvocationInterceptorTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class, B.class};
+    }
+
+    @Override
+    protected TransactionAttribute getTransactionAttribute() {
+        return TransactionAttribute.REQUIRES;
+    }
+
+    @Test
+    public void interceptorChain() {
+        CdoManager cdoManager = getCdoManager();
+        final CdoTransaction cdoTransaction = cdoManager.currentTransaction();
+        final List<String> invocations = new ArrayList<>();
+        final List<Boolean> transactionStates = new ArrayList<>();
+        InvocationInterceptor interceptor = new InvocationInterceptor() {
+            @Override
+            public Object invoke(Invocation invocation) throws Throwable {
+                invocations.add(invocation.getMethod().getName());
+                transactionStates.add(cdoTransaction.isActive());
+                return invocation.proceed();
+            }
+        };
+        ((CdoManagerFactoryImpl) getCdoManagerFactory()).getInterceptorRegistry().addInterceptor(interceptor);
+        A a = cdoManager.create(A.class);
+        a.setValue("value1");
+        assertThat(a.getValue(), equalTo("value1"));
+        assertThat(invocations, hasItem("create"));
+        assertThat(invocations, hasItem("setValue"));
+        assertThat(invocations, hasItem("getValue"));
+        assertThat(transactionStates, not(hasItem(false)));
+        ((CdoManagerFactoryImpl) getCdoManagerFactory()).getInterceptorRegistry().removeInterceptor(interceptor);
+        invocations.clear();
+        a.getValue();
+        assertThat(invocations, hasSize(0));
+    }
+}
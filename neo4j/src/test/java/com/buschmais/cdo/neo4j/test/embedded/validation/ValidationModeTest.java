@@ -0,0 +1,33 @@
+package com.buschmais.cdo.neo4j.test.embedded.validation;
+
+import com.buschmais.cdo.api.CdoManager;
+import com.buschmais.cdo.api.ValidationMode;
+import com.buschmais.cdo.neo4j.test.embedded.AbstractEmbeddedCdoManagerTest;
+import com.buschmais.cdo.neo4j.test.embedded.validation.composite.A;
+import com.buschmais.cdo.neo4j.test.embedded.validation.composite.B;
+import org.junit.Test;
+
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+public class ValidationModeTest extends AbstractEmbeddedCdoManagerTest {
+
+    @Override
+    protected ValidationMode getValidationMode() {
+        return ValidationMode.NONE;
+    }
+
+    @Override
+    protected Class<?>[] getTypes() {
+        return new Class<?>[]{A.class, B.class};
+    }
+
+    @Test
+    public void validationModeNone() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        cdoManager.create(A.class);
+        assertThat(cdoManager.validate(), empty());
+        cdoManager.currentTransaction().commit();
+    }
+}
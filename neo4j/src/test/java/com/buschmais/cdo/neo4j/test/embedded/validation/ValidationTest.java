@@ -12,6 +12,7 @@ import javax.validation.ConstraintViolationException;
 import java.util.Set;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class ValidationTest extends AbstractEmbeddedCdoManagerTest {
@@ -67,4 +68,27 @@ public class ValidationTest extends AbstractEmbeddedCdoManagerTest {
         cdoManager.currentTransaction().rollback();
     }
 
+    @Test
+    public void noValidationOfUnmodifiedInstances() {
+        CdoManager cdoManager = getCdoManager();
+        cdoManager.currentTransaction().begin();
+        cdoManager.createQuery("CREATE (a:A)").execute();
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        A a = cdoManager.createQuery("MATCH (a:A) RETURN a").execute().getSingleResult().get("a", A.class);
+        assertThat(a.getName(), nullValue());
+        cdoManager.currentTransaction().commit();
+        cdoManager.currentTransaction().begin();
+        a.setName("Indiana Jones");
+        Set<ConstraintViolation<?>> constraintViolations = null;
+        try {
+            cdoManager.currentTransaction().commit();
+            Assert.fail("Validation must fail.");
+        } catch (ConstraintViolationException e) {
+            constraintViolations = e.getConstraintViolations();
+        }
+        assertThat(constraintViolations.size(), equalTo(1));
+        cdoManager.currentTransaction().rollback();
+    }
+
 }
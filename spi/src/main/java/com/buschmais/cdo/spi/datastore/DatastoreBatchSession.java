@@ -0,0 +1,34 @@
+package com.buschmais.cdo.spi.datastore;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastoreSession} to create or delete several entities at once
+ * (e.g. using a single request to a remote datastore).
+ * <p>The type discriminators of several entities are read using {@link DatastoreDiscriminatorResolver}.</p>
+ *
+ * @param <Entity>         The type of entities used by the datastore.
+ * @param <EntityMetadata> The type of entity metadata used by the datastore.
+ * @param <Discriminator>  The type of entity discriminators used by the datastore.
+ */
+public interface DatastoreBatchSession<Entity, EntityMetadata extends DatastoreEntityMetadata<Discriminator>, Discriminator> {
+
+    /**
+     * Create new entities for the given types using a set of discriminators representing these types.
+     *
+     * @param types          The types.
+     * @param discriminators The set of discriminators.
+     * @param count          The number of entities to create.
+     * @return The created entities.
+     */
+    List<Entity> createAll(TypeMetadataSet<EntityMetadata> types, Set<Discriminator> discriminators, int count);
+
+    /**
+     * Delete entities.
+     *
+     * @param entities The entities to delete.
+     */
+    void deleteAll(List<Entity> entities);
+
+}
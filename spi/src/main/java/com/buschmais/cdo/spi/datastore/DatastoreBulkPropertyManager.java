@@ -0,0 +1,67 @@
+package com.buschmais.cdo.spi.datastore;
+
+import com.buschmais.cdo.spi.metadata.AbstractPropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
+import com.buschmais.cdo.spi.metadata.RelationMetadata;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastorePropertyManager} to read or write the values of
+ * several properties or the relations of one or more entities with one store access (e.g. using a single request to a
+ * remote datastore).
+ *
+ * @param <Entity>                             The type of entities used by the datastore.
+ * @param <Relation>                           The type of relations used by the datastore.
+ * @param <PrimitivePropertyDatastoreMetadata> The type of metadata for primitive properties used by the datastore.
+ * @param <RelationDatastoreMetadata>          The type of metadata for relations used by the datastore.
+ */
+public interface DatastoreBulkPropertyManager<Entity, Relation, PrimitivePropertyDatastoreMetadata, RelationDatastoreMetadata> {
+
+    /**
+     * Get the values of primitive and enumeration properties of an entity.
+     *
+     * @param entity     The entity.
+     * @param properties The metadata of the properties, each element is either a
+     *                   {@link com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata} or an
+     *                   {@link com.buschmais.cdo.spi.metadata.EnumPropertyMethodMetadata}.
+     * @return The values in the order of the given properties, <code>null</code> represents a property which is not set.
+     */
+    Object[] getProperties(Entity entity, List<AbstractPropertyMethodMetadata<?>> properties);
+
+    /**
+     * Get the values of primitive and enumeration properties of several entities.
+     *
+     * @param entities   The entities.
+     * @param properties The metadata of the properties, see {@link #getProperties(Object, List)}.
+     * @return The values of each entity in the order of the given entities.
+     */
+    List<Object[]> getAllProperties(List<Entity> entities, List<AbstractPropertyMethodMetadata<?>> properties);
+
+    /**
+     * Set the values of primitive properties of an entity.
+     *
+     * @param entity The entity.
+     * @param values The values by the metadata of their properties, a <code>null</code> value removes the property.
+     */
+    void setProperties(Entity entity, Map<PrimitivePropertyMethodMetadata<PrimitivePropertyDatastoreMetadata>, Object> values);
+
+    /**
+     * Set the values of primitive properties of several entities.
+     *
+     * @param values The values by entity, see {@link #setProperties(Object, Map)}.
+     */
+    void setAllProperties(Map<Entity, Map<PrimitivePropertyMethodMetadata<PrimitivePropertyDatastoreMetadata>, Object>> values);
+
+    /**
+     * Get the relations of a type from or to several entities.
+     *
+     * @param sources   The entities.
+     * @param metadata  The relation metadata.
+     * @param direction The direction.
+     * @return The relations of each entity in the order of the given entities.
+     */
+    List<Iterable<Relation>> getRelationsBulk(List<Entity> sources, RelationMetadata<RelationDatastoreMetadata> metadata, RelationMetadata.Direction direction);
+
+}
@@ -0,0 +1,23 @@
+package com.buschmais.cdo.spi.datastore;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastoreSession} to read the type discriminators of several
+ * entities at once (e.g. using a single request to a remote datastore).
+ *
+ * @param <Entity>        The type of entities used by the datastore.
+ * @param <Discriminator> The type of entity discriminators used by the datastore.
+ */
+public interface DatastoreDiscriminatorResolver<Entity, Discriminator> {
+
+    /**
+     * Return the type discriminators of the given entities.
+     *
+     * @param entities The entities.
+     * @return The sets of type discriminators in the order of the given entities.
+     */
+    List<Set<Discriminator>> getDiscriminators(List<Entity> entities);
+
+}
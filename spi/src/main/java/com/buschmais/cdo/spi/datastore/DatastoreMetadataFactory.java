@@ -52,6 +52,8 @@ public interface DatastoreMetadataFactory<EntityMetadata extends DatastoreEntity
 
     /**
      * Create the datastore specific metadata for a property representing primitive value.
+     * <p>Instances representing the same datastore property should be equal, e.g. for the get and set method of a
+     * property.</p>
      *
      * @param propertyMethod The method.
      * @return An instance of datastore specific method metadata.
@@ -0,0 +1,23 @@
+package com.buschmais.cdo.spi.datastore;
+
+import com.buschmais.cdo.spi.metadata.PrimitivePropertyMethodMetadata;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastorePropertyManager} to read the value of a primitive
+ * property with one store access instead of determining its presence first.
+ *
+ * @param <Entity>                             The type of entities used by the datastore.
+ * @param <PrimitivePropertyDatastoreMetadata> The type of metadata for primitive properties used by the datastore.
+ */
+public interface DatastorePropertyReader<Entity, PrimitivePropertyDatastoreMetadata> {
+
+    /**
+     * Get the value of a primitive property.
+     *
+     * @param entity   The entity.
+     * @param metadata The property metadata.
+     * @return The value or <code>null</code> if the property is not set.
+     */
+    Object getPropertyOrNull(Entity entity, PrimitivePropertyMethodMetadata<PrimitivePropertyDatastoreMetadata> metadata);
+
+}
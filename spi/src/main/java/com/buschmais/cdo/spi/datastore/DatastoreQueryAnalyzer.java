@@ -0,0 +1,31 @@
+package com.buschmais.cdo.spi.datastore;
+
+import java.util.Set;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastoreSession} to determine the entities a query depends
+ * on and if it may modify entities, this allows invalidating cached query results and property values selectively.
+ *
+ * @param <Discriminator> The type of entity discriminators used by the datastore.
+ */
+public interface DatastoreQueryAnalyzer<Discriminator> {
+
+    /**
+     * Determine the discriminators of all entities which may be read by a query.
+     *
+     * @param query The query.
+     * @param <QL>  The query language type.
+     * @return The discriminators or <code>null</code> if the query may read entities of any discriminator.
+     */
+    <QL> Set<Discriminator> getQueryDiscriminators(QL query);
+
+    /**
+     * Determine if a query only reads entities.
+     *
+     * @param query The query.
+     * @param <QL>  The query language type.
+     * @return <code>true</code> if the query cannot modify entities, <code>false</code> if it may modify entities.
+     */
+    <QL> boolean isReadOnly(QL query);
+
+}
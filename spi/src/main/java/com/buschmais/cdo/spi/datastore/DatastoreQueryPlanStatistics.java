@@ -0,0 +1,23 @@
+package com.buschmais.cdo.spi.datastore;
+
+/**
+ * Optional interface which may be implemented by a {@link Datastore} caching the execution plans of queries, its
+ * counters are provided by {@link com.buschmais.cdo.api.Statistics}.
+ */
+public interface DatastoreQueryPlanStatistics {
+
+    /**
+     * Return the number of queries which have been executed using a cached plan.
+     *
+     * @return The number of plan cache hits.
+     */
+    long getQueryPlanCacheHits();
+
+    /**
+     * Return the number of queries which required a plan to be built.
+     *
+     * @return The number of plan cache misses.
+     */
+    long getQueryPlanCacheMisses();
+
+}
@@ -0,0 +1,35 @@
+package com.buschmais.cdo.spi.datastore;
+
+import com.buschmais.cdo.spi.metadata.RelationMetadata;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastorePropertyManager} to count relations or check for a
+ * relation between two entities without reading all relations of an entity.
+ *
+ * @param <Entity>                    The type of entities used by the datastore.
+ * @param <RelationDatastoreMetadata> The type of metadata for relations used by the datastore.
+ */
+public interface DatastoreRelationCounter<Entity, RelationDatastoreMetadata> {
+
+    /**
+     * Return the number of relations of an entity.
+     *
+     * @param source    The entity.
+     * @param metadata  The relation metadata.
+     * @param direction The direction.
+     * @return The number of relations.
+     */
+    long countRelations(Entity source, RelationMetadata<RelationDatastoreMetadata> metadata, RelationMetadata.Direction direction);
+
+    /**
+     * Determine if a relation between two entities exists.
+     *
+     * @param source    The source.
+     * @param metadata  The relation metadata.
+     * @param direction The direction.
+     * @param target    The target.
+     * @return <code>true</code> if at least one relation exists.
+     */
+    boolean hasRelation(Entity source, RelationMetadata<RelationDatastoreMetadata> metadata, RelationMetadata.Direction direction, Entity target);
+
+}
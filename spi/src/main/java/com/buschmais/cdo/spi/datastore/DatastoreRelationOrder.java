@@ -0,0 +1,27 @@
+package com.buschmais.cdo.spi.datastore;
+
+/**
+ * Optional interface which may be implemented by a {@link DatastorePropertyManager} to store an order key on relations,
+ * this allows mapping relations to lists annotated with {@link com.buschmais.cdo.api.annotation.Ordered}.
+ *
+ * @param <Relation> The type of relations used by the datastore.
+ */
+public interface DatastoreRelationOrder<Relation> {
+
+    /**
+     * Return the order key of a relation.
+     *
+     * @param relation The relation.
+     * @return The order key or <code>null</code> if it is not set.
+     */
+    Long getOrder(Relation relation);
+
+    /**
+     * Set the order key of a relation.
+     *
+     * @param relation The relation.
+     * @param order    The order key.
+     */
+    void setOrder(Relation relation, long order);
+
+}
@@ -110,4 +110,9 @@ public interface DatastoreSession<EntityId, Entity, EntityMetadata extends Datas
      */
     DatastorePropertyManager getDatastorePropertyManager();
 
+    /**
+     * Close the session, an active transaction is rolled back. The session must not be used afterwards.
+     */
+    void close();
+
 }
@@ -6,8 +6,20 @@ import static com.buschmais.cdo.spi.metadata.RelationMetadata.Direction;
 
 public class CollectionPropertyMethodMetadata<DatastoreMetadata> extends AbstractRelationPropertyMethodMetadata<DatastoreMetadata> {
 
-    public CollectionPropertyMethodMetadata(PropertyMethod propertyMethod, RelationMetadata relationshipType, Direction direction, DatastoreMetadata datastoreMetadata) {
+    private boolean ordered;
+
+    public CollectionPropertyMethodMetadata(PropertyMethod propertyMethod, RelationMetadata relationshipType, Direction direction, boolean ordered, DatastoreMetadata datastoreMetadata) {
         super(propertyMethod, relationshipType, direction, datastoreMetadata);
+        this.ordered = ordered;
+    }
+
+    /**
+     * Determine if the order of the elements shall be kept by the datastore.
+     *
+     * @return <code>true</code> if the property is an ordered list.
+     */
+    public boolean isOrdered() {
+        return ordered;
     }
 
 }